@@ -7,14 +7,18 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.api.util.ETags;
 import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.category.dto.CategoryTreeSnapshot;
 import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.common.exception.ValidationException;
 import ru.stroy1click.catalog.domain.category.service.CategoryService;
+import ru.stroy1click.catalog.domain.category.service.CategoryTreeService;
 import ru.stroy1click.common.util.ValidationErrorUtils;
 import ru.stroy1click.catalog.domain.category.validator.CategoryCreateValidator;
 import ru.stroy1click.catalog.domain.category.validator.CategoryUpdateValidator;
@@ -41,22 +45,47 @@ public class CategoryController {
 
     private final ImageValidator imageValidator;
 
+    private final CategoryTreeService categoryTreeService;
+
+    @GetMapping("/tree")
+    @Operation(summary = "Получить дерево категорий, подкатегорий и типов продуктов")
+    public ResponseEntity<byte[]> getTree(){
+        CategoryTreeSnapshot tree = this.categoryTreeService.getTree();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(tree.etag())
+                .body(tree.body());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Получить категорию")
-    public CategoryDto get(@PathVariable("id") Integer id){
-        return this.categoryService.get(id);
+    public ResponseEntity<CategoryDto> get(@PathVariable("id") Integer id){
+        CategoryDto category = this.categoryService.get(id);
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(category))
+                .body(category);
     }
 
     @GetMapping
     @Operation(summary = "Получить все категории")
-    public List<CategoryDto> getCategories(){
-        return this.categoryService.getAll();
+    public ResponseEntity<List<CategoryDto>> getCategories(){
+        List<CategoryDto> categories = this.categoryService.getAll();
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(categories))
+                .body(categories);
     }
 
     @GetMapping("/{id}/subcategories")
     @Operation(summary = "Получить все подкатегории, которые принадлежат категории {id}")
-    public List<SubcategoryDto> getSubcategories(@PathVariable("id") Integer id){
-        return this.categoryService.getSubcategories(id);
+    public ResponseEntity<List<SubcategoryDto>> getSubcategories(@PathVariable("id") Integer id){
+        List<SubcategoryDto> subcategories = this.categoryService.getSubcategories(id);
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(subcategories))
+                .body(subcategories);
     }
 
     @PostMapping("/{id}/image")
@@ -2,32 +2,61 @@ package ru.stroy1click.catalog.api.controller;
 
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.stroy1click.catalog.api.util.ETags;
+import ru.stroy1click.catalog.domain.product.dto.ProductBatchDto;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductPageResponse;
+import ru.stroy1click.catalog.domain.product.dto.ProductSortField;
+import ru.stroy1click.catalog.domain.product.dto.SuggestionDto;
 import ru.stroy1click.catalog.domain.product.image.dto.ProductImageDto;
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
 import ru.stroy1click.common.exception.ValidationException;
+import ru.stroy1click.catalog.domain.common.dto.CursorPageResponse;
+import ru.stroy1click.catalog.domain.common.dto.ImageUploadRequest;
+import ru.stroy1click.catalog.domain.common.dto.JsonBody;
 import ru.stroy1click.catalog.domain.common.dto.PageResponse;
+import ru.stroy1click.catalog.domain.common.dto.PresignedUrlDto;
+import ru.stroy1click.catalog.domain.common.dto.TotalsMode;
 import ru.stroy1click.catalog.domain.product.image.service.ProductImageService;
+import ru.stroy1click.catalog.domain.product.service.ProductExportService;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetService;
+import ru.stroy1click.catalog.domain.product.service.ProductImportService;
+import ru.stroy1click.catalog.domain.product.service.ProductJsonService;
 import ru.stroy1click.catalog.domain.product.service.ProductPaginationService;
 import ru.stroy1click.catalog.domain.product.service.ProductService;
+import ru.stroy1click.catalog.domain.product.service.ProductSuggestService;
 import ru.stroy1click.common.util.ValidationErrorUtils;
 import ru.stroy1click.catalog.domain.product.validator.ProductCreateValidator;
 import ru.stroy1click.catalog.domain.product.validator.ProductUpdateValidator;
 import ru.stroy1click.common.validator.ImageValidator;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.util.List;
 import java.util.Locale;
-import java.util.Objects;
-import java.util.stream.Stream;
+import java.util.UUID;
 
 @RestController
 @RequiredArgsConstructor
@@ -48,12 +77,101 @@ public class ProductController {
 
     private final ProductImageService productImageService;
 
+    private final ImageMetadataService imageMetadataService;
+
     private final ImageValidator imageValidator;
 
+    private final ProductExportService productExportService;
+
+    private final ProductSuggestService productSuggestService;
+
+    private final ProductFacetService productFacetService;
+
+    private final ProductImportService productImportService;
+
+    private final ProductJsonService productJsonService;
+
+    @Value("${catalog.json-passthrough.enabled:false}")
+    private boolean jsonPassthrough;
+
+    private final static MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final static int MAX_SEARCH_QUERY_LENGTH = 200;
+
+    private final static int MAX_SUGGEST_LIMIT = 50;
+
+    //верхняя граница размера страницы: без неё size=Integer.MAX_VALUE переполняет запрос size+1
+    private final static int MAX_PAGE_SIZE = 100;
+
     @GetMapping("/{id}")
     @Operation(summary = "Получить продукт")
-    public ProductDto get(@PathVariable("id") Integer id){
-        return this.productService.get(id);
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = ProductDto.class)))
+    public ResponseEntity<?> get(@PathVariable("id") Integer id,
+                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        if(this.jsonPassthrough){
+            return getJson(id, acceptEncoding);
+        }
+        ProductDto product = this.productService.get(id);
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(product))
+                .body(product);
+    }
+
+    //байты из кэша уходят в ответ как есть: ByteArrayHttpMessageConverter, без Jackson
+    private ResponseEntity<byte[]> getJson(Integer id, String acceptEncoding){
+        JsonBody body = this.productJsonService.get(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if(body.getGzip() != null && acceptsGzip(acceptEncoding)){
+            return response.eTag(ETags.gzip(body))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(body.getGzip());
+        }
+        return response.eTag(ETags.of(body)).body(body.getJson());
+    }
+
+    //Accept-Encoding с весами (RFC 9110, 12.5.3): gzip;q=0 - отказ от gzip, * задаёт вес не перечисленных кодировок
+    private static boolean acceptsGzip(String acceptEncoding){
+        if(acceptEncoding == null){
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for(String element : acceptEncoding.split(",")){
+            String[] parts = element.split(";");
+            String coding = parts[0].strip().toLowerCase(Locale.ROOT);
+            double weight = 1;
+            for(int i = 1; i < parts.length; i++){
+                String parameter = parts[i].strip();
+                if(parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")){
+                    try {
+                        weight = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        weight = 0;
+                    }
+                }
+            }
+            if(coding.equals("gzip") || coding.equals("x-gzip")){
+                gzip = weight;
+            } else if(coding.equals("*")){
+                any = weight;
+            }
+        }
+        if(gzip != null){
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Выгрузить все продукты",
+            description = "Поток NDJSON: один продукт в строке, отсортировано по id")
+    public ResponseEntity<StreamingResponseBody> export(){
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(this.productExportService::exportAll);
     }
 
     @GetMapping("/{id}/images")
@@ -62,6 +180,16 @@ public class ProductController {
         return this.productImageService.getAllByProductId(id);
     }
 
+    //размеры, тип и ETag из Postgres, без HEAD к S3 на каждое изображение
+    @GetMapping("/{id}/images/metadata")
+    @Operation(summary = "Получить метаданные изображений продукта")
+    public List<ImageMetadataDto> getImagesMetadata(@PathVariable("id") Integer id){
+        List<String> links = this.productImageService.getAllByProductId(id).stream()
+                .map(ProductImageDto::getLink)
+                .toList();
+        return this.imageMetadataService.getAll(links);
+    }
+
     @PostMapping("/{id}/images")
     @Operation(summary = "Загрузить изображения продукту")
     public ResponseEntity<String> assignImages(@PathVariable("id") Integer id,
@@ -78,6 +206,33 @@ public class ProductController {
         );
     }
 
+    @PostMapping("/{id}/images/presign")
+    @Operation(summary = "Получить ссылку для загрузки изображения напрямую в S3",
+            description = "PUT по ссылке с заголовками из ответа, затем подтверждение ключа через /images/confirm")
+    public PresignedUrlDto presignImageUpload(@PathVariable("id") Integer id,
+                                              @RequestBody @Valid ImageUploadRequest request,
+                                              BindingResult bindingResult){
+        if(bindingResult.hasFieldErrors()) throw new ValidationException(ValidationErrorUtils.collectErrorsToString(
+                bindingResult.getFieldErrors()
+        ));
+
+        return this.productService.presignImageUpload(id, request);
+    }
+
+    @PostMapping("/{id}/images/confirm")
+    @Operation(summary = "Подтвердить загрузку изображения по ссылке")
+    public ResponseEntity<String> confirmImage(@PathVariable("id") Integer id,
+                                               @RequestParam("key") String key){
+        this.productService.confirmImage(id, key);
+        return ResponseEntity.ok(
+                this.messageSource.getMessage(
+                        "info.product.images.upload",
+                        null,
+                        Locale.getDefault()
+                )
+        );
+    }
+
     @DeleteMapping("/{id}/images")
     @Operation(summary = "Удалить изображения продукта")
     public ResponseEntity<String> deleteImage(@PathVariable("id") Integer id,
@@ -93,27 +248,89 @@ public class ProductController {
     }
 
     @GetMapping
-    @Operation(summary = "Получить продукты с пагинацией")
-    public PageResponse<ProductDto> getProductsByPagination(
+    @Operation(summary = "Получить продукты с пагинацией",
+            description = "Фильтры categoryId, subcategoryId, productTypeId, inStock, minPrice, maxPrice комбинируются, " +
+                    "нужен хотя бы один из categoryId, subcategoryId, productTypeId. sort: id, price, title; " +
+                    "direction: asc, desc. totals: exact - точное количество, estimated - приблизительное из кэша, " +
+                    "none - без подсчёта. facets=true добавляет количество продуктов по подкатегориям, типам, " +
+                    "наличию и диапазонам цен в пределах самого узкого из переданных уровней иерархии")
+    public ProductPageResponse getProductsByPagination(
             @RequestParam(value = "page", defaultValue = "0") Integer page,
             @RequestParam(value = "size", defaultValue = "20") Integer size,
             @RequestParam(value = "categoryId", required = false) Integer categoryId,
             @RequestParam(value = "subcategoryId", required = false) Integer subcategoryId,
-            @RequestParam(value = "productTypeId", required = false) Integer productTypeId
+            @RequestParam(value = "productTypeId", required = false) Integer productTypeId,
+            @RequestParam(value = "inStock", required = false) Boolean inStock,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+            @RequestParam(value = "totals", defaultValue = "exact") String totals,
+            @RequestParam(value = "facets", defaultValue = "false") Boolean facets
     ) {
-        if (Stream.of(categoryId, subcategoryId, productTypeId).filter(Objects::nonNull).count() > 1) {
+        ProductFilter filter = new ProductFilter(categoryId, subcategoryId, productTypeId, inStock, minPrice, maxPrice);
+        validateFilter(filter);
+        validatePageSize(size);
+        validatePage(page, size);
+
+        PageResponse<ProductDto> products = this.productPaginationService.getProducts(filter,
+                PageRequest.of(page, size, parseSort(sort, direction)), parseTotalsMode(totals));
+        return new ProductPageResponse(products, facets ? this.productFacetService.getFacets(filter) : null);
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "Получить продукты с курсорной пагинацией",
+            description = "after - курсор из поля next предыдущей страницы, пустое значение - первая страница. " +
+                    "Фильтры те же, что и у постраничного запроса, сортировка только по id")
+    public CursorPageResponse<ProductDto> getProductsByCursor(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            @RequestParam(value = "categoryId", required = false) Integer categoryId,
+            @RequestParam(value = "subcategoryId", required = false) Integer subcategoryId,
+            @RequestParam(value = "productTypeId", required = false) Integer productTypeId,
+            @RequestParam(value = "inStock", required = false) Boolean inStock,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice
+    ) {
+        ProductFilter filter = new ProductFilter(categoryId, subcategoryId, productTypeId, inStock, minPrice, maxPrice);
+        validateFilter(filter);
+        validatePageSize(size);
+
+        return this.productPaginationService.getProducts(filter, after, size);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Полнотекстовый поиск продуктов",
+            description = "Поиск по названию и описанию, q в синтаксисе websearch (\"кавычки\", or, -исключение). " +
+                    "Результаты отсортированы по релевантности, общее количество известно только на последней странице")
+    public PageResponse<ProductDto> search(
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "20") Integer size
+    ) {
+        if (query.isBlank() || query.length() > MAX_SEARCH_QUERY_LENGTH) {
             throw new ValidationException(
                     this.messageSource.getMessage(
-                            "error.filter.invalid_combination",
+                            "error.search.query.invalid",
                             null,
                             Locale.getDefault()
                     )
             );
         }
+        validatePageSize(size);
+        validatePage(page, size);
 
-        return this.productPaginationService.getProducts(categoryId, subcategoryId, productTypeId, PageRequest.of(page, size));
+        return this.productPaginationService.search(query.strip(), PageRequest.of(page, size));
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Подсказки для поиска",
+            description = "Категории и продукты, в названии которых есть слова, начинающиеся с введённых. " +
+                    "Ищет по индексу в памяти, без обращения к базе")
+    public List<SuggestionDto> suggest(@RequestParam(value = "q") String query,
+                                       @RequestParam(value = "limit", defaultValue = "10") Integer limit){
+        return this.productSuggestService.suggest(query, Math.clamp(limit, 0, MAX_SUGGEST_LIMIT));
+    }
 
     @PostMapping
     @Operation(summary = "Создать продукт")
@@ -132,6 +349,69 @@ public class ProductController {
                 .body(createdProduct);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Создать продукты пакетом", description = "До 10000 продуктов в одной транзакции")
+    public ResponseEntity<List<ProductDto>> createAll(@RequestBody @Valid ProductBatchDto batch,
+                                                      BindingResult bindingResult){
+        if(bindingResult.hasFieldErrors()) throw new ValidationException(ValidationErrorUtils.collectErrorsToString(
+                bindingResult.getFieldErrors()
+        ));
+
+        this.createValidator.validate(batch.getProducts());
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(this.productService.createAll(batch.getProducts()));
+    }
+
+    @PatchMapping("/batch")
+    @Operation(summary = "Обновить продукты пакетом", description = "До 10000 продуктов в одной транзакции, id обязателен")
+    public ResponseEntity<String> updateAll(@RequestBody @Valid ProductBatchDto batch,
+                                            BindingResult bindingResult){
+        if(bindingResult.hasFieldErrors()) throw new ValidationException(ValidationErrorUtils.collectErrorsToString(
+                bindingResult.getFieldErrors()
+        ));
+
+        if(batch.getProducts().stream().anyMatch(productDto -> productDto.getId() == null)){
+            throw new ValidationException(
+                    this.messageSource.getMessage(
+                            "error.product.batch.id_required",
+                            null,
+                            Locale.getDefault()
+                    )
+            );
+        }
+        this.updateValidator.validate(batch.getProducts());
+
+        this.productService.updateAll(batch.getProducts());
+        return ResponseEntity.ok(
+                this.messageSource.getMessage(
+                        "info.product.batch.update",
+                        null,
+                        Locale.getDefault()
+                )
+        );
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @Operation(summary = "Импортировать продукты из CSV",
+            description = "Тело - CSV в UTF-8 с заголовком title,description,price,unit,in_stock,category,subcategory,product_type. " +
+                    "Категории указываются названиями, продукты сопоставляются по названию. Импорт идёт в фоне")
+    public ResponseEntity<ProductImportDto> importCsv(InputStream csv){
+        ProductImportDto productImport = this.productImportService.start(csv);
+
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/v1/products/import/" + productImport.getId()))
+                .body(productImport);
+    }
+
+    @GetMapping("/import/{id}")
+    @Operation(summary = "Получить прогресс импорта")
+    public ProductImportDto getImport(@PathVariable("id") UUID id){
+        return this.productImportService.get(id);
+    }
+
     @PatchMapping("/{id}")
     @Operation(summary = "Обновить продукт")
     public ResponseEntity<String> update(@PathVariable("id") Integer id,
@@ -166,4 +446,70 @@ public class ProductController {
                 )
         );
     }
+
+    private void validateFilter(ProductFilter filter) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new ValidationException(
+                    this.messageSource.getMessage(
+                            "error.filter.price_range",
+                            null,
+                            Locale.getDefault()
+                    )
+            );
+        }
+    }
+
+    private void validatePageSize(Integer size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException(
+                    this.messageSource.getMessage(
+                            "error.page.size",
+                            null,
+                            Locale.getDefault()
+                    )
+            );
+        }
+    }
+
+    //смещение page * size передаётся в setFirstResult(int), поэтому ограничено Integer.MAX_VALUE
+    private void validatePage(Integer page, Integer size) {
+        if (page < 0 || (long) page * size > Integer.MAX_VALUE) {
+            throw new ValidationException(
+                    this.messageSource.getMessage(
+                            "error.page.number",
+                            null,
+                            Locale.getDefault()
+                    )
+            );
+        }
+    }
+
+    private Sort parseSort(String sort, String direction) {
+        try {
+            return Sort.by(Sort.Direction.fromString(direction), ProductSortField.from(sort).getProperty());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(
+                    this.messageSource.getMessage(
+                            "error.sort.invalid",
+                            null,
+                            Locale.getDefault()
+                    )
+            );
+        }
+    }
+
+    private TotalsMode parseTotalsMode(String totals) {
+        try {
+            return TotalsMode.from(totals);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(
+                    this.messageSource.getMessage(
+                            "error.totals.invalid",
+                            null,
+                            Locale.getDefault()
+                    )
+            );
+        }
+    }
 }
\ No newline at end of file
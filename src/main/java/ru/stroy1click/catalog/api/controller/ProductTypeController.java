@@ -10,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.api.util.ETags;
 import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
 import ru.stroy1click.common.exception.ValidationException;
 import ru.stroy1click.catalog.domain.producttype.service.ProductTypeService;
@@ -41,14 +42,22 @@ public class ProductTypeController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить тип продукта")
-    public ProductTypeDto get(@PathVariable("id") Integer id){
-        return this.productTypeService.get(id);
+    public ResponseEntity<ProductTypeDto> get(@PathVariable("id") Integer id){
+        ProductTypeDto productType = this.productTypeService.get(id);
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(productType))
+                .body(productType);
     }
 
     @GetMapping
     @Operation(summary = "Получить все типы продуктов")
-    public List<ProductTypeDto> getAll(){
-        return this.productTypeService.getAll();
+    public ResponseEntity<List<ProductTypeDto>> getAll(){
+        List<ProductTypeDto> productTypes = this.productTypeService.getAll();
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(productTypes))
+                .body(productTypes);
     }
 
     @PostMapping("/{id}/image")
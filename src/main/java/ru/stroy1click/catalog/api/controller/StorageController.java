@@ -2,13 +2,33 @@ package ru.stroy1click.catalog.api.controller;
 
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.MessageSource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+import ru.stroy1click.catalog.domain.common.dto.PresignedUrlDto;
+import ru.stroy1click.catalog.domain.common.dto.StoredFile;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
+import ru.stroy1click.common.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.Locale;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,11 +39,141 @@ public class StorageController {
 
     private final StorageService storageService;
 
+    private final MessageSource messageSource;
+
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    private final static String BINARY_OCTET_STREAM = "binary/octet-stream";
+
+    private final static String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private final static String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private final static String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private final static String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final static CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    //тело копируется из потока S3 буфером фиксированного размера, в памяти не больше BUFFER_SIZE на запрос;
+    //файл из локального кэша отдаёт сам Tomcat через sendfile
+    //variant - уменьшенная копия для списков и карточек; пока копия не построена, отдаётся оригинал
     @GetMapping("/{fileName}")
-    public ResponseEntity<?> downloadFile(@PathVariable String fileName) {
-        byte[] data = this.storageService.downloadImage(fileName);
-        return ResponseEntity.status(HttpStatus.OK)
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(data);
+    public ResponseEntity<StreamingResponseBody> downloadFile(HttpServletRequest request,
+                                                              @PathVariable String fileName,
+                                                              @RequestParam(value = "variant", required = false) String variant,
+                                                              @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        StoredFile file = this.storageService.downloadImage(fileName, parseVariant(variant), singleRange(range), ifNoneMatch);
+        //содержимое по ключу sha256-... не меняется; копии сюда не относятся:
+        //пока копия не построена, по тому же адресу отдаётся оригинал
+        CacheControl cacheControl = variant == null && StorageService.isContentAddressed(fileName)
+                ? IMMUTABLE
+                : CacheControl.empty();
+        switch (file.status()) {
+            case NOT_MODIFIED -> {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(file.eTag())
+                        .cacheControl(cacheControl)
+                        .build();
+            }
+            case RANGE_NOT_SATISFIABLE -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+                //bytes */размер: клиент узнаёт, какие диапазоны допустимы
+                if (file.contentRange() != null) {
+                    response.header(HttpHeaders.CONTENT_RANGE, file.contentRange());
+                }
+                return response.build();
+            }
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(file.status() == StoredFile.Status.PARTIAL ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentType(contentType(fileName, file.contentType()))
+                .eTag(file.eTag())
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (file.contentLength() != null) {
+            response.contentLength(file.contentLength());
+        }
+        if (file.contentRange() != null) {
+            response.header(HttpHeaders.CONTENT_RANGE, file.contentRange());
+        }
+        if (file.path() != null) {
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, file.position());
+                request.setAttribute(SENDFILE_END, file.position() + file.contentLength());
+                return response.build();
+            }
+            return response.body(outputStream -> transfer(file, outputStream));
+        }
+        return response.body(outputStream -> {
+            try (InputStream content = file.content()) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, read);
+                }
+            }
+        });
+    }
+
+    //без sendfile (TLS на коннекторе, MockMvc) - FileChannel.transferTo, без копирования в куче
+    private void transfer(StoredFile file, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.path())) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = file.position();
+            long end = position + file.contentLength();
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+    }
+
+    //ссылка на скачивание напрямую из S3, байты изображения через сервис не проходят
+    @GetMapping("/{fileName}/presigned")
+    public PresignedUrlDto presignDownload(@PathVariable String fileName,
+                                           @RequestParam(value = "variant", required = false) String variant) {
+        return this.storageService.presignDownload(fileName, parseVariant(variant));
+    }
+
+    private ImageVariant parseVariant(String variant) {
+        if (variant == null) {
+            return null;
+        }
+        try {
+            return ImageVariant.from(variant);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(
+                    this.messageSource.getMessage(
+                            "error.image_variant.invalid",
+                            null,
+                            Locale.getDefault()
+                    )
+            );
+        }
+    }
+
+    //S3 поддерживает только один диапазон; несколько диапазонов или ошибка в заголовке - отдаём файл целиком
+    private String singleRange(String range) {
+        if (range == null) {
+            return null;
+        }
+        try {
+            return HttpRange.parseRanges(range).size() == 1 ? range : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    //файлы, загруженные до сохранения Content-Type, лежат в S3 как binary/octet-stream - определяем тип по расширению
+    private MediaType contentType(String fileName, String storedContentType) {
+        if (storedContentType != null && !storedContentType.equals(BINARY_OCTET_STREAM)
+                && !storedContentType.equals(MediaType.APPLICATION_OCTET_STREAM_VALUE)) {
+            return MediaType.parseMediaType(storedContentType);
+        }
+        return MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
     }
 }
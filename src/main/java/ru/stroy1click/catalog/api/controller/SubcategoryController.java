@@ -10,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.api.util.ETags;
 import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
 import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.common.exception.ValidationException;
@@ -42,14 +43,22 @@ public class SubcategoryController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить подкатегорию")
-    public SubcategoryDto get(@PathVariable("id") Integer id){
-        return this.subcategoryService.get(id);
+    public ResponseEntity<SubcategoryDto> get(@PathVariable("id") Integer id){
+        SubcategoryDto subcategory = this.subcategoryService.get(id);
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(subcategory))
+                .body(subcategory);
     }
 
     @GetMapping
     @Operation(summary = "Получить все подкатегории")
-    public List<SubcategoryDto> getAll(){
-        return this.subcategoryService.getAll();
+    public ResponseEntity<List<SubcategoryDto>> getAll(){
+        List<SubcategoryDto> subcategories = this.subcategoryService.getAll();
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(subcategories))
+                .body(subcategories);
     }
 
     @PostMapping("/{id}/image")
@@ -85,8 +94,12 @@ public class SubcategoryController {
 
     @GetMapping("/{id}/product-types")
     @Operation(summary = "Получить типы продуктов по подкатегории")
-    public List<ProductTypeDto> getBySubcategory(@PathVariable("id") Integer id){
-        return this.subcategoryService.getProductTypes(id);
+    public ResponseEntity<List<ProductTypeDto>> getBySubcategory(@PathVariable("id") Integer id){
+        List<ProductTypeDto> productTypes = this.subcategoryService.getProductTypes(id);
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(productTypes))
+                .body(productTypes);
     }
 
     @PostMapping
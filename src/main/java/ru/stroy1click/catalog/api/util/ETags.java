@@ -0,0 +1,45 @@
+package ru.stroy1click.catalog.api.util;
+
+import org.springframework.util.DigestUtils;
+import ru.stroy1click.catalog.domain.common.dto.Versioned;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+//Сильные ETag из id и @Version: совпадение с If-None-Match проверяется до сериализации тела,
+//при совпадении Spring отвечает 304 без тела
+public final class ETags {
+
+    private ETags() {
+    }
+
+    //null - без ETag: DTO из кэша, записанного до появления версий
+    public static String of(Versioned dto) {
+        if (dto.getVersion() == null) {
+            return null;
+        }
+        return "\"" + dto.getId() + "-" + dto.getVersion() + "\"";
+    }
+
+    //у сжатого представления свой ETag (RFC 9110, 8.8.3): с общим ETag кэш по If-None-Match
+    //подтвердил бы клиенту без gzip сохранённое сжатое тело
+    public static String gzip(Versioned dto) {
+        String etag = of(dto);
+        if (etag == null) {
+            return null;
+        }
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    //порядок элементов входит в представление, поэтому участвует в хэше
+    public static String of(List<? extends Versioned> dtos) {
+        StringBuilder versions = new StringBuilder(dtos.size() * 12);
+        for (Versioned dto : dtos) {
+            if (dto.getVersion() == null) {
+                return null;
+            }
+            versions.append(dto.getId()).append(':').append(dto.getVersion()).append(';');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
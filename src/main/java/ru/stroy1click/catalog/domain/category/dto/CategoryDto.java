@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.Length;
+import ru.stroy1click.catalog.domain.common.dto.Versioned;
 
 import java.io.Serializable;
 
@@ -13,7 +14,7 @@ import java.io.Serializable;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class CategoryDto implements Serializable {
+public class CategoryDto implements Serializable, Versioned {
 
     private final static Long SerialVersionUID= 1L;
 
@@ -24,4 +25,6 @@ public class CategoryDto implements Serializable {
     @NotBlank(message = "{validation.categorydto.title.not_blank}")
     @Length(min = 2, max = 40, message = "{validation.categorydto.title.length}")
     private String title;
-}
\ No newline at end of file
+
+    private Long version;
+}
@@ -0,0 +1,24 @@
+package ru.stroy1click.catalog.domain.category.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryTreeDto;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryTreeDto {
+
+    private Integer id;
+
+    private String title;
+
+    private String image;
+
+    private List<SubcategoryTreeDto> subcategories;
+}
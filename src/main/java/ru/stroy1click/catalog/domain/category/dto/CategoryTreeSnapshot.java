@@ -0,0 +1,5 @@
+package ru.stroy1click.catalog.domain.category.dto;
+
+//готовый JSON дерева категорий, отдаётся как есть
+public record CategoryTreeSnapshot(byte[] body, String etag) {
+}
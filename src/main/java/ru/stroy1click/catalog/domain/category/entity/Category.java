@@ -13,6 +13,7 @@ import java.util.List;
 @Data
 @Table(schema = "catalog", name = "categories")
 @Entity
+@EntityListeners(CategoryTreeListener.class)
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -26,6 +27,9 @@ public class Category {
 
     private String image;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "category", fetch = FetchType.LAZY)
     private List<Subcategory> subcategories;
 
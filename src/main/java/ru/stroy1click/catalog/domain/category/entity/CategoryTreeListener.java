@@ -0,0 +1,24 @@
+package ru.stroy1click.catalog.domain.category.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.category.event.CategoryTreeChangedEvent;
+
+//Подключается к Category, Subcategory и ProductType, Hibernate берёт бин из контекста Spring
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeListener {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        this.applicationEventPublisher.publishEvent(new CategoryTreeChangedEvent(false));
+    }
+}
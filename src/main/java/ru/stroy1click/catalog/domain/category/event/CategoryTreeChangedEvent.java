@@ -0,0 +1,5 @@
+package ru.stroy1click.catalog.domain.category.event;
+
+//remote - изменение пришло с другого узла, повторно рассылать его не нужно
+public record CategoryTreeChangedEvent(boolean remote) {
+}
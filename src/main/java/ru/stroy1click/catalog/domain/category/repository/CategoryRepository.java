@@ -1,9 +1,15 @@
 package ru.stroy1click.catalog.domain.category.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
 import ru.stroy1click.catalog.domain.category.entity.Category;
+import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +17,15 @@ public interface CategoryRepository extends JpaRepository<Category, Integer>{
 
     Optional<Category> findByTitle(String title);
 
+    @Query("select c.id from Category c where c.id in :ids")
+    List<Integer> findIdsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select new ru.stroy1click.catalog.domain.category.dto.CategoryDto(c.id, c.image, c.title, c.version) " +
+            "from Category c order by c.id")
+    List<CategoryDto> findAllDtos();
+
+    @Query("select new ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto(s.id, s.category.id, s.image, s.title, s.version) " +
+            "from Subcategory s where s.category.id = :categoryId")
+    List<SubcategoryDto> findSubcategoryDtosByCategoryId(@Param("categoryId") Integer categoryId);
+
 }
@@ -7,10 +7,14 @@ import ru.stroy1click.catalog.domain.common.service.CrudOperations;
 import ru.stroy1click.catalog.domain.common.service.ImageAssignmentService;
 
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 public interface CategoryService extends CrudOperations<Integer, CategoryDto>, ImageAssignmentService<Integer> {
     Optional<Category> getByTitle(String title);
 
+    Set<Integer> getExistingIds(Collection<Integer> ids);
+
     List<SubcategoryDto> getSubcategories(Integer id);
 }
@@ -0,0 +1,7 @@
+package ru.stroy1click.catalog.domain.category.service;
+
+public interface CategoryTreeBroadcaster {
+
+    //сообщить остальным узлам, что дерево категорий нужно перестроить
+    void broadcastChanged();
+}
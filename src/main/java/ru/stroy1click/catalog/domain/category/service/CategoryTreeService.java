@@ -0,0 +1,10 @@
+package ru.stroy1click.catalog.domain.category.service;
+
+import ru.stroy1click.catalog.domain.category.dto.CategoryTreeSnapshot;
+
+public interface CategoryTreeService {
+
+    CategoryTreeSnapshot getTree();
+
+    void rebuild();
+}
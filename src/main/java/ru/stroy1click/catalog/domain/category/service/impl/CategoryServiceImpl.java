@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,18 +13,23 @@ import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
 import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.catalog.domain.category.entity.Category;
 import ru.stroy1click.catalog.domain.category.mapper.CategoryMapper;
-import ru.stroy1click.catalog.domain.subcategory.mapper.SubcategoryMapper;
 import ru.stroy1click.catalog.domain.category.repository.CategoryRepository;
 import ru.stroy1click.catalog.domain.category.service.CategoryService;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
+import ru.stroy1click.catalog.domain.common.util.TransactionUtils;
 import ru.stroy1click.common.event.CategoryCreatedEvent;
 import ru.stroy1click.common.event.CategoryDeletedEvent;
 import ru.stroy1click.common.event.CategoryUpdatedEvent;
 import ru.stroy1click.common.util.ExceptionUtils;
 import ru.stroy1click.outbox.service.OutboxEventService;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -35,10 +41,12 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryMapper categoryMapper;
 
-    private final SubcategoryMapper subcategoryMapper;
-
     private final StorageService storageService;
 
+    private final ImageDerivativeService imageDerivativeService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     private final OutboxEventService outboxEventService;
 
     private final static String CATEGORY_CREATED_TOPIC = "category-created-events";
@@ -48,7 +56,7 @@ public class CategoryServiceImpl implements CategoryService {
     private final static String CATEGORY_DELETED_TOPIC = "category-deleted-events";
 
     @Override
-    @Cacheable(value = "category", key = "#id")
+    @Cacheable(value = "category", key = "#id", sync = true)
     public CategoryDto get(Integer id) {
         log.info("get {}", id);
 
@@ -59,7 +67,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    @Cacheable(value = "allCategories")
+    @Cacheable(value = "allCategories", sync = true)
     public List<CategoryDto> getAll() {
         log.info("getAll");
 
@@ -142,14 +150,22 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    @Cacheable(value = "subcategoriesOfCategory", key = "#id")
+    public Set<Integer> getExistingIds(Collection<Integer> ids) {
+        log.info("getExistingIds {}", ids.size());
+
+        return new HashSet<>(this.categoryRepository.findIdsByIdIn(ids));
+    }
+
+    @Override
+    @Cacheable(value = "subcategoriesOfCategory", key = "#id", sync = true)
     public List<SubcategoryDto> getSubcategories(Integer id) {
         log.info("getSubcategories {}", id);
 
-        Category category = this.categoryRepository.findById(id)
-                .orElseThrow(() -> ExceptionUtils.notFound("error.category.not_found",id));
+        if (!this.categoryRepository.existsById(id)) {
+            throw ExceptionUtils.notFound("error.category.not_found", id);
+        }
 
-        return this.subcategoryMapper.toDto(category.getSubcategories());
+        return this.categoryRepository.findSubcategoryDtosByCategoryId(id);
     }
 
     @Override
@@ -164,6 +180,8 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> ExceptionUtils.notFound("error.category.not_found",id));
 
         String imageName = this.storageService.uploadImage(image);
+        //копии строятся после фиксации, multipart-файл ещё на месте: afterCommit выполняется в потоке запроса
+        TransactionUtils.afterCommit(() -> this.imageDerivativeService.submit(imageName, image));
         category.setImage(imageName);
     }
 
@@ -179,7 +197,7 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = this.categoryRepository.findById(id)
                 .orElseThrow(() -> ExceptionUtils.notFound("error.category.not_found",id));
 
-        this.storageService.deleteImage(imageName);
         category.setImage(null);
+        this.applicationEventPublisher.publishEvent(new ImageReleasedEvent(imageName));
     }
 }
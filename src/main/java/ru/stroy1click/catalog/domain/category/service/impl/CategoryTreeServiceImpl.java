@@ -0,0 +1,190 @@
+package ru.stroy1click.catalog.domain.category.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.category.dto.CategoryTreeDto;
+import ru.stroy1click.catalog.domain.category.dto.CategoryTreeSnapshot;
+import ru.stroy1click.catalog.domain.category.event.CategoryTreeChangedEvent;
+import ru.stroy1click.catalog.domain.category.repository.CategoryRepository;
+import ru.stroy1click.catalog.domain.category.service.CategoryTreeBroadcaster;
+import ru.stroy1click.catalog.domain.category.service.CategoryTreeService;
+import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
+import ru.stroy1click.catalog.domain.producttype.repository.ProductTypeRepository;
+import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
+import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryTreeDto;
+import ru.stroy1click.catalog.domain.subcategory.repository.SubcategoryRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class CategoryTreeServiceImpl implements CategoryTreeService {
+
+    private final CategoryRepository categoryRepository;
+
+    private final SubcategoryRepository subcategoryRepository;
+
+    private final ProductTypeRepository productTypeRepository;
+
+    private final CategoryTreeBroadcaster categoryTreeBroadcaster;
+
+    private final ObjectMapper objectMapper;
+
+    //три запроса читают один снимок базы, иначе параллельная вставка теряет детей
+    private final TransactionTemplate snapshotTransaction;
+
+    private final Duration debounce;
+
+    private final AtomicReference<CategoryTreeSnapshot> snapshot = new AtomicReference<>();
+
+    //пачка изменений (импорт, массовое редактирование) даёт одну пересборку, а не по одной на событие
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private final AtomicBoolean broadcastPending = new AtomicBoolean();
+
+    private final ScheduledExecutorService rebuildExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("category-tree-rebuild").daemon().factory()
+    );
+
+    public CategoryTreeServiceImpl(CategoryRepository categoryRepository,
+                                   SubcategoryRepository subcategoryRepository,
+                                   ProductTypeRepository productTypeRepository,
+                                   CategoryTreeBroadcaster categoryTreeBroadcaster,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${catalog.category-tree.debounce:200ms}") Duration debounce) {
+        this.categoryRepository = categoryRepository;
+        this.subcategoryRepository = subcategoryRepository;
+        this.productTypeRepository = productTypeRepository;
+        this.categoryTreeBroadcaster = categoryTreeBroadcaster;
+        this.objectMapper = objectMapper;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.debounce = debounce;
+    }
+
+    @Override
+    public CategoryTreeSnapshot getTree() {
+        CategoryTreeSnapshot current = this.snapshot.get();
+        if (current == null) {
+            rebuild();
+            current = this.snapshot.get();
+        }
+        return current;
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        log.info("rebuild");
+
+        Hierarchy hierarchy = this.snapshotTransaction.execute(status -> new Hierarchy(
+                this.categoryRepository.findAllDtos(),
+                this.subcategoryRepository.findAllDtos(),
+                this.productTypeRepository.findAllDtos()
+        ));
+        List<CategoryDto> categories = hierarchy.categories();
+        List<SubcategoryDto> subcategories = hierarchy.subcategories();
+        List<ProductTypeDto> productTypes = hierarchy.productTypes();
+
+        //в согласованном снимке сирот нет, но фильтр дешёвый и страхует от ручных правок в базе
+        Set<Integer> categoryIds = categories.stream()
+                .map(CategoryDto::getId)
+                .collect(Collectors.toSet());
+
+        Map<Integer, List<ProductTypeDto>> productTypesBySubcategory = productTypes.stream()
+                .collect(Collectors.groupingBy(ProductTypeDto::getSubcategoryId));
+
+        Map<Integer, List<SubcategoryTreeDto>> subcategoriesByCategory = subcategories.stream()
+                .filter(subcategory -> categoryIds.contains(subcategory.getCategoryId()))
+                .collect(Collectors.groupingBy(SubcategoryDto::getCategoryId, Collectors.mapping(
+                        subcategory -> new SubcategoryTreeDto(
+                                subcategory.getId(),
+                                subcategory.getTitle(),
+                                subcategory.getImage(),
+                                productTypesBySubcategory.getOrDefault(subcategory.getId(), List.of())
+                        ),
+                        Collectors.toList()
+                )));
+
+        List<CategoryTreeDto> tree = categories.stream()
+                .map(category -> new CategoryTreeDto(
+                        category.getId(),
+                        category.getTitle(),
+                        category.getImage(),
+                        subcategoriesByCategory.getOrDefault(category.getId(), List.of())
+                ))
+                .toList();
+
+        try {
+            byte[] body = this.objectMapper.writeValueAsBytes(tree);
+            this.snapshot.set(new CategoryTreeSnapshot(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\""));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize category tree", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    //вне транзакции (например, сообщение с другого узла) событие обрабатывается сразу.
+    //Пересборка откладывается на debounce: события, пришедшие за это время, собираются в одну
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryTreeChanged(CategoryTreeChangedEvent event) {
+        log.info("onCategoryTreeChanged {}", event);
+
+        if (!event.remote()) {
+            this.broadcastPending.set(true);
+        }
+        if (this.rebuildScheduled.compareAndSet(false, true)) {
+            this.rebuildExecutor.schedule(this::rebuildScheduled, this.debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.rebuildExecutor.shutdownNow();
+    }
+
+    private void rebuildScheduled() {
+        //сбрасываем флаг до чтения базы: событие во время пересборки запланирует следующую
+        this.rebuildScheduled.set(false);
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Category tree rebuild failed", e);
+            return;
+        }
+        if (this.broadcastPending.getAndSet(false)) {
+            this.categoryTreeBroadcaster.broadcastChanged();
+        }
+    }
+
+    private record Hierarchy(List<CategoryDto> categories,
+                             List<SubcategoryDto> subcategories,
+                             List<ProductTypeDto> productTypes) {
+    }
+}
@@ -0,0 +1,12 @@
+package ru.stroy1click.catalog.domain.common.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface BatchCache {
+
+    //ключи, которых нет в кэше, в результат не попадают
+    <K, V> Map<K, V> getAll(String cacheName, Collection<K> keys);
+
+    <K, V> void putAll(String cacheName, Map<K, V> entries);
+}
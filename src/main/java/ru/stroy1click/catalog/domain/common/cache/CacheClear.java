@@ -6,6 +6,8 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -13,6 +15,8 @@ public class CacheClear {
 
     private final CacheManager cacheManager;
 
+    private final static int PRODUCT_EVICT_LIMIT = 500;
+
     public void clearSubcategoriesOfCategory(Integer categoryId){
         log.info("clearSubcategoriesOfCertainCategory {}", categoryId);
         deleteCache("subcategoriesOfCategory",categoryId);
@@ -28,6 +32,48 @@ public class CacheClear {
         deleteCache("productImages", productId);
     }
 
+    //при большом пакете дешевле сбросить кэш целиком, чем рассылать инвалидацию по каждому ключу
+    public void clearProducts(Collection<Integer> productIds){
+        log.info("clearProducts {}", productIds.size());
+        clearProducts("product", productIds);
+        clearProducts("productJson", productIds);
+    }
+
+    public void clearAllProducts(){
+        log.info("clearAllProducts");
+        clearCache("product");
+        clearCache("productJson");
+        clearCache("allProducts");
+        clearCache("productTotals");
+    }
+
+    public void clearImageMetadata(Collection<String> links){
+        log.info("clearImageMetadata {}", links.size());
+        Cache cache = this.cacheManager.getCache("imageMetadata");
+        if(cache != null){
+            links.forEach(cache::evict);
+        }
+    }
+
+    private void clearProducts(String key, Collection<Integer> productIds){
+        Cache cache = this.cacheManager.getCache(key);
+        if(cache == null){
+            return;
+        }
+        if(productIds.size() > PRODUCT_EVICT_LIMIT){
+            cache.clear();
+        } else {
+            productIds.forEach(cache::evict);
+        }
+    }
+
+    private void clearCache(String key){
+        Cache cache = this.cacheManager.getCache(key);
+        if(cache != null){
+            cache.clear();
+        }
+    }
+
     private void deleteCache(String key, Integer value){
         Cache cache = this.cacheManager.getCache(key);
         if(cache != null){
@@ -0,0 +1,110 @@
+package ru.stroy1click.catalog.domain.common.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+//Потоковый разбор CSV по RFC 4180: в памяти только текущая запись, кавычки экранируются удвоением,
+//внутри кавычек допускаются разделитель и перевод строки
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+
+    private final char delimiter;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    private long line = 1;
+
+    private long recordLine;
+
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    private final static char QUOTE = '"';
+
+    private final static char BOM = '\uFEFF';
+
+    public CsvReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    //null - конец файла
+    public List<String> next() throws IOException {
+        if (!fill()) {
+            return null;
+        }
+        if (this.recordLine == 0 && this.buffer[this.position] == BOM) {
+            this.position++; //BOM, который Excel пишет в UTF-8
+        }
+        this.recordLine = this.line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+
+        while (fill()) {
+            char c = this.buffer[this.position++];
+            if (quoted) {
+                if (c == QUOTE) {
+                    if (fill() && this.buffer[this.position] == QUOTE) {
+                        field.append(QUOTE);
+                        this.position++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        this.line++;
+                    }
+                    field.append(c);
+                }
+            } else if (c == QUOTE && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == this.delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && fill() && this.buffer[this.position] == '\n') {
+                    this.position++;
+                }
+                this.line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append(c);
+                fieldStarted = true;
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    //номер строки файла, с которой началась последняя прочитанная запись
+    public long getRecordLine() {
+        return this.recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private boolean fill() throws IOException {
+        if (this.position < this.limit) {
+            return true;
+        }
+        this.limit = this.reader.read(this.buffer, 0, this.buffer.length);
+        this.position = 0;
+        return this.limit > 0;
+    }
+}
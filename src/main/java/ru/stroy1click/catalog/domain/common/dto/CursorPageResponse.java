@@ -0,0 +1,21 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private String next;
+
+    private boolean last;
+}
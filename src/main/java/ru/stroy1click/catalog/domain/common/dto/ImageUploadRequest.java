@@ -0,0 +1,33 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.Length;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageUploadRequest implements Serializable {
+
+    private final static Long SerialVersionUID= 1L;
+
+    @NotBlank(message = "{validation.image_upload_request.file_name.not_blank}")
+    @Length(max = 200, message = "{validation.image_upload_request.file_name.length}")
+    private String fileName;
+
+    @NotBlank(message = "{validation.image_upload_request.content_type.not_blank}")
+    @Pattern(regexp = "image/(jpeg|png|webp)", message = "{validation.image_upload_request.content_type.pattern}")
+    private String contentType;
+
+    //тот же предел, что у spring.servlet.multipart.max-file-size
+    @NotNull(message = "{validation.image_upload_request.size.not_null}")
+    @Min(value = 1, message = "{validation.image_upload_request.size.range}")
+    @Max(value = 10 * 1024 * 1024, message = "{validation.image_upload_request.size.range}")
+    private Long size;
+}
@@ -0,0 +1,41 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+import java.util.Locale;
+
+//Уменьшенные копии изображения: размер - ограничение по большей стороне, копии меньше оригинала не увеличиваются
+public enum ImageVariant {
+
+    THUMBNAIL(160),
+    CARD(480),
+    FULL(1280);
+
+    private final int maxSide;
+
+    ImageVariant(int maxSide) {
+        this.maxSide = maxSide;
+    }
+
+    public int getMaxSide() {
+        return this.maxSide;
+    }
+
+    public static ImageVariant from(String value) {
+        return ImageVariant.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    //копии лежат рядом с оригиналом: variants/card/<имя оригинала>
+    public String key(String fileName) {
+        return KEY_PREFIX + name().toLowerCase(Locale.ROOT) + "/" + fileName;
+    }
+
+    //имя оригинала по ключу копии; ключ оригинала возвращается как есть
+    public static String originalOf(String key) {
+        if (!key.startsWith(KEY_PREFIX)) {
+            return key;
+        }
+        int slash = key.indexOf('/', KEY_PREFIX.length());
+        return slash < 0 ? key : key.substring(slash + 1);
+    }
+
+    private final static String KEY_PREFIX = "variants/";
+}
@@ -0,0 +1,26 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+//Готовое тело ответа: контроллер пишет байты как есть, без десериализации DTO и повторной сериализации Jackson
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JsonBody implements Serializable, Versioned {
+
+    private final static Long SerialVersionUID= 1L;
+
+    private Integer id;
+
+    private Long version;
+
+    //UTF-8 JSON, байт в байт как его записал бы MappingJackson2HttpMessageConverter
+    private byte[] json;
+
+    //null - тело слишком маленькое, сжатие не окупается
+    private byte[] gzip;
+}
@@ -17,9 +17,12 @@ public class PageResponse<T> {
 
     private int size;
 
-    private long totalElements;
+    //null, если totals=none
+    private Long totalElements;
 
-    private int totalPages;
+    private Integer totalPages;
 
     private boolean last;
+
+    private boolean totalExact;
 }
@@ -0,0 +1,30 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Map;
+
+//Ссылка на прямой обмен с S3. headers - подписанные заголовки, клиент обязан отправить их без изменений
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresignedUrlDto implements Serializable {
+
+    private final static Long SerialVersionUID= 1L;
+
+    private String key;
+
+    private String method;
+
+    private String url;
+
+    private Map<String, String> headers;
+
+    private Instant expiresAt;
+}
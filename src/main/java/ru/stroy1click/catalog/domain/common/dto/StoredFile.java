@@ -0,0 +1,42 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+//Открытый на чтение объект хранилища: либо поток content, который обязан закрыть читающий,
+//либо локальный файл path, тело - contentLength байт с позиции position. Для NOT_MODIFIED и
+//RANGE_NOT_SATISFIABLE тела нет, у RANGE_NOT_SATISFIABLE contentRange - "bytes */размер"
+public record StoredFile(Status status,
+                         InputStream content,
+                         String contentType,
+                         Long contentLength,
+                         String eTag,
+                         String contentRange,
+                         Path path,
+                         long position) {
+
+    public StoredFile(Status status, InputStream content, String contentType, Long contentLength,
+                      String eTag, String contentRange) {
+        this(status, content, contentType, contentLength, eTag, contentRange, null, 0);
+    }
+
+    //для кода, которому нужен просто поток байтов объекта; читать не больше contentLength
+    public InputStream openStream() throws IOException {
+        if (this.content != null) {
+            return this.content;
+        }
+        FileChannel channel = FileChannel.open(this.path);
+        channel.position(this.position);
+        return Channels.newInputStream(channel);
+    }
+
+    public enum Status {
+        FULL,
+        PARTIAL,
+        NOT_MODIFIED,
+        RANGE_NOT_SATISFIABLE
+    }
+}
@@ -0,0 +1,4 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+public record StoredObjectInfo(String key, String contentType, long contentLength, String eTag) {
+}
@@ -0,0 +1,17 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+import java.util.Locale;
+
+public enum TotalsMode {
+
+    EXACT,
+
+    //количество берётся из кэша счётчиков и может отставать от базы
+    ESTIMATED,
+
+    NONE;
+
+    public static TotalsMode from(String value) {
+        return TotalsMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,9 @@
+package ru.stroy1click.catalog.domain.common.dto;
+
+//DTO сущности с @Version: по паре id и версии строится ETag без сериализации тела
+public interface Versioned {
+
+    Integer getId();
+
+    Long getVersion();
+}
@@ -0,0 +1,5 @@
+package ru.stroy1click.catalog.domain.common.event;
+
+//ссылка на изображение удалена; сам объект удаляется из хранилища, если на него больше никто не ссылается
+public record ImageReleasedEvent(String link) {
+}
@@ -0,0 +1,14 @@
+package ru.stroy1click.catalog.domain.common.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+public interface ImageDerivativeService {
+
+    //копии строятся в фоне, до их появления отдаётся оригинал
+    void submit(String fileName, MultipartFile image);
+
+    //для файлов, загруженных в S3 напрямую: оригинал скачивается уже в фоновом потоке
+    void submit(String fileName);
+
+    void generate(String fileName, byte[] image);
+}
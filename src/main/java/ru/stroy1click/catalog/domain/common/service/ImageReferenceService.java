@@ -0,0 +1,15 @@
+package ru.stroy1click.catalog.domain.common.service;
+
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface ImageReferenceService {
+
+    boolean isReferenced(String link);
+
+    Set<String> findReferenced(Collection<String> links);
+
+    void onImageReleased(ImageReleasedEvent event);
+}
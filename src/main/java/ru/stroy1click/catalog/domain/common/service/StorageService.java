@@ -1,16 +1,42 @@
 package ru.stroy1click.catalog.domain.common.service;
 
 import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+import ru.stroy1click.catalog.domain.common.dto.PresignedUrlDto;
+import ru.stroy1click.catalog.domain.common.dto.StoredFile;
+import ru.stroy1click.catalog.domain.common.dto.StoredObjectInfo;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface StorageService {
 
+    //ключи загруженных через сервис изображений: sha256-<hex>.<ext>, содержимое по ключу не меняется
+    String CONTENT_KEY_PREFIX = "sha256-";
+
+    static boolean isContentAddressed(String fileName) {
+        return fileName.startsWith(CONTENT_KEY_PREFIX);
+    }
+
     String uploadImage(MultipartFile multipartFile);
 
     List<String> uploadImages(List<MultipartFile> file);
 
-    byte[] downloadImage(String fileName);
+    void uploadImageVariant(String fileName, ImageVariant variant, byte[] image, String contentType);
+
+    //variant == null - оригинал; range и ifNoneMatch - значения заголовков запроса как есть, null если их нет
+    StoredFile downloadImage(String fileName, ImageVariant variant, String range, String ifNoneMatch);
+
+    PresignedUrlDto presignUpload(String fileName, String contentType, long contentLength);
+
+    PresignedUrlDto presignDownload(String fileName, ImageVariant variant);
+
+    Optional<StoredObjectInfo> head(String fileName);
 
     void deleteImage(String fileName);
+
+    //удаляет объект, если на него нет ссылок и его не переиспользовала недавняя загрузка;
+    //проверка и удаление выполняются под той же блокировкой ключа, что и загрузка
+    boolean deleteImageIfUnused(String fileName, Predicate<String> isReferenced);
 }
@@ -0,0 +1,237 @@
+package ru.stroy1click.catalog.domain.common.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
+import ru.stroy1click.catalog.domain.common.service.StorageService;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+//Копии считаются на ограниченном пуле платформенных потоков: масштабирование грузит CPU,
+//а очередь держит байты оригиналов, поэтому её размер тоже ограничен
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private final StorageService storageService;
+
+    private final ImageMetadataService imageMetadataService;
+
+    private final static int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private final static int QUEUE_CAPACITY = 32;
+
+    private final static float JPEG_QUALITY = 0.85f;
+
+    //40 Мп - около 160 МБ в TYPE_INT_ARGB на каждый поток пула
+    private final static long MAX_PIXELS = 40_000_000L;
+
+    //переполнение очереди не ломает загрузку: без копий скачивание отдаёт оригинал
+    private final ExecutorService executor = new ThreadPoolExecutor(
+            THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            Thread.ofPlatform().name("image-derivatives-", 0).daemon().factory(),
+            (task, executor) -> log.warn("Image derivative queue is full, task dropped")
+    );
+
+    @Override
+    public void submit(String fileName, MultipartFile image) {
+        log.info("submit {}", fileName);
+        byte[] bytes;
+        try {
+            //multipart-файл удаляется после ответа, поэтому байты читаются до постановки в очередь
+            bytes = image.getBytes();
+        } catch (IOException e) {
+            log.warn("Failed to read image {} for derivatives", fileName, e);
+            return;
+        }
+        this.executor.execute(() -> {
+            if (!hasDerivatives(fileName)) {
+                generate(fileName, bytes);
+            }
+        });
+    }
+
+    @Override
+    public void submit(String fileName) {
+        log.info("submit {}", fileName);
+        this.executor.execute(() -> {
+            if (hasDerivatives(fileName)) {
+                return;
+            }
+            byte[] bytes;
+            try (InputStream content = this.storageService.downloadImage(fileName, null, null, null).openStream()) {
+                bytes = content.readAllBytes();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to read image {} for derivatives", fileName, e);
+                return;
+            }
+            generate(fileName, bytes);
+        });
+    }
+
+    @Override
+    public void generate(String fileName, byte[] image) {
+        log.info("generate {}", fileName);
+        BufferedImage original;
+        try {
+            original = decode(image);
+        } catch (IOException e) {
+            original = null;
+        }
+        if (original == null) {
+            log.warn("Image {} can not be decoded or is too large, derivatives skipped", fileName);
+            return;
+        }
+        recordDimensions(fileName, original);
+
+        try {
+            BufferedImage source = original;
+            //от большего размера к меньшему: каждая копия масштабируется из предыдущей, а не из оригинала
+            for (ImageVariant variant : List.of(ImageVariant.values()).reversed()) {
+                source = resize(source, variant.getMaxSide());
+                boolean alpha = source.getColorModel().hasAlpha();
+                this.storageService.uploadImageVariant(fileName, variant, encode(source, alpha),
+                        alpha ? "image/png" : "image/jpeg");
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to store derivatives of {}", fileName, e);
+        }
+    }
+
+    //при совпадении содержимого ключ тот же, и копии уже построены при первой загрузке;
+    //миниатюра пишется последней, значит её наличие означает, что готовы все копии
+    private boolean hasDerivatives(String fileName) {
+        try {
+            if (this.storageService.head(ImageVariant.THUMBNAIL.key(fileName)).isPresent()) {
+                log.debug("Derivatives of {} already exist", fileName);
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to check derivatives of {}", fileName, e);
+        }
+        return false;
+    }
+
+    //при загрузке по подписанной ссылке сервис не видит байтов, размеры становятся известны только здесь
+    private void recordDimensions(String fileName, BufferedImage original) {
+        try {
+            boolean unknown = this.imageMetadataService.get(fileName)
+                    .map(metadata -> metadata.getWidth() == null)
+                    .orElse(false);
+            if (unknown) {
+                this.imageMetadataService.updateDimensions(fileName, original.getWidth(), original.getHeight());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to record dimensions of {}", fileName, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    //размеры читаются из заголовка до декодирования: несколько килобайт PNG могут развернуться в гигабайты пикселей
+    private static BufferedImage decode(byte[] image) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    //билинейное уменьшение вдвое за шаг: за один шаг с большим коэффициентом билинейная интерполяция даёт зубцы
+    private static BufferedImage resize(BufferedImage image, int maxSide) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage result = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            result = draw(result, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return result;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage result = new BufferedImage(width, height, type);
+        Graphics2D graphics = result.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+
+    private static byte[] encode(BufferedImage image, boolean alpha) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            if (alpha) {
+                ImageIO.write(image, "png", output);
+                return output.toByteArray();
+            }
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+                ImageWriteParam params = writer.getDefaultWriteParam();
+                params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                params.setCompressionQuality(JPEG_QUALITY);
+                writer.setOutput(stream);
+                writer.write(null, new IIOImage(image, null, null), params);
+            } finally {
+                writer.dispose();
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.stroy1click.catalog.domain.common.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.common.service.ImageReferenceService;
+import ru.stroy1click.catalog.domain.common.service.StorageService;
+import ru.stroy1click.catalog.domain.product.image.repository.ProductImageRepository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+//Ключи изображений адресуются содержимым, поэтому один объект в S3 может быть у нескольких продуктов,
+//категорий, подкатегорий и типов продуктов: удаляется он только вместе с последней ссылкой
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageReferenceServiceImpl implements ImageReferenceService {
+
+    private final ProductImageRepository productImageRepository;
+
+    private final StorageService storageService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isReferenced(String link) {
+        return this.productImageRepository.countReferences(link) > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> findReferenced(Collection<String> links) {
+        if (links.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(this.productImageRepository.findReferenced(links));
+    }
+
+    //после коммита: при откате ссылка остаётся, и объект удалять нельзя.
+    //соединение завершённой транзакции ещё не возвращено в пул, поэтому нужна новая; удаление метаданных пишет в неё
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageReleased(ImageReleasedEvent event) {
+        log.info("onImageReleased {}", event);
+
+        try {
+            if (!this.storageService.deleteImageIfUnused(event.link(), this::isReferenced)) {
+                log.debug("Image {} is still referenced or was just reused", event.link());
+            }
+        } catch (RuntimeException e) {
+            //транзакция уже зафиксирована: объект остаётся в бакете без ссылок
+            log.error("Failed to delete released image {}", event.link(), e);
+        }
+    }
+}
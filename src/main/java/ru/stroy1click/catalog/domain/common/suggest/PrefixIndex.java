@@ -0,0 +1,220 @@
+package ru.stroy1click.catalog.domain.common.suggest;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+//Индекс по префиксам слов: слово -> отсортированный массив id.
+//Чтение без блокировок, запись под synchronized с копированием массива (изменения редкие)
+public class PrefixIndex {
+
+    public record Match(Integer id, String title) {
+    }
+
+    private final static Pattern DELIMITER = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    //сколько подошедших названий ранжируется на один запрос, чтобы короткий префикс не обходил весь индекс
+    private final static int CANDIDATE_LIMIT = 256;
+
+    private final ConcurrentSkipListMap<String, int[]> postings = new ConcurrentSkipListMap<>();
+
+    //нормализованное название хранится рядом, чтобы не приводить его к нижнему регистру на каждый запрос
+    private record Entry(String title, String normalized) {
+    }
+
+    private final ConcurrentHashMap<Integer, Entry> titles = new ConcurrentHashMap<>();
+
+    //первичное заполнение: списки id собираются целиком, без копирования массива на каждую запись
+    public static PrefixIndex of(Map<Integer, String> titles) {
+        PrefixIndex index = new PrefixIndex();
+        Map<String, List<Integer>> tokens = new HashMap<>();
+        titles.forEach((id, title) -> {
+            index.titles.put(id, new Entry(title, normalize(title)));
+            tokenize(title).forEach(token -> tokens.computeIfAbsent(token, key -> new ArrayList<>()).add(id));
+        });
+        tokens.forEach((token, ids) -> index.postings.put(token,
+                ids.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        return index;
+    }
+
+    public synchronized void put(Integer id, String title) {
+        Entry previous = this.titles.put(id, new Entry(title, normalize(title)));
+        if (previous != null) {
+            tokenize(previous.normalized()).forEach(token -> removePosting(token, id));
+        }
+        tokenize(title).forEach(token -> addPosting(token, id));
+    }
+
+    //пакет применяется за один проход: массив каждого затронутого слова копируется один раз, а не на каждый id
+    public synchronized void putAll(Map<Integer, String> titles) {
+        Map<String, Set<Integer>> added = new HashMap<>();
+        Map<String, Set<Integer>> removed = new HashMap<>();
+        titles.forEach((id, title) -> {
+            Entry previous = this.titles.put(id, new Entry(title, normalize(title)));
+            if (previous != null) {
+                tokenize(previous.normalized()).forEach(token -> removed.computeIfAbsent(token, key -> new HashSet<>()).add(id));
+            }
+            tokenize(title).forEach(token -> added.computeIfAbsent(token, key -> new HashSet<>()).add(id));
+        });
+
+        Set<String> tokens = new HashSet<>(added.keySet());
+        tokens.addAll(removed.keySet());
+        for (String token : tokens) {
+            Set<Integer> tokenRemoved = removed.getOrDefault(token, Set.of());
+            Set<Integer> tokenAdded = added.getOrDefault(token, Set.of());
+            this.postings.compute(token, (key, ids) -> {
+                IntStream kept = ids == null
+                        ? IntStream.empty()
+                        : Arrays.stream(ids).filter(id -> !tokenRemoved.contains(id));
+                int[] updated = IntStream.concat(kept, tokenAdded.stream().mapToInt(Integer::intValue))
+                        .sorted()
+                        .distinct()
+                        .toArray();
+                return updated.length == 0 ? null : updated;
+            });
+        }
+    }
+
+    public synchronized void remove(Integer id) {
+        Entry previous = this.titles.remove(id);
+        if (previous != null) {
+            tokenize(previous.normalized()).forEach(token -> removePosting(token, id));
+        }
+    }
+
+    public int size() {
+        return this.titles.size();
+    }
+
+    public List<Match> search(String query, int limit) {
+        Set<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        //перебираются id самого редкого префикса запроса, остальные слова проверяются по названию
+        String anchor = rarestToken(queryTokens);
+        String normalizedQuery = String.join(" ", queryTokens);
+
+        //в лимит идут только подошедшие названия, иначе отсеянные id вытесняли бы настоящие совпадения
+        List<Candidate> candidates = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        scan:
+        for (int[] ids : prefixRange(anchor).values()) {
+            for (int id : ids) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                Entry entry = this.titles.get(id);
+                if (entry != null && (queryTokens.size() == 1 || matchesAll(entry.normalized(), queryTokens))) {
+                    candidates.add(new Candidate(new Match(id, entry.title()), entry.normalized().startsWith(normalizedQuery)));
+                    if (candidates.size() >= CANDIDATE_LIMIT) {
+                        break scan;
+                    }
+                }
+            }
+        }
+
+        //сначала названия, которые начинаются с запроса, затем более короткие
+        return candidates.stream()
+                .sorted(Comparator.comparing((Candidate candidate) -> !candidate.startsWithQuery())
+                        .thenComparingInt(candidate -> candidate.match().title().length())
+                        .thenComparing(candidate -> candidate.match().id()))
+                .limit(limit)
+                .map(Candidate::match)
+                .toList();
+    }
+
+    private record Candidate(Match match, boolean startsWithQuery) {
+    }
+
+    private SortedMap<String, int[]> prefixRange(String prefix) {
+        return this.postings.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    //подсчёт по слову прекращается, как только он превысил уже найденный минимум
+    private String rarestToken(Set<String> queryTokens) {
+        String rarest = null;
+        long rarestSize = Long.MAX_VALUE;
+        for (String token : queryTokens) {
+            long size = 0;
+            for (int[] ids : prefixRange(token).values()) {
+                size += ids.length;
+                if (size >= rarestSize) {
+                    break;
+                }
+            }
+            if (size < rarestSize) {
+                rarest = token;
+                rarestSize = size;
+            }
+        }
+        return rarest;
+    }
+
+    private void addPosting(String token, int id) {
+        this.postings.merge(token, new int[]{id}, (ids, ignored) -> {
+            int position = Arrays.binarySearch(ids, id);
+            if (position >= 0) {
+                return ids;
+            }
+            int insertAt = -position - 1;
+            int[] updated = new int[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, insertAt);
+            updated[insertAt] = id;
+            System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+            return updated;
+        });
+    }
+
+    private void removePosting(String token, int id) {
+        this.postings.computeIfPresent(token, (key, ids) -> {
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            int[] updated = new int[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            return updated;
+        });
+    }
+
+    //каждое слово запроса должно быть началом какого-то слова названия
+    private static boolean matchesAll(String normalizedTitle, Set<String> queryTokens) {
+        for (String queryToken : queryTokens) {
+            if (!containsWordPrefix(normalizedTitle, queryToken)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsWordPrefix(String text, String prefix) {
+        for (int position = text.indexOf(prefix); position >= 0; position = text.indexOf(prefix, position + 1)) {
+            if (position == 0 || !Character.isLetterOrDigit(text.charAt(position - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : DELIMITER.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+}
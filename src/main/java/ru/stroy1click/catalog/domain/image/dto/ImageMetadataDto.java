@@ -0,0 +1,35 @@
+package ru.stroy1click.catalog.domain.image.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageMetadataDto implements Serializable {
+
+    private final static long SerialVersionUID= 1L;
+
+    private String link;
+
+    private String contentType;
+
+    private Long size;
+
+    //null - формат не удалось прочитать или размеры ещё не известны (загрузка по подписанной ссылке)
+    private Integer width;
+
+    private Integer height;
+
+    private String sha256;
+
+    private String eTag;
+
+    private Instant createdAt;
+}
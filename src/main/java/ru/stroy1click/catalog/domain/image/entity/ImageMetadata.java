@@ -0,0 +1,39 @@
+package ru.stroy1click.catalog.domain.image.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Table(schema = "catalog", name = "images")
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageMetadata {
+
+    @Id
+    private String link;
+
+    private String contentType;
+
+    private Long size;
+
+    private Integer width;
+
+    private Integer height;
+
+    private String sha256;
+
+    private String eTag;
+
+    private Instant createdAt;
+
+    private Instant lastUsedAt;
+}
@@ -0,0 +1,47 @@
+package ru.stroy1click.catalog.domain.image.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+import ru.stroy1click.catalog.domain.image.entity.ImageMetadata;
+import ru.stroy1click.common.mapper.Mappable;
+
+import java.util.List;
+
+@Component
+public class ImageMetadataMapper implements Mappable<ImageMetadata, ImageMetadataDto> {
+
+    @Override
+    public ImageMetadata toEntity(ImageMetadataDto imageMetadataDto) {
+        return ImageMetadata.builder()
+                .link(imageMetadataDto.getLink())
+                .contentType(imageMetadataDto.getContentType())
+                .size(imageMetadataDto.getSize())
+                .width(imageMetadataDto.getWidth())
+                .height(imageMetadataDto.getHeight())
+                .sha256(imageMetadataDto.getSha256())
+                .eTag(imageMetadataDto.getETag())
+                .createdAt(imageMetadataDto.getCreatedAt())
+                .build();
+    }
+
+    @Override
+    public ImageMetadataDto toDto(ImageMetadata imageMetadata) {
+        return ImageMetadataDto.builder()
+                .link(imageMetadata.getLink())
+                .contentType(imageMetadata.getContentType())
+                .size(imageMetadata.getSize())
+                .width(imageMetadata.getWidth())
+                .height(imageMetadata.getHeight())
+                .sha256(imageMetadata.getSha256())
+                .eTag(imageMetadata.getETag())
+                .createdAt(imageMetadata.getCreatedAt())
+                .build();
+    }
+
+    @Override
+    public List<ImageMetadataDto> toDto(List<ImageMetadata> e) {
+        return e.stream()
+                .map(this::toDto)
+                .toList();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.stroy1click.catalog.domain.image.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.stroy1click.catalog.domain.image.entity.ImageMetadata;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ImageMetadataRepository extends JpaRepository<ImageMetadata, String> {
+
+    List<ImageMetadata> findAllByLinkIn(Collection<String> links);
+
+    //одинаковые файлы могут загружаться одновременно: первая запись остаётся, остальные игнорируются
+    @Modifying
+    @Query(value = """
+            insert into catalog.images (link, content_type, size, width, height, sha256, e_tag)
+            values (:link, :contentType, :size, :width, :height, :sha256, :eTag)
+            on conflict (link) do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("link") String link,
+                       @Param("contentType") String contentType,
+                       @Param("size") long size,
+                       @Param("width") Integer width,
+                       @Param("height") Integer height,
+                       @Param("sha256") String sha256,
+                       @Param("eTag") String eTag);
+
+    @Modifying
+    @Query(value = """
+            update catalog.images set width = :width, height = :height
+            where link = :link and width is null
+            """, nativeQuery = true)
+    int updateDimensionsIfUnknown(@Param("link") String link, @Param("width") int width, @Param("height") int height);
+
+    //объект, загруженный до появления метаданных, получает запись при первом переиспользовании
+    @Modifying
+    @Query(value = """
+            insert into catalog.images (link, content_type, size, e_tag)
+            values (:link, :contentType, :size, :eTag)
+            on conflict (link) do update set last_used_at = now()
+            """, nativeQuery = true)
+    int markUsed(@Param("link") String link,
+                 @Param("contentType") String contentType,
+                 @Param("size") long size,
+                 @Param("eTag") String eTag);
+
+    @Query(value = "select exists(select 1 from catalog.images where link = :link and last_used_at > :since)",
+            nativeQuery = true)
+    boolean isUsedSince(@Param("link") String link, @Param("since") Instant since);
+
+    @Query(value = "select link from catalog.images where link in (:links) and last_used_at > :since", nativeQuery = true)
+    List<String> findUsedSince(@Param("links") Collection<String> links, @Param("since") Instant since);
+
+    @Modifying
+    @Query(value = "delete from catalog.images where link = :link", nativeQuery = true)
+    int deleteByLink(@Param("link") String link);
+
+    @Modifying
+    @Query(value = "delete from catalog.images where link in (:links)", nativeQuery = true)
+    int deleteByLinkIn(@Param("links") Collection<String> links);
+}
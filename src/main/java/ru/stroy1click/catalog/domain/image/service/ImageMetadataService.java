@@ -0,0 +1,32 @@
+package ru.stroy1click.catalog.domain.image.service;
+
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface ImageMetadataService {
+
+    Optional<ImageMetadataDto> get(String link);
+
+    List<ImageMetadataDto> getAll(Collection<String> links);
+
+    void create(ImageMetadataDto imageMetadataDto);
+
+    void updateDimensions(String link, int width, int height);
+
+    //загрузка переиспользовала объект: до фиксации её ссылки объект удалять нельзя
+    void markUsed(ImageMetadataDto imageMetadataDto);
+
+    //читает базу в обход кэша
+    boolean isUsedSince(String link, Instant since);
+
+    Set<String> findUsedSince(Collection<String> links, Instant since);
+
+    void delete(String link);
+
+    void deleteAll(Collection<String> links);
+}
@@ -0,0 +1,137 @@
+package ru.stroy1click.catalog.domain.image.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.stroy1click.catalog.domain.common.cache.CacheClear;
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+import ru.stroy1click.catalog.domain.image.mapper.ImageMetadataMapper;
+import ru.stroy1click.catalog.domain.image.repository.ImageMetadataRepository;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+//Запись описывает объект в S3, а не ссылку на него. Изменения присоединяются к транзакции вызывающего кода,
+//чтобы не занимать второе соединение из пула; загрузки на виртуальных потоках транзакции не имеют
+//и фиксируют запись сразу. Отдельно фиксируется только отметка переиспользования
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ImageMetadataServiceImpl implements ImageMetadataService {
+
+    private final ImageMetadataRepository imageMetadataRepository;
+
+    private final ImageMetadataMapper imageMetadataMapper;
+
+    private final CacheClear cacheClear;
+
+    //отсутствие не кэшируется: объект, загруженный по подписанной ссылке, получает метаданные при подтверждении
+    @Override
+    @Cacheable(cacheNames = "imageMetadata", key = "#link", unless = "#result == null")
+    public Optional<ImageMetadataDto> get(String link) {
+        log.info("get {}", link);
+
+        return this.imageMetadataRepository.findById(link)
+                .map(this.imageMetadataMapper::toDto);
+    }
+
+    @Override
+    public List<ImageMetadataDto> getAll(Collection<String> links) {
+        log.info("getAll {}", links.size());
+
+        if (links.isEmpty()) {
+            return List.of();
+        }
+        return this.imageMetadataMapper.toDto(
+                this.imageMetadataRepository.findAllByLinkIn(links)
+        );
+    }
+
+    @Override
+    @Transactional
+    public void create(ImageMetadataDto imageMetadataDto) {
+        log.info("create {}", imageMetadataDto.getLink());
+
+        this.imageMetadataRepository.insertIfAbsent(
+                imageMetadataDto.getLink(),
+                imageMetadataDto.getContentType(),
+                imageMetadataDto.getSize(),
+                imageMetadataDto.getWidth(),
+                imageMetadataDto.getHeight(),
+                imageMetadataDto.getSha256(),
+                imageMetadataDto.getETag()
+        );
+    }
+
+    //размеры известны только после декодирования, если при загрузке их прочитать не удалось
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = "imageMetadata", key = "#link")
+    public void updateDimensions(String link, int width, int height) {
+        log.info("updateDimensions {} {}x{}", link, width, height);
+
+        this.imageMetadataRepository.updateDimensionsIfUnknown(link, width, height);
+    }
+
+    //должна быть видна до снятия блокировки ключа, а не после коммита загрузившего запроса
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markUsed(ImageMetadataDto imageMetadataDto) {
+        log.info("markUsed {}", imageMetadataDto.getLink());
+
+        this.imageMetadataRepository.markUsed(
+                imageMetadataDto.getLink(),
+                imageMetadataDto.getContentType(),
+                imageMetadataDto.getSize(),
+                imageMetadataDto.getETag()
+        );
+    }
+
+    @Override
+    public boolean isUsedSince(String link, Instant since) {
+        log.info("isUsedSince {} {}", link, since);
+
+        return this.imageMetadataRepository.isUsedSince(link, since);
+    }
+
+    @Override
+    public Set<String> findUsedSince(Collection<String> links, Instant since) {
+        log.info("findUsedSince {} {}", links.size(), since);
+
+        if (links.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(this.imageMetadataRepository.findUsedSince(links, since));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = "imageMetadata", key = "#link")
+    public void delete(String link) {
+        log.info("delete {}", link);
+
+        this.imageMetadataRepository.deleteByLink(link);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll(Collection<String> links) {
+        log.info("deleteAll {}", links.size());
+
+        if (links.isEmpty()) {
+            return;
+        }
+        this.imageMetadataRepository.deleteByLinkIn(links);
+        this.cacheClear.clearImageMetadata(links);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import java.math.BigDecimal;
+
+//Диапазоны цен для фасетов, верхняя граница не включается
+public enum PriceBucket {
+
+    UP_TO_500(0, 500),
+
+    UP_TO_1000(500, 1000),
+
+    UP_TO_5000(1000, 5000),
+
+    UP_TO_10000(5000, 10000),
+
+    UP_TO_50000(10000, 50000),
+
+    FROM_50000(50000, null);
+
+    private final BigDecimal from;
+
+    private final BigDecimal to;
+
+    private final String label;
+
+    PriceBucket(int from, Integer to) {
+        this.from = BigDecimal.valueOf(from);
+        this.to = to == null ? null : BigDecimal.valueOf(to);
+        this.label = from + "-" + (to == null ? "" : to);
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    public static PriceBucket of(BigDecimal price) {
+        for (PriceBucket bucket : values()) {
+            if (bucket.to == null || price.compareTo(bucket.to) < 0) {
+                return bucket;
+            }
+        }
+        return FROM_50000;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchDto implements Serializable {
+
+    private final static Long SerialVersionUID= 1L;
+
+    @NotEmpty(message = "{validation.product_batch_dto.products.not_empty}")
+    @Size(max = 10000, message = "{validation.product_batch_dto.products.size}")
+    private List<@Valid ProductDto> products;
+}
@@ -0,0 +1,30 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record ProductCursor(Integer lastId) {
+
+    private final static String ID_KEY = "id:";
+
+    public static final ProductCursor FIRST_PAGE = new ProductCursor(0);
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((ID_KEY + this.lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST_PAGE;
+        }
+
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(ID_KEY)) {
+            throw new IllegalArgumentException("Unknown cursor format: " + decoded);
+        }
+
+        return new ProductCursor(Integer.parseInt(decoded.substring(ID_KEY.length())));
+    }
+}
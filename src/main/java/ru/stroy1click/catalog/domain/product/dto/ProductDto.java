@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.Length;
 import ru.stroy1click.common.dto.Unit;
+import ru.stroy1click.catalog.domain.common.dto.Versioned;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -15,7 +16,7 @@ import java.math.BigDecimal;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class ProductDto implements Serializable {
+public class ProductDto implements Serializable, Versioned {
 
     private final static Long SerialVersionUID= 1L;
 
@@ -50,4 +51,6 @@ public class ProductDto implements Serializable {
     @NotNull(message = "{validation.productdto.product_type_id.not_null}")
     @Min(value = 1, message = "{validation.productdto.product_type_id.min}")
     private Integer productTypeId;
+
+    private Long version;
 }
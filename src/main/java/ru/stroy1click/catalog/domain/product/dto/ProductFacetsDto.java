@@ -0,0 +1,29 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFacetsDto implements Serializable {
+
+    private final static Long SerialVersionUID= 1L;
+
+    //id подкатегории -> количество продуктов
+    private Map<Integer, Long> subcategories;
+
+    //id типа продукта -> количество продуктов
+    private Map<Integer, Long> productTypes;
+
+    private Map<Boolean, Long> inStock;
+
+    //диапазон цен из PriceBucket -> количество продуктов
+    private Map<String, Long> prices;
+}
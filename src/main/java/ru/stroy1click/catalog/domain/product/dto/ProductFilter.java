@@ -0,0 +1,30 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFilter implements Serializable {
+
+    private final static Long SerialVersionUID= 1L;
+
+    private Integer categoryId;
+
+    private Integer subcategoryId;
+
+    private Integer productTypeId;
+
+    private Boolean inStock;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,43 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportDto implements Serializable {
+
+    private final static Long SerialVersionUID= 1L;
+
+    private UUID id;
+
+    private ProductImportState state;
+
+    //строк данных прочитано из файла, без заголовка
+    private long rowsRead;
+
+    private long rowsRejected;
+
+    //строк загружено в промежуточную таблицу через COPY
+    private long rowsStaged;
+
+    private long created;
+
+    private long updated;
+
+    //первые ошибки разбора, полный список не храним
+    private List<String> errors;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+}
@@ -0,0 +1,10 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import ru.stroy1click.common.dto.Unit;
+
+import java.math.BigDecimal;
+
+//Строка CSV-импорта после проверки и сопоставления категорий, в таком виде она уходит в COPY
+public record ProductImportRow(long line, String title, String description, BigDecimal price, Unit unit,
+                               boolean inStock, int categoryId, int subcategoryId, int productTypeId) {
+}
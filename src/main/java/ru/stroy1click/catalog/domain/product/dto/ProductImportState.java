@@ -0,0 +1,14 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+public enum ProductImportState {
+
+    QUEUED,
+
+    STAGING,
+
+    MERGING,
+
+    COMPLETED,
+
+    FAILED
+}
@@ -0,0 +1,21 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import ru.stroy1click.catalog.domain.common.dto.PageResponse;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class ProductPageResponse extends PageResponse<ProductDto> {
+
+    //null, если facets=false
+    private ProductFacetsDto facets;
+
+    public ProductPageResponse(PageResponse<ProductDto> page, ProductFacetsDto facets) {
+        super(page.getContent(), page.getPage(), page.getSize(), page.getTotalElements(),
+                page.getTotalPages(), page.isLast(), page.isTotalExact());
+        this.facets = facets;
+    }
+}
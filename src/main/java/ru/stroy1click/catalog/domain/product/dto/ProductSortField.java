@@ -0,0 +1,26 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import java.util.Locale;
+
+public enum ProductSortField {
+
+    ID("id"),
+
+    PRICE("price"),
+
+    TITLE("title");
+
+    private final String property;
+
+    ProductSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return this.property;
+    }
+
+    public static ProductSortField from(String value) {
+        return ProductSortField.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,4 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+public record ProductTitle(Integer id, String title) {
+}
@@ -0,0 +1,23 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionDto implements Serializable {
+
+    private final static Long SerialVersionUID= 1L;
+
+    private SuggestionType type;
+
+    private Integer id;
+
+    private String title;
+}
@@ -0,0 +1,8 @@
+package ru.stroy1click.catalog.domain.product.dto;
+
+public enum SuggestionType {
+
+    CATEGORY,
+
+    PRODUCT
+}
@@ -20,8 +20,10 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 public class Product {
 
+    //шаг последовательности 50 (V6): Hibernate выдаёт id из пула и может батчить вставки, с IDENTITY это невозможно
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", schema = "catalog", sequenceName = "products_id_seq", allocationSize = 50)
     private Integer id;
 
     private String title;
@@ -35,6 +37,9 @@ public class Product {
 
     private Boolean inStock;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", referencedColumnName = "id")
     private Category category;
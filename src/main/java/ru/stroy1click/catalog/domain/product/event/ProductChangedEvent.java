@@ -0,0 +1,9 @@
+package ru.stroy1click.catalog.domain.product.event;
+
+//title - название после изменения, для удалённого продукта null
+public record ProductChangedEvent(Integer id, String title) {
+
+    public boolean deleted() {
+        return this.title == null;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.stroy1click.catalog.domain.product.event;
+
+import java.util.Map;
+
+//пакетное создание или обновление: id -> название после изменения
+public record ProductsChangedEvent(Map<Integer, String> titles) {
+}
@@ -1,8 +1,7 @@
 package ru.stroy1click.catalog.domain.product.image.mapper;
 
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.product.entity.Product;
 import ru.stroy1click.catalog.domain.product.image.dto.ProductImageDto;
 import ru.stroy1click.catalog.domain.product.image.entity.ProductImage;
 import ru.stroy1click.common.mapper.Mappable;
@@ -10,31 +9,37 @@ import ru.stroy1click.common.mapper.Mappable;
 import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class ProductImageMapper implements Mappable<ProductImage, ProductImageDto>{
 
-    private final ModelMapper modelMapper;
-
     @Override
     public ProductImage toEntity(ProductImageDto productImageDto) {
-        return this.modelMapper.map(productImageDto, ProductImage.class);
+        return ProductImage.builder()
+                .id(productImageDto.getId())
+                .link(productImageDto.getLink())
+                .product(productImageDto.getProductId() == null
+                        ? null : Product.builder().id(productImageDto.getProductId()).build())
+                .build();
     }
 
     @Override
     public ProductImageDto toDto(ProductImage productImage) {
-        return this.modelMapper.map(productImage, ProductImageDto.class);
+        return ProductImageDto.builder()
+                .id(productImage.getId())
+                .link(productImage.getLink())
+                .productId(productImage.getProduct() == null ? null : productImage.getProduct().getId())
+                .build();
     }
 
     @Override
     public List<ProductImageDto> toDto(List<ProductImage> e) {
         return e.stream()
-                .map(productImage -> this.modelMapper.map(productImage, ProductImageDto.class))
+                .map(this::toDto)
                 .toList();
     }
 
     public List<ProductImage> toEntity(List<ProductImageDto> d){
         return d.stream()
-                .map(productImage -> this.modelMapper.map(productImage, ProductImage.class))
+                .map(this::toEntity)
                 .toList();
     }
 }
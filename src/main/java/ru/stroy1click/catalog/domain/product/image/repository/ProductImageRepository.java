@@ -1,15 +1,49 @@
 package ru.stroy1click.catalog.domain.product.image.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.stroy1click.catalog.domain.product.image.entity.ProductImage;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductImageRepository extends JpaRepository<ProductImage, Integer> {
-    Optional<ProductImage> findByLink(String link);
+    Optional<ProductImage> findByProduct_IdAndLink(Integer productId, String link);
 
     List<ProductImage> findAllByProduct_Id(Integer productId);
+
+    //одну и ту же ссылку могут привязывать одновременно: уникальный (product_id, link) оставляет одну строку
+    @Modifying
+    @Query(value = """
+            insert into catalog.product_images (product_id, link)
+            values (:productId, :link)
+            on conflict (product_id, link) do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("productId") Integer productId, @Param("link") String link);
+
+    //одно изображение может быть у нескольких продуктов и у элементов иерархии
+    @Query(value = """
+            select (select count(*) from catalog.product_images where link = :link)
+                 + (select count(*) from catalog.categories where image = :link)
+                 + (select count(*) from catalog.subcategories where image = :link)
+                 + (select count(*) from catalog.product_types where image = :link)
+            """, nativeQuery = true)
+    long countReferences(@Param("link") String link);
+
+    //те из links, на которые есть хоть одна ссылка; размер links ограничивает вызывающий
+    @Query(value = """
+            select link from catalog.product_images where link in (:links)
+            union
+            select image from catalog.categories where image in (:links)
+            union
+            select image from catalog.subcategories where image in (:links)
+            union
+            select image from catalog.product_types where image in (:links)
+            """, nativeQuery = true)
+    List<String> findReferenced(@Param("links") Collection<String> links);
 }
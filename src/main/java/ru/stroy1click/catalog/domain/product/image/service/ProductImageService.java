@@ -12,7 +12,10 @@ public interface ProductImageService {
 
     void create(ProductImageDto productImageDto);
 
+    //false - ссылка уже была привязана к продукту
+    boolean createIfAbsent(ProductImageDto productImageDto);
+
     void update(Integer id, ProductImageDto productImageDto);
 
-    void delete(String link);
+    void delete(Integer productId, String link);
 }
@@ -59,6 +59,15 @@ public class ProductImageServiceImpl implements ProductImageService {
         );
     }
 
+    @Override
+    @CacheEvict(cacheNames = "productImages", key = "#productImageDto.productId")
+    public boolean createIfAbsent(ProductImageDto productImageDto) {
+        log.info("createIfAbsent {}", productImageDto);
+
+        return this.productImageRepository.insertIfAbsent(
+                productImageDto.getProductId(), productImageDto.getLink()) > 0;
+    }
+
     @Override
     @CacheEvict(cacheNames = "productImages", key = "#productImageDto.productId")
     public void update(Integer id, ProductImageDto productImageDto) {
@@ -72,13 +81,13 @@ public class ProductImageServiceImpl implements ProductImageService {
     }
 
     @Override
-    public void delete(String link) {
-        log.info("delete {}", link);
+    public void delete(Integer productId, String link) {
+        log.info("delete {} {}", productId, link);
 
-        ProductImage productImage = this.productImageRepository.findByLink(link)
+        ProductImage productImage = this.productImageRepository.findByProduct_IdAndLink(productId, link)
                 .orElseThrow(() -> ExceptionUtils.notFound("error.product_image.not_found", link));
 
-        this.cacheClear.clearProductImages(productImage.getProduct().getId());
+        this.cacheClear.clearProductImages(productId);
         this.productImageRepository.delete(productImage);
     }
 }
\ No newline at end of file
@@ -1,34 +1,57 @@
 package ru.stroy1click.catalog.domain.product.mapper;
 
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.category.entity.Category;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
 import ru.stroy1click.catalog.domain.product.entity.Product;
+import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
+import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
 import ru.stroy1click.common.mapper.Mappable;
 
 import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class ProductMapper implements Mappable<Product, ProductDto>{
 
-    private final ModelMapper modelMapper;
-
     @Override
     public Product toEntity(ProductDto productDto) {
-        return this.modelMapper.map(productDto, Product.class);
+        return Product.builder()
+                .id(productDto.getId())
+                .title(productDto.getTitle())
+                .description(productDto.getDescription())
+                .price(productDto.getPrice())
+                .unit(productDto.getUnit())
+                .inStock(productDto.getInStock())
+                .category(productDto.getCategoryId() == null
+                        ? null : Category.builder().id(productDto.getCategoryId()).build())
+                .subcategory(productDto.getSubcategoryId() == null
+                        ? null : Subcategory.builder().id(productDto.getSubcategoryId()).build())
+                .productType(productDto.getProductTypeId() == null
+                        ? null : ProductType.builder().id(productDto.getProductTypeId()).build())
+                .build();
     }
 
+    //getId() у lazy-прокси Hibernate не инициализирует связанную сущность
     @Override
     public ProductDto toDto(Product product) {
-        return this.modelMapper.map(product, ProductDto.class);
+        return ProductDto.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .unit(product.getUnit())
+                .inStock(product.getInStock())
+                .categoryId(product.getCategory() == null ? null : product.getCategory().getId())
+                .subcategoryId(product.getSubcategory() == null ? null : product.getSubcategory().getId())
+                .productTypeId(product.getProductType() == null ? null : product.getProductType().getId())
+                .version(product.getVersion())
+                .build();
     }
 
     @Override
     public List<ProductDto> toDto(List<Product> e) {
         return e.stream()
-                .map(product -> this.modelMapper.map(product, ProductDto.class))
+                .map(this::toDto)
                 .toList();
     }
 }
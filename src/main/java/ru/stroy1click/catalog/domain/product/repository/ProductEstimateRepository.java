@@ -0,0 +1,9 @@
+package ru.stroy1click.catalog.domain.product.repository;
+
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+
+public interface ProductEstimateRepository {
+
+    //оценка планировщика Postgres, а не count(*): запрос не выполняется
+    long estimateCount(ProductFilter filter);
+}
@@ -0,0 +1,55 @@
+package ru.stroy1click.catalog.domain.product.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ProductEstimateRepositoryImpl implements ProductEstimateRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    //первая строка плана: "Seq Scan on products p  (cost=0.00..1.05 rows=5 width=4)"
+    private final static Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @Override
+    public long estimateCount(ProductFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+
+        addCondition(conditions, parameters, "p.category_id = ?", filter.getCategoryId());
+        addCondition(conditions, parameters, "p.subcategory_id = ?", filter.getSubcategoryId());
+        addCondition(conditions, parameters, "p.product_type_id = ?", filter.getProductTypeId());
+        addCondition(conditions, parameters, "p.in_stock = ?", filter.getInStock());
+        addCondition(conditions, parameters, "p.price >= ?", filter.getMinPrice());
+        addCondition(conditions, parameters, "p.price <= ?", filter.getMaxPrice());
+
+        StringBuilder sql = new StringBuilder("explain select p.id from catalog.products p");
+        for (int i = 0; i < conditions.size(); i++) {
+            sql.append(i == 0 ? " where " : " and ")
+                    .append(conditions.get(i).replace("?", "?" + (i + 1)));
+        }
+
+        Query query = this.entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+
+        Object firstLine = query.getResultList().getFirst();
+        Matcher matcher = PLAN_ROWS.matcher(String.valueOf(firstLine));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private static void addCondition(List<String> conditions, List<Object> parameters, String condition, Object value) {
+        if (value != null) {
+            conditions.add(condition);
+            parameters.add(value);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.stroy1click.catalog.domain.product.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import ru.stroy1click.catalog.domain.product.entity.Product;
+
+public interface ProductIdRepository {
+
+    //выбирает только id, сами продукты достаются из кэша через ProductService.getAllByIds
+    Slice<Integer> findIds(Specification<Product> specification, Pageable pageable);
+}
@@ -0,0 +1,60 @@
+package ru.stroy1click.catalog.domain.product.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.stroy1click.catalog.domain.product.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductIdRepositoryImpl implements ProductIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Integer> findIds(Specification<Product> specification, Pageable pageable) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = cb.createQuery(Integer.class);
+        Root<Product> root = query.from(Product.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id"))
+                .orderBy(toOrders(pageable.getSort(), root, cb));
+
+        //запрашиваем на один id больше, чтобы понять, есть ли следующая страница, без count(*)
+        List<Integer> ids = this.entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = ids.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    private List<Order> toOrders(Sort sort, Root<Product> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        sort.forEach(order -> orders.add(
+                order.isAscending() ? cb.asc(root.get(order.getProperty())) : cb.desc(root.get(order.getProperty()))
+        ));
+
+        //id в конце делает порядок однозначным при равных ценах и названиях,
+        //направление совпадает с основной сортировкой, чтобы индекс (..., price, id) читался целиком
+        if (sort.getOrderFor("id") == null) {
+            boolean descending = sort.stream().findFirst().map(Sort.Order::isDescending).orElse(false);
+            orders.add(descending ? cb.desc(root.get("id")) : cb.asc(root.get("id")));
+        }
+
+        return orders;
+    }
+}
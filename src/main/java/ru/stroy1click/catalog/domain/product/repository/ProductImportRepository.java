@@ -0,0 +1,168 @@
+package ru.stroy1click.catalog.domain.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportRow;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+//Промежуточная таблица catalog.products_import: загрузка через COPY и слияние в catalog.products диапазонами строк
+@Repository
+@RequiredArgsConstructor
+public class ProductImportRepository {
+
+    private final DataSource dataSource;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final static String COPY_SQL = """
+            copy catalog.products_import (import_id, line, title, description, price, unit, in_stock,
+                                          category_id, subcategory_id, product_type_id)
+            from stdin with (format csv)
+            """;
+
+    //последняя строка с одинаковым названием побеждает
+    private final static String STAGED_CHUNK = """
+            select distinct on (title) *
+            from catalog.products_import
+            where import_id = :importId and line > :fromLine and line <= :toLine
+            order by title, line desc
+            """;
+
+    //иерархию не трогаем, как и обычное обновление; строки без изменений пропускаются
+    private final static String UPDATE_SQL = """
+            update catalog.products p
+            set description = s.description, price = s.price, unit = s.unit, in_stock = s.in_stock, version = p.version + 1
+            from (%s) s
+            where p.title = s.title
+              and (p.description, p.price, p.unit, p.in_stock) is distinct from (s.description, s.price, s.unit, s.in_stock)
+            returning p.id
+            """.formatted(STAGED_CHUNK);
+
+    //id выдаются блоками по ID_BLOCK с одного nextval, как это делает pooled-оптимизатор Hibernate:
+    //значение последовательности - верхняя граница блока, поэтому id не пересекаются с выданными приложением.
+    //Первое значение новой последовательности (меньше шага) - нижняя граница, а следующее за ним резервирует
+    //этот блок: на новой последовательности берём одно значение про запас и пропускаем резерв
+    private final static String INSERT_SQL = """
+            with fresh as (
+                select s.*, row_number() over (order by s.line) - 1 as n
+                from (%s) s
+                where not exists (select 1 from catalog.products p where p.title = s.title)
+            ), sequence_values as (
+                select nextval('catalog.products_id_seq') as v
+                from generate_series(1, (select (count(*) + :idBlock - 1) / :idBlock from fresh)
+                        + (select case when last_value < :idBlock then 1 else 0 end from catalog.products_id_seq))
+            ), blocks as (
+                select row_number() over (order by v) - 1 as block,
+                       case when v < :idBlock then v else v - :idBlock + 1 end as lo
+                from (select v, lag(v) over (order by v) as previous from sequence_values) s
+                where previous is null or previous >= :idBlock
+            )
+            insert into catalog.products (id, title, description, price, unit, in_stock,
+                                          category_id, subcategory_id, product_type_id)
+            select b.lo + f.n %% :idBlock, f.title, f.description, f.price, f.unit, f.in_stock,
+                   f.category_id, f.subcategory_id, f.product_type_id
+            from fresh f
+            join blocks b on b.block = f.n / :idBlock
+            returning id
+            """.formatted(STAGED_CHUNK);
+
+    //совпадает с allocationSize в Product и шагом последовательности (V6)
+    private final static int ID_BLOCK = 50;
+
+    private final static int COPY_BUFFER_SIZE = 256 * 1024;
+
+    //COPY идёт отдельным соединением вне транзакций приложения, загруженные строки видны сразу после завершения
+    public long stage(UUID importId, Iterator<ProductImportRow> rows) throws SQLException {
+        try (Connection connection = this.dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            long staged = 0;
+            try {
+                StringBuilder chunk = new StringBuilder(COPY_BUFFER_SIZE + 4096);
+                String id = importId.toString();
+                while (rows.hasNext()) {
+                    appendRow(chunk, id, rows.next());
+                    staged++;
+                    if (chunk.length() >= COPY_BUFFER_SIZE) {
+                        write(copyIn, chunk);
+                    }
+                }
+                write(copyIn, chunk);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            return staged;
+        }
+    }
+
+    public List<Integer> mergeUpdated(UUID importId, long fromLine, long toLine) {
+        return this.jdbcTemplate.queryForList(UPDATE_SQL, chunkParams(importId, fromLine, toLine), Integer.class);
+    }
+
+    public List<Integer> mergeCreated(UUID importId, long fromLine, long toLine) {
+        return this.jdbcTemplate.queryForList(INSERT_SQL, chunkParams(importId, fromLine, toLine)
+                .addValue("idBlock", ID_BLOCK), Integer.class);
+    }
+
+    public void deleteStaged(UUID importId) {
+        this.jdbcTemplate.update("delete from catalog.products_import where import_id = :importId",
+                new MapSqlParameterSource("importId", importId));
+    }
+
+    private MapSqlParameterSource chunkParams(UUID importId, long fromLine, long toLine) {
+        return new MapSqlParameterSource()
+                .addValue("importId", importId)
+                .addValue("fromLine", fromLine)
+                .addValue("toLine", toLine);
+    }
+
+    private void appendRow(StringBuilder chunk, String importId, ProductImportRow row) {
+        chunk.append(importId).append(',')
+                .append(row.line()).append(',');
+        appendQuoted(chunk, row.title()).append(',');
+        appendQuoted(chunk, row.description()).append(',');
+        chunk.append(row.price().toPlainString()).append(',')
+                .append(row.unit().name()).append(',')
+                .append(row.inStock()).append(',')
+                .append(row.categoryId()).append(',')
+                .append(row.subcategoryId()).append(',')
+                .append(row.productTypeId()).append('\n');
+    }
+
+    private StringBuilder appendQuoted(StringBuilder chunk, String value) {
+        chunk.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                chunk.append('"');
+            }
+            chunk.append(c);
+        }
+        return chunk.append('"');
+    }
+
+    private void write(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
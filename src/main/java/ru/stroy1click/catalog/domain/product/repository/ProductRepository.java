@@ -1,27 +1,62 @@
 package ru.stroy1click.catalog.domain.product.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductTitle;
 import ru.stroy1click.catalog.domain.product.entity.Product;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product>,
+        ProductIdRepository, ProductEstimateRepository {
+
+    //p.category.id и др. берутся из FK-колонок products, join не нужен
+    String PRODUCT_DTO_COLUMNS = "p.id, p.title, p.description, p.price, p.unit, p.inStock, " +
+            "p.category.id, p.subcategory.id, p.productType.id, p.version";
 
     Optional<Product> findByTitle(String title);
 
-    @Query("select p.id from Product p where p.category.id = :categoryId")
-    Page<Integer> findProductIdsByCategory_Id(@Param("categoryId") Integer categoryId, Pageable pageable);
+    List<Product> findAllByTitleIn(Collection<String> titles);
+
+    @Query("select new ru.stroy1click.catalog.domain.product.dto.ProductDto(" + PRODUCT_DTO_COLUMNS + ") " +
+            "from Product p where p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Integer id);
+
+    @Query("select new ru.stroy1click.catalog.domain.product.dto.ProductDto(" + PRODUCT_DTO_COLUMNS + ") " +
+            "from Product p")
+    List<ProductDto> findAllDtos();
+
+    @Query("select new ru.stroy1click.catalog.domain.product.dto.ProductDto(" + PRODUCT_DTO_COLUMNS + ") " +
+            "from Product p where p.id in :ids")
+    List<ProductDto> findAllDtosByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select new ru.stroy1click.catalog.domain.product.dto.ProductTitle(p.id, p.title) from Product p")
+    List<ProductTitle> findAllTitles();
 
-    @Query("select p.id from Product p where p.subcategory.id = :subcategoryId")
-    Page<Integer> findProductIdsBySubcategory_Id(@Param("subcategoryId") Integer subcategoryId, Pageable pageable);
+    //search_vector - generated-колонка (V5), в сущности не отображается
+    @Query(value = """
+            select p.id
+            from catalog.products p, websearch_to_tsquery('russian', :query) q
+            where p.search_vector @@ q
+            order by ts_rank_cd(p.search_vector, q) desc, p.id
+            limit :limit offset :offset
+            """, nativeQuery = true)
+    List<Integer> searchIds(@Param("query") String query, @Param("limit") int limit, @Param("offset") long offset);
 
-    @Query("select p.id from Product p where p.productType.id = :productTypeId")
-    Page<Integer> findProductIdsByProductType_Id(@Param("productTypeId") Integer productTypeId, Pageable pageable);
+    //курсор Postgres работает только внутри транзакции, иначе драйвер читает весь результат в память
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.stroy1click.catalog.domain.product.dto.ProductDto(" + PRODUCT_DTO_COLUMNS + ") " +
+            "from Product p order by p.id")
+    Stream<ProductDto> streamAllDtos();
 }
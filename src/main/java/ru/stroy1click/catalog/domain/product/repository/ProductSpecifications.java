@@ -0,0 +1,56 @@
+package ru.stroy1click.catalog.domain.product.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+import ru.stroy1click.catalog.domain.product.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> byFilter(ProductFilter filter) {
+        List<Specification<Product>> specifications = new ArrayList<>();
+
+        if (filter.getCategoryId() != null) specifications.add(hasCategory(filter.getCategoryId()));
+        if (filter.getSubcategoryId() != null) specifications.add(hasSubcategory(filter.getSubcategoryId()));
+        if (filter.getProductTypeId() != null) specifications.add(hasProductType(filter.getProductTypeId()));
+        if (filter.getInStock() != null) specifications.add(inStock(filter.getInStock()));
+        if (filter.getMinPrice() != null) specifications.add(priceFrom(filter.getMinPrice()));
+        if (filter.getMaxPrice() != null) specifications.add(priceTo(filter.getMaxPrice()));
+
+        return Specification.allOf(specifications);
+    }
+
+    public static Specification<Product> hasCategory(Integer categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Product> hasSubcategory(Integer subcategoryId) {
+        return (root, query, cb) -> cb.equal(root.get("subcategory").get("id"), subcategoryId);
+    }
+
+    public static Specification<Product> hasProductType(Integer productTypeId) {
+        return (root, query, cb) -> cb.equal(root.get("productType").get("id"), productTypeId);
+    }
+
+    public static Specification<Product> inStock(Boolean inStock) {
+        return (root, query, cb) -> cb.equal(root.get("inStock"), inStock);
+    }
+
+    public static Specification<Product> priceFrom(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceTo(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> idAfter(Integer id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+}
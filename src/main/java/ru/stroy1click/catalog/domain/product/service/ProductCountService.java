@@ -0,0 +1,8 @@
+package ru.stroy1click.catalog.domain.product.service;
+
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+
+public interface ProductCountService {
+
+    long estimateCount(ProductFilter filter);
+}
@@ -0,0 +1,9 @@
+package ru.stroy1click.catalog.domain.product.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ProductExportService {
+
+    void exportAll(OutputStream outputStream) throws IOException;
+}
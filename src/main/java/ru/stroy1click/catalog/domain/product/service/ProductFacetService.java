@@ -0,0 +1,25 @@
+package ru.stroy1click.catalog.domain.product.service;
+
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFacetsDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+
+import java.util.List;
+
+public interface ProductFacetService {
+
+    ProductFacetsDto getFacets(ProductFilter filter);
+
+    void onCreated(ProductDto product);
+
+    void onCreatedAll(List<ProductDto> products);
+
+    void onUpdated(ProductDto before, ProductDto after);
+
+    //списки сопоставляются по позиции
+    void onUpdatedAll(List<ProductDto> before, List<ProductDto> after);
+
+    void onDeleted(ProductDto product);
+
+    void rebuild();
+}
@@ -0,0 +1,21 @@
+package ru.stroy1click.catalog.domain.product.service;
+
+import java.util.Map;
+
+//Счётчики фасетов: область (категория, подкатегория, тип продукта) -> значение фасета -> количество
+public interface ProductFacetStore {
+
+    Map<String, Long> get(String scope);
+
+    void increment(Map<String, Map<String, Long>> deltas);
+
+    //false - пересборка уже идёт на другом узле. Пока она идёт, increment пишет изменения и в собираемые счётчики
+    boolean beginRebuild();
+
+    //подменяет счётчики пересчитанными с учётом изменений, пришедших во время пересборки
+    void replaceAll(Map<String, Map<String, Long>> counts);
+
+    void endRebuild();
+
+    boolean isInitialized();
+}
@@ -0,0 +1,18 @@
+package ru.stroy1click.catalog.domain.product.service;
+
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.UUID;
+
+public interface ProductImportService {
+
+    //сохраняет файл и ставит импорт в очередь, прогресс - через get
+    ProductImportDto start(InputStream csv);
+
+    ProductImportDto get(UUID id);
+
+    //синхронный импорт в текущем потоке
+    ProductImportDto importCsv(Reader csv);
+}
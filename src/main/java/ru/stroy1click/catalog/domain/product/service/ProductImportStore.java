@@ -0,0 +1,18 @@
+package ru.stroy1click.catalog.domain.product.service;
+
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+//Прогресс импорта хранится вне узла, чтобы статус можно было запросить через любой инстанс
+public interface ProductImportStore {
+
+    void save(ProductImportDto productImport);
+
+    Optional<ProductImportDto> get(UUID id);
+
+    //общая для всех узлов блокировка слияния: импорты конкурировали бы за одни и те же строки
+    Lock lock();
+}
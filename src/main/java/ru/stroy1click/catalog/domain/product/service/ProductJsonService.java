@@ -0,0 +1,8 @@
+package ru.stroy1click.catalog.domain.product.service;
+
+import ru.stroy1click.catalog.domain.common.dto.JsonBody;
+
+public interface ProductJsonService {
+
+    JsonBody get(Integer id);
+}
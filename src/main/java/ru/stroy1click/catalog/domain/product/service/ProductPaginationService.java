@@ -1,13 +1,21 @@
 package ru.stroy1click.catalog.domain.product.service;
 
 import org.springframework.data.domain.Pageable;
+import ru.stroy1click.catalog.domain.common.dto.CursorPageResponse;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
 import ru.stroy1click.catalog.domain.common.dto.PageResponse;
+import ru.stroy1click.catalog.domain.common.dto.TotalsMode;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
 
 public interface ProductPaginationService {
 
-    PageResponse<ProductDto> getProducts(Integer categoryId,
-                                         Integer subcategoryId,
-                                         Integer productType,
-                                         Pageable pageable);
+    PageResponse<ProductDto> getProducts(ProductFilter filter,
+                                         Pageable pageable,
+                                         TotalsMode totals);
+
+    CursorPageResponse<ProductDto> getProducts(ProductFilter filter,
+                                               String after,
+                                               int size);
+
+    PageResponse<ProductDto> search(String query, Pageable pageable);
 }
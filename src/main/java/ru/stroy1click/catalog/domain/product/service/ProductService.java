@@ -1,10 +1,13 @@
 package ru.stroy1click.catalog.domain.product.service;
 
 import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.domain.common.dto.ImageUploadRequest;
+import ru.stroy1click.catalog.domain.common.dto.PresignedUrlDto;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
 import ru.stroy1click.catalog.domain.product.entity.Product;
 import ru.stroy1click.catalog.domain.common.service.CrudOperations;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,7 +15,19 @@ public interface ProductService extends CrudOperations<Integer, ProductDto> {
 
     Optional<Product> getByTitle(String title);
 
+    List<Product> getAllByTitles(Collection<String> titles);
+
+    List<ProductDto> createAll(List<ProductDto> productDtos);
+
+    void updateAll(List<ProductDto> productDtos);
+
+    List<ProductDto> getAllByIds(List<Integer> ids);
+
     void assignImages(Integer id, List<MultipartFile> list);
 
+    PresignedUrlDto presignImageUpload(Integer id, ImageUploadRequest request);
+
+    void confirmImage(Integer id, String key);
+
     void deleteImage(Integer id, String link);
 }
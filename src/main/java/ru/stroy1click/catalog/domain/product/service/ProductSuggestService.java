@@ -0,0 +1,12 @@
+package ru.stroy1click.catalog.domain.product.service;
+
+import ru.stroy1click.catalog.domain.product.dto.SuggestionDto;
+
+import java.util.List;
+
+public interface ProductSuggestService {
+
+    List<SuggestionDto> suggest(String query, int limit);
+
+    void rebuild();
+}
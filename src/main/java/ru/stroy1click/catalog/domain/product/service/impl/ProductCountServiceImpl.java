@@ -0,0 +1,29 @@
+package ru.stroy1click.catalog.domain.product.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.ProductCountService;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ProductCountServiceImpl implements ProductCountService {
+
+    private final ProductRepository productRepository;
+
+    //count(*) по широкой категории читает все её строки, оценка планировщика берётся из статистики таблицы.
+    //Точность ограничена статистикой (ANALYZE), ответ помечается как неточный
+    @Override
+    @Cacheable(value = "productTotals", key = "#filter")
+    public long estimateCount(ProductFilter filter) {
+        log.info("estimateCount {}", filter);
+
+        return this.productRepository.estimateCount(filter);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.stroy1click.catalog.domain.product.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.ProductExportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private final ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final static int FLUSH_EVERY = 500;
+
+    //DTO-проекция не попадает в persistence context, поэтому память не растёт с размером каталога
+    @Override
+    public void exportAll(OutputStream outputStream) throws IOException {
+        log.info("exportAll");
+
+        try (Stream<ProductDto> products = this.productRepository.streamAllDtos();
+             JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            //строки разделяет только перевод строки, пробел перед корневым значением ломает NDJSON
+            generator.setRootValueSeparator(null);
+            //writeObject сбрасывает поток после каждого объекта, сбрасываем сами пачками
+            ObjectWriter writer = this.objectMapper.writerFor(ProductDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+            int written = 0;
+            Iterator<ProductDto> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+
+            log.info("exportAll finished, {} products", written);
+        }
+    }
+}
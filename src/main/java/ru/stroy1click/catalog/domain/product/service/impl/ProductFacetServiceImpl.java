@@ -0,0 +1,187 @@
+package ru.stroy1click.catalog.domain.product.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.stroy1click.catalog.domain.product.dto.PriceBucket;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFacetsDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetService;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetStore;
+import ru.stroy1click.catalog.domain.common.util.TransactionUtils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+//Счётчики ведутся по трём областям (категория, подкатегория, тип продукта) и считаются без учёта inStock и цены.
+//Изменения применяются после коммита, расхождения (падение между коммитом и Redis) исправляет ночная пересборка
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    private final ProductRepository productRepository;
+
+    private final ProductFacetStore productFacetStore;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final static String CATEGORY = "category:";
+
+    private final static String SUBCATEGORY = "subcategory:";
+
+    private final static String PRODUCT_TYPE = "productType:";
+
+    private final static String IN_STOCK = "inStock:";
+
+    private final static String PRICE = "price:";
+
+    @Override
+    public ProductFacetsDto getFacets(ProductFilter filter) {
+        log.info("getFacets {}", filter);
+
+        ProductFacetsDto facets = new ProductFacetsDto(new TreeMap<>(), new TreeMap<>(), new TreeMap<>(), new LinkedHashMap<>());
+        String scope = scopeOf(filter);
+        if (scope == null) {
+            return facets;
+        }
+
+        Map<String, Long> counts = this.productFacetStore.get(scope);
+        counts.forEach((field, count) -> {
+            if (count <= 0) {
+                return;
+            }
+            if (field.startsWith(SUBCATEGORY)) {
+                facets.getSubcategories().put(Integer.valueOf(field.substring(SUBCATEGORY.length())), count);
+            } else if (field.startsWith(PRODUCT_TYPE)) {
+                facets.getProductTypes().put(Integer.valueOf(field.substring(PRODUCT_TYPE.length())), count);
+            } else if (field.startsWith(IN_STOCK)) {
+                facets.getInStock().put(Boolean.valueOf(field.substring(IN_STOCK.length())), count);
+            }
+        });
+        //диапазоны цен - в порядке возрастания
+        for (PriceBucket bucket : PriceBucket.values()) {
+            Long count = counts.get(PRICE + bucket.getLabel());
+            if (count != null && count > 0) {
+                facets.getPrices().put(bucket.getLabel(), count);
+            }
+        }
+        return facets;
+    }
+
+    @Override
+    public void onCreated(ProductDto product) {
+        onCreatedAll(List.of(product));
+    }
+
+    @Override
+    public void onCreatedAll(List<ProductDto> products) {
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        products.forEach(product -> addDeltas(deltas, product, 1));
+        applyAfterCommit(deltas);
+    }
+
+    @Override
+    public void onUpdated(ProductDto before, ProductDto after) {
+        onUpdatedAll(List.of(before), List.of(after));
+    }
+
+    @Override
+    public void onUpdatedAll(List<ProductDto> before, List<ProductDto> after) {
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        before.forEach(product -> addDeltas(deltas, product, -1));
+        after.forEach(product -> addDeltas(deltas, product, 1));
+        //неизменившиеся фасеты взаимно сокращаются
+        deltas.values().forEach(fields -> fields.values().removeIf(delta -> delta == 0));
+        deltas.values().removeIf(Map::isEmpty);
+        applyAfterCommit(deltas);
+    }
+
+    @Override
+    public void onDeleted(ProductDto product) {
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        addDeltas(deltas, product, -1);
+        applyAfterCommit(deltas);
+    }
+
+    //узлов несколько, пересобирает один из них
+    @Override
+    public void rebuild() {
+        log.info("rebuild");
+
+        if (!this.productFacetStore.beginRebuild()) {
+            log.info("Facet rebuild is running on another node");
+            return;
+        }
+        try {
+            Map<String, Map<String, Long>> counts = new HashMap<>();
+            //курсор по продуктам открывается только в транзакции
+            this.transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ProductDto> products = this.productRepository.streamAllDtos()) {
+                    products.forEach(product -> addDeltas(counts, product, 1));
+                }
+            });
+            this.productFacetStore.replaceAll(counts);
+        } finally {
+            this.productFacetStore.endRebuild();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!this.productFacetStore.isInitialized()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    private void applyAfterCommit(Map<String, Map<String, Long>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> this.productFacetStore.increment(deltas));
+    }
+
+    private static void addDeltas(Map<String, Map<String, Long>> deltas, ProductDto product, long delta) {
+        List<String> fields = List.of(
+                SUBCATEGORY + product.getSubcategoryId(),
+                PRODUCT_TYPE + product.getProductTypeId(),
+                IN_STOCK + product.getInStock(),
+                PRICE + PriceBucket.of(product.getPrice()).getLabel()
+        );
+        for (String scope : List.of(CATEGORY + product.getCategoryId(),
+                SUBCATEGORY + product.getSubcategoryId(),
+                PRODUCT_TYPE + product.getProductTypeId())) {
+            Map<String, Long> scopeDeltas = deltas.computeIfAbsent(scope, key -> new HashMap<>());
+            fields.forEach(field -> scopeDeltas.merge(field, delta, Long::sum));
+        }
+    }
+
+    //самый узкий из переданных уровней иерархии
+    private static String scopeOf(ProductFilter filter) {
+        if (filter.getProductTypeId() != null) {
+            return PRODUCT_TYPE + filter.getProductTypeId();
+        }
+        if (filter.getSubcategoryId() != null) {
+            return SUBCATEGORY + filter.getSubcategoryId();
+        }
+        if (filter.getCategoryId() != null) {
+            return CATEGORY + filter.getCategoryId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,471 @@
+package ru.stroy1click.catalog.domain.product.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.category.repository.CategoryRepository;
+import ru.stroy1click.catalog.domain.common.cache.CacheClear;
+import ru.stroy1click.catalog.domain.common.csv.CsvReader;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportRow;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportState;
+import ru.stroy1click.catalog.domain.product.repository.ProductImportRepository;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetService;
+import ru.stroy1click.catalog.domain.product.service.ProductImportService;
+import ru.stroy1click.catalog.domain.product.service.ProductImportStore;
+import ru.stroy1click.catalog.domain.product.service.ProductSuggestService;
+import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
+import ru.stroy1click.catalog.domain.producttype.repository.ProductTypeRepository;
+import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
+import ru.stroy1click.catalog.domain.subcategory.repository.SubcategoryRepository;
+import ru.stroy1click.common.dto.Unit;
+import ru.stroy1click.common.event.ProductCreatedEvent;
+import ru.stroy1click.common.event.ProductUpdatedEvent;
+import ru.stroy1click.common.exception.StorageException;
+import ru.stroy1click.common.exception.ValidationException;
+import ru.stroy1click.common.util.ExceptionUtils;
+import ru.stroy1click.outbox.service.OutboxEventService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+
+//CSV разбирается потоком, строки сопоставляются с иерархией в памяти и уходят в промежуточную таблицу через COPY,
+//затем сливаются в catalog.products диапазонами строк - каждый диапазон в своей транзакции вместе с outbox-событиями
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private final ProductImportRepository productImportRepository;
+
+    private final ProductRepository productRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final SubcategoryRepository subcategoryRepository;
+
+    private final ProductTypeRepository productTypeRepository;
+
+    private final ProductImportStore productImportStore;
+
+    private final OutboxEventService outboxEventService;
+
+    private final ProductFacetService productFacetService;
+
+    private final ProductSuggestService productSuggestService;
+
+    private final CacheClear cacheClear;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MessageSource messageSource;
+
+    //импорты на узле идут по очереди, между узлами - под блокировкой из ProductImportStore
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("product-import").factory()
+    );
+
+    private final static List<String> COLUMNS = List.of(
+            "title", "description", "price", "unit", "in_stock", "category", "subcategory", "product_type"
+    );
+
+    private final static char DELIMITER = ',';
+
+    private final static long CHUNK_LINES = 5_000;
+
+    private final static long PROGRESS_EVERY = 10_000;
+
+    private final static int MAX_ERRORS = 100;
+
+    private final static String PRODUCT_CREATED_TOPIC = "product-created-events";
+
+    private final static String PRODUCT_UPDATED_TOPIC = "product-updated-events";
+
+    @Override
+    public ProductImportDto start(InputStream csv) {
+        log.info("start");
+
+        Path file;
+        try {
+            file = Files.createTempFile("products-import-", ".csv");
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+
+        //после передачи в executor файл удаляет задача, до этого - сами
+        boolean submitted = false;
+        try {
+            Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+
+            ProductImportDto productImport = newImport();
+            this.productImportStore.save(productImport);
+
+            this.executor.execute(() -> {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    run(productImport, reader);
+                } catch (IOException e) {
+                    log.error("start {} failed to read file", productImport.getId(), e);
+                } finally {
+                    deleteFile(file);
+                }
+            });
+            submitted = true;
+            return productImport;
+        } catch (IOException e) {
+            throw new StorageException(e);
+        } finally {
+            if (!submitted) {
+                deleteFile(file);
+            }
+        }
+    }
+
+    @Override
+    public ProductImportDto get(UUID id) {
+        log.info("get {}", id);
+
+        return this.productImportStore.get(id)
+                .orElseThrow(() -> ExceptionUtils.notFound("error.product_import.not_found", id));
+    }
+
+    @Override
+    public ProductImportDto importCsv(Reader csv) {
+        log.info("importCsv");
+
+        ProductImportDto productImport = newImport();
+        run(productImport, csv);
+        return productImport;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private void run(ProductImportDto productImport, Reader csv) {
+        Lock lock = this.productImportStore.lock();
+        lock.lock();
+        try {
+            stageAndMerge(productImport, csv);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stageAndMerge(ProductImportDto productImport, Reader csv) {
+        UUID id = productImport.getId();
+        productImport.setState(ProductImportState.STAGING);
+        productImport.setStartedAt(Instant.now());
+        this.productImportStore.save(productImport);
+
+        try {
+            CsvReader reader = new CsvReader(csv, DELIMITER);
+            checkHeader(reader.next());
+
+            productImport.setRowsStaged(this.productImportRepository.stage(id,
+                    new ImportRows(reader, loadHierarchy(), productImport)));
+            productImport.setState(ProductImportState.MERGING);
+            this.productImportStore.save(productImport);
+            log.info("run {} staged {} rows, {} rejected", id, productImport.getRowsStaged(), productImport.getRowsRejected());
+
+            long lastLine = reader.getRecordLine();
+            for (long fromLine = 0; fromLine < lastLine; fromLine += CHUNK_LINES) {
+                long from = fromLine;
+                MergeResult result = this.transactionTemplate.execute(status -> merge(id, from, from + CHUNK_LINES));
+
+                productImport.setCreated(productImport.getCreated() + result.created());
+                productImport.setUpdated(productImport.getUpdated() + result.updated());
+                this.productImportStore.save(productImport);
+            }
+            productImport.setState(ProductImportState.COMPLETED);
+        } catch (Exception e) {
+            //уже слитые диапазоны остаются в каталоге, повторный импорт того же файла только обновит их
+            log.error("run {} failed", id, e);
+            productImport.setState(ProductImportState.FAILED);
+            //текст ValidationException уже локализован, текст прочих исключений (SQL, Redis) клиенту не отдаётся
+            addError(productImport, e instanceof ValidationException ? e.getMessage() : this.messageSource.getMessage(
+                    "error.product_import.failed",
+                    null,
+                    Locale.getDefault()
+            ));
+        } finally {
+            this.productImportRepository.deleteStaged(id);
+            if (productImport.getCreated() + productImport.getUpdated() > 0) {
+                refreshDerived();
+            }
+            productImport.setFinishedAt(Instant.now());
+            this.productImportStore.save(productImport);
+        }
+        log.info("run {} finished: {}", id, productImport);
+    }
+
+    private MergeResult merge(UUID id, long fromLine, long toLine) {
+        List<Integer> updatedIds = this.productImportRepository.mergeUpdated(id, fromLine, toLine);
+        List<Integer> createdIds = this.productImportRepository.mergeCreated(id, fromLine, toLine);
+
+        if (!updatedIds.isEmpty()) {
+            this.productRepository.findAllDtosByIdIn(updatedIds)
+                    .forEach(product -> this.outboxEventService.save(PRODUCT_UPDATED_TOPIC, toUpdatedEvent(product)));
+        }
+        if (!createdIds.isEmpty()) {
+            this.productRepository.findAllDtosByIdIn(createdIds)
+                    .forEach(product -> this.outboxEventService.save(PRODUCT_CREATED_TOPIC, toCreatedEvent(product)));
+        }
+        return new MergeResult(createdIds.size(), updatedIds.size());
+    }
+
+    //счётчики фасетов и индекс подсказок дешевле пересобрать один раз, чем обновлять на каждую строку
+    private void refreshDerived() {
+        this.cacheClear.clearAllProducts();
+        this.productFacetService.rebuild();
+        this.productSuggestService.rebuild();
+    }
+
+    private void checkHeader(List<String> header) {
+        if (header == null || header.size() != COLUMNS.size() || !COLUMNS.equals(header.stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList())) {
+            throw new ValidationException(
+                    this.messageSource.getMessage(
+                            "error.product_import.header",
+                            new Object[]{String.join(String.valueOf(DELIMITER), COLUMNS)},
+                            Locale.getDefault()
+                    )
+            );
+        }
+    }
+
+    private Hierarchy loadHierarchy() {
+        Map<String, Integer> categories = new HashMap<>();
+        for (CategoryDto category : this.categoryRepository.findAllDtos()) {
+            categories.put(normalize(category.getTitle()), category.getId());
+        }
+        Map<String, Integer> subcategories = new HashMap<>();
+        for (SubcategoryDto subcategory : this.subcategoryRepository.findAllDtos()) {
+            subcategories.put(subcategory.getCategoryId() + "/" + normalize(subcategory.getTitle()), subcategory.getId());
+        }
+        Map<String, Integer> productTypes = new HashMap<>();
+        for (ProductTypeDto productType : this.productTypeRepository.findAllDtos()) {
+            productTypes.put(productType.getSubcategoryId() + "/" + normalize(productType.getTitle()), productType.getId());
+        }
+        return new Hierarchy(categories, subcategories, productTypes);
+    }
+
+    //null - строка отклонена, причина записана в статус импорта
+    private ProductImportRow parseRow(long line, List<String> fields, Hierarchy hierarchy, ProductImportDto productImport) {
+        if (fields.size() != COLUMNS.size()) {
+            return reject(productImport, line, "error.product_import.columns");
+        }
+
+        String title = fields.get(0).trim();
+        if (title.length() < 2 || title.length() > 60) {
+            return reject(productImport, line, "error.product_import.title");
+        }
+        String description = fields.get(1).trim();
+        if (description.isEmpty() || description.length() > 1000) {
+            return reject(productImport, line, "error.product_import.description");
+        }
+        BigDecimal price = parsePrice(fields.get(2));
+        if (price == null) {
+            return reject(productImport, line, "error.product_import.price");
+        }
+        Unit unit = parseUnit(fields.get(3));
+        if (unit == null) {
+            return reject(productImport, line, "error.product_import.unit");
+        }
+        Boolean inStock = parseInStock(fields.get(4));
+        if (inStock == null) {
+            return reject(productImport, line, "error.product_import.in_stock");
+        }
+
+        Integer categoryId = hierarchy.categories().get(normalize(fields.get(5)));
+        if (categoryId == null) {
+            return reject(productImport, line, "error.product_import.category");
+        }
+        Integer subcategoryId = hierarchy.subcategories().get(categoryId + "/" + normalize(fields.get(6)));
+        if (subcategoryId == null) {
+            return reject(productImport, line, "error.product_import.subcategory");
+        }
+        Integer productTypeId = hierarchy.productTypes().get(subcategoryId + "/" + normalize(fields.get(7)));
+        if (productTypeId == null) {
+            return reject(productImport, line, "error.product_import.product_type");
+        }
+
+        return new ProductImportRow(line, title, description, price, unit, inStock, categoryId, subcategoryId, productTypeId);
+    }
+
+    private ProductImportRow reject(ProductImportDto productImport, long line, String key) {
+        productImport.setRowsRejected(productImport.getRowsRejected() + 1);
+        if (productImport.getErrors().size() < MAX_ERRORS) {
+            addError(productImport, this.messageSource.getMessage(key, new Object[]{line}, Locale.getDefault()));
+        }
+        return null;
+    }
+
+    private void addError(ProductImportDto productImport, String error) {
+        productImport.getErrors().add(error);
+    }
+
+    //прайс-листы часто приходят с десятичной запятой и пробелами между разрядами
+    private static BigDecimal parsePrice(String value) {
+        try {
+            BigDecimal price = new BigDecimal(value.replace(" ", "").replace(',', '.'));
+            if (price.compareTo(BigDecimal.ONE) < 0 || price.scale() > 2 || price.precision() - price.scale() > 17) {
+                return null;
+            }
+            return price;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Unit parseUnit(String value) {
+        try {
+            return Unit.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Boolean parseInStock(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "1", "да" -> true;
+            case "false", "0", "нет" -> false;
+            default -> null;
+        };
+    }
+
+    private static String normalize(String title) {
+        return title.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private ProductImportDto newImport() {
+        return ProductImportDto.builder()
+                .id(UUID.randomUUID())
+                .state(ProductImportState.QUEUED)
+                .errors(new ArrayList<>())
+                .build();
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("deleteFile {} failed", file, e);
+        }
+    }
+
+    private ProductCreatedEvent toCreatedEvent(ProductDto product) {
+        return ProductCreatedEvent.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .description(product.getDescription())
+                .inStock(product.getInStock())
+                .price(product.getPrice())
+                .unit(product.getUnit())
+                .categoryId(product.getCategoryId())
+                .subcategoryId(product.getSubcategoryId())
+                .productTypeId(product.getProductTypeId())
+                .build();
+    }
+
+    private ProductUpdatedEvent toUpdatedEvent(ProductDto product) {
+        return ProductUpdatedEvent.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .description(product.getDescription())
+                .inStock(product.getInStock())
+                .price(product.getPrice())
+                .unit(product.getUnit())
+                .build();
+    }
+
+    private record Hierarchy(Map<String, Integer> categories, Map<String, Integer> subcategories,
+                             Map<String, Integer> productTypes) {
+    }
+
+    private record MergeResult(int created, int updated) {
+    }
+
+    //итератор для COPY: читает CSV по мере отправки, отклонённые строки пропускает
+    private class ImportRows implements Iterator<ProductImportRow> {
+
+        private final CsvReader reader;
+
+        private final Hierarchy hierarchy;
+
+        private final ProductImportDto productImport;
+
+        private ProductImportRow next;
+
+        private ImportRows(CsvReader reader, Hierarchy hierarchy, ProductImportDto productImport) {
+            this.reader = reader;
+            this.hierarchy = hierarchy;
+            this.productImport = productImport;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.next == null) {
+                List<String> fields = readRecord();
+                if (fields == null) {
+                    return false;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue; //пустая строка
+                }
+
+                this.productImport.setRowsRead(this.productImport.getRowsRead() + 1);
+                this.next = parseRow(this.reader.getRecordLine(), fields, this.hierarchy, this.productImport);
+
+                if (this.productImport.getRowsRead() % PROGRESS_EVERY == 0) {
+                    productImportStore.save(this.productImport);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ProductImportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ProductImportRow row = this.next;
+            this.next = null;
+            return row;
+        }
+
+        private List<String> readRecord() {
+            try {
+                return this.reader.next();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
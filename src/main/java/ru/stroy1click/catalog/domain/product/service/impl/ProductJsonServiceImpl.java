@@ -0,0 +1,55 @@
+package ru.stroy1click.catalog.domain.product.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import ru.stroy1click.catalog.domain.common.dto.JsonBody;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.service.ProductJsonService;
+import ru.stroy1click.catalog.domain.product.service.ProductService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+//Сериализация и сжатие выполняются один раз на версию продукта, кэш сбрасывается вместе с кэшем "product"
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductJsonServiceImpl implements ProductJsonService {
+
+    private final ProductService productService;
+
+    private final ObjectMapper objectMapper;
+
+    private final static int GZIP_MIN_SIZE = 1024;
+
+    @Override
+    @Cacheable(value = "productJson", key = "#id", sync = true)
+    public JsonBody get(Integer id) {
+        log.info("get {}", id);
+
+        ProductDto product = this.productService.get(id);
+        try {
+            byte[] json = this.objectMapper.writeValueAsBytes(product);
+            return new JsonBody(product.getId(), product.getVersion(), json,
+                    json.length >= GZIP_MIN_SIZE ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize product " + id, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -3,13 +3,23 @@ package ru.stroy1click.catalog.domain.product.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.MessageSource;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.stroy1click.catalog.domain.common.dto.CursorPageResponse;
 import ru.stroy1click.catalog.domain.common.dto.PageResponse;
+import ru.stroy1click.catalog.domain.common.dto.TotalsMode;
+import ru.stroy1click.catalog.domain.product.dto.ProductCursor;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+import ru.stroy1click.catalog.domain.product.entity.Product;
 import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.repository.ProductSpecifications;
+import ru.stroy1click.catalog.domain.product.service.ProductCountService;
 import ru.stroy1click.catalog.domain.product.service.ProductPaginationService;
 import ru.stroy1click.catalog.domain.product.service.ProductService;
 import ru.stroy1click.common.exception.ValidationException;
@@ -27,39 +37,121 @@ public class ProductPaginationServiceImpl implements ProductPaginationService {
 
     private final ProductService productService;
 
+    private final ProductCountService productCountService;
+
     private final MessageSource messageSource;
 
+    private final static String ID_PROPERTY = "id";
+
+    @Override
+    public PageResponse<ProductDto> getProducts(ProductFilter filter,
+                                                Pageable pageable,
+                                                TotalsMode totals){
+        Specification<Product> specification = toSpecification(filter);
+        Slice<Integer> productIds = this.productRepository.findIds(specification, pageable);
+
+        List<ProductDto> products = this.productService.getAllByIds(productIds.getContent());
+
+        Long totalElements = null;
+        Integer totalPages = null;
+        boolean totalExact = false;
+
+        if (!productIds.hasNext() && (productIds.hasContent() || pageable.getOffset() == 0)) {
+            //на последней странице общее количество известно без count(*)
+            totalElements = pageable.getOffset() + productIds.getNumberOfElements();
+            totalExact = true;
+        } else if (totals == TotalsMode.EXACT) {
+            totalElements = this.productRepository.count(specification);
+            totalExact = true;
+        } else if (totals == TotalsMode.ESTIMATED) {
+            long estimate = this.productCountService.estimateCount(filter);
+            totalElements = Math.max(estimate, pageable.getOffset() + productIds.getNumberOfElements()
+                    + (productIds.hasNext() ? 1 : 0));
+        }
+
+        if (totalElements != null) {
+            totalPages = (int) Math.ceil((double) totalElements / pageable.getPageSize());
+        }
+
+        return new PageResponse<>(
+                products, pageable.getPageNumber(), pageable.getPageSize(),
+                totalElements, totalPages, productIds.isLast(), totalExact
+        );
+    }
+
     @Override
-    public PageResponse<ProductDto> getProducts(Integer categoryId,
-                                                Integer subcategoryId,
-                                                Integer productTypeId,
-                                                Pageable pageable){
-        Page<Integer> productIds;
-
-        if (categoryId != null) {
-            productIds = this.productRepository.findProductIdsByCategory_Id(categoryId, pageable);
-        } else if (subcategoryId != null) {
-            productIds = this.productRepository.findProductIdsBySubcategory_Id(subcategoryId, pageable);
-        } else if (productTypeId != null) {
-            productIds = this.productRepository.findProductIdsByProductType_Id(productTypeId, pageable);
-        } else {
+    public CursorPageResponse<ProductDto> getProducts(ProductFilter filter,
+                                                      String after,
+                                                      int size) {
+        ProductCursor cursor = decodeCursor(after);
+        Specification<Product> specification = toSpecification(filter)
+                .and(ProductSpecifications.idAfter(cursor.lastId()));
+
+        Slice<Integer> productIds = this.productRepository.findIds(
+                specification, PageRequest.of(0, size, Sort.by(ID_PROPERTY))
+        );
+
+        String next = productIds.hasNext()
+                ? new ProductCursor(productIds.getContent().getLast()).encode()
+                : null;
+
+        return new CursorPageResponse<>(
+                this.productService.getAllByIds(productIds.getContent()), size, next, !productIds.hasNext()
+        );
+    }
+
+    @Override
+    public PageResponse<ProductDto> search(String query, Pageable pageable) {
+        log.info("search {}, {}", query, pageable);
+
+        //запрашиваем на один id больше, чтобы понять, есть ли следующая страница, без count(*)
+        List<Integer> ids = this.productRepository.searchIds(query, pageable.getPageSize() + 1, pageable.getOffset());
+        boolean last = ids.size() <= pageable.getPageSize();
+        List<Integer> pageIds = last ? ids : ids.subList(0, pageable.getPageSize());
+
+        Long totalElements = null;
+        Integer totalPages = null;
+        if (last && (!pageIds.isEmpty() || pageable.getOffset() == 0)) {
+            totalElements = pageable.getOffset() + pageIds.size();
+            totalPages = (int) Math.ceil((double) totalElements / pageable.getPageSize());
+        }
+
+        return new PageResponse<>(
+                this.productService.getAllByIds(pageIds), pageable.getPageNumber(), pageable.getPageSize(),
+                totalElements, totalPages, last, totalElements != null
+        );
+    }
+
+    //без фильтра по иерархии запрос не попадает ни в один индекс products
+    private Specification<Product> toSpecification(ProductFilter filter) {
+        if (filter.getCategoryId() == null && filter.getSubcategoryId() == null && filter.getProductTypeId() == null) {
+            throw emptyFilterException();
+        }
+
+        return ProductSpecifications.byFilter(filter);
+    }
+
+    private ProductCursor decodeCursor(String after) {
+        try {
+            return ProductCursor.decode(after);
+        } catch (IllegalArgumentException e) {
             throw new ValidationException(
                     this.messageSource.getMessage(
-                            "error.filter.empty",
+                            "error.cursor.invalid",
                             null,
                             Locale.getDefault()
                     )
             );
         }
+    }
 
-        List<ProductDto> products = productIds.getContent().stream()
-                .map(this.productService::get)
-                .toList();
-
-        return new PageResponse<>(
-                products, pageable.getPageNumber(), pageable.getPageSize(),
-                productIds.getTotalElements(), productIds.getTotalPages(),
-                productIds.isLast()
+    private ValidationException emptyFilterException() {
+        return new ValidationException(
+                this.messageSource.getMessage(
+                        "error.filter.empty",
+                        null,
+                        Locale.getDefault()
+                )
         );
     }
 }
\ No newline at end of file
@@ -5,28 +5,53 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.domain.common.cache.BatchCache;
+import ru.stroy1click.catalog.domain.common.cache.CacheClear;
+import ru.stroy1click.catalog.domain.common.dto.ImageUploadRequest;
+import ru.stroy1click.catalog.domain.common.dto.PresignedUrlDto;
+import ru.stroy1click.catalog.domain.common.dto.StoredObjectInfo;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
 import ru.stroy1click.catalog.domain.product.image.dto.ProductImageDto;
 import ru.stroy1click.catalog.domain.product.entity.Product;
+import ru.stroy1click.catalog.domain.product.event.ProductChangedEvent;
+import ru.stroy1click.catalog.domain.product.event.ProductsChangedEvent;
 import ru.stroy1click.catalog.domain.product.mapper.ProductMapper;
 import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
 import ru.stroy1click.catalog.domain.category.service.CategoryService;
 import ru.stroy1click.catalog.domain.product.image.service.ProductImageService;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetService;
 import ru.stroy1click.catalog.domain.product.service.ProductService;
 import ru.stroy1click.catalog.domain.producttype.service.ProductTypeService;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
 import ru.stroy1click.catalog.domain.subcategory.service.SubcategoryService;
+import ru.stroy1click.catalog.domain.common.util.TransactionUtils;
 import ru.stroy1click.common.event.ProductCreatedEvent;
 import ru.stroy1click.common.event.ProductDeletedEvent;
 import ru.stroy1click.common.event.ProductUpdatedEvent;
 import ru.stroy1click.common.util.ExceptionUtils;
 import ru.stroy1click.outbox.service.OutboxEventService;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 
 @Slf4j
@@ -41,6 +66,10 @@ public class ProductServiceImpl implements ProductService {
 
     private final StorageService storageService;
 
+    private final ImageDerivativeService imageDerivativeService;
+
+    private final ImageMetadataService imageMetadataService;
+
     private final ProductImageService productImageService;
 
     private final CategoryService categoryService;
@@ -51,6 +80,19 @@ public class ProductServiceImpl implements ProductService {
 
     private final OutboxEventService outboxEventService;
 
+    private final BatchCache batchCache;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ProductFacetService productFacetService;
+
+    private final CacheClear cacheClear;
+
+    private final static String PRODUCT_CACHE = "product";
+
+    //ключ S3 попадает в путь /api/v1/storage/{fileName}, поэтому в нём остаются только безопасные символы
+    private final static Pattern UNSAFE_KEY_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+
     private final static String PRODUCT_CREATED_TOPIC = "product-created-events";
 
     private final static String PRODUCT_UPDATED_TOPIC = "product-updated-events";
@@ -58,22 +100,20 @@ public class ProductServiceImpl implements ProductService {
     private final static String PRODUCT_DELETED_TOPIC = "product-deleted-events";
 
     @Override
-    @Cacheable(value = "product", key = "#id")
+    @Cacheable(value = "product", key = "#id", sync = true)
     public ProductDto get(Integer id) {
         log.info("get {}", id);
 
-        Product product = this.productRepository.findById(id)
+        return this.productRepository.findDtoById(id)
                 .orElseThrow(() -> ExceptionUtils.notFound("error.product.not_found",id));
-
-        return this.productMapper.toDto(product);
     }
 
     @Override
-    @Cacheable(value = "allProducts")
+    @Cacheable(value = "allProducts", sync = true)
     public List<ProductDto> getAll() {
         log.info("getAll");
 
-        return this.productMapper.toDto(this.productRepository.findAll());
+        return this.productRepository.findAllDtos();
     }
 
     @Override
@@ -91,19 +131,9 @@ public class ProductServiceImpl implements ProductService {
                 this.productRepository.save(this.productMapper.toEntity(productDto))
         );
 
-        ProductCreatedEvent event = ProductCreatedEvent.builder()
-                .id(createdProduct.getId())
-                .title(createdProduct.getTitle())
-                .description(createdProduct.getDescription())
-                .inStock(createdProduct.getInStock())
-                .price(createdProduct.getPrice())
-                .unit(createdProduct.getUnit())
-                .categoryId(createdProduct.getCategoryId())
-                .subcategoryId(createdProduct.getSubcategoryId())
-                .productTypeId(createdProduct.getProductTypeId())
-                .build();
-
-        this.outboxEventService.save(PRODUCT_CREATED_TOPIC, event);
+        this.outboxEventService.save(PRODUCT_CREATED_TOPIC, toCreatedEvent(createdProduct));
+        this.productFacetService.onCreated(createdProduct);
+        this.applicationEventPublisher.publishEvent(new ProductChangedEvent(createdProduct.getId(), createdProduct.getTitle()));
 
         return createdProduct;
     }
@@ -111,29 +141,20 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional
     @Caching(evict = {
-            @CacheEvict(value = "product", key = "#id"),
+            @CacheEvict(value = {"product", "productJson"}, key = "#id"),
             @CacheEvict(value = "allProducts", allEntries = true)
     })
     public void update(Integer id, ProductDto productDto) {
         log.info("update {}, {}", id, productDto);
 
         this.productRepository.findById(id).ifPresentOrElse(product -> {
-            product.setTitle(productDto.getTitle());
-            product.setUnit(productDto.getUnit());
-            product.setDescription(productDto.getDescription());
-            product.setPrice(productDto.getPrice());
-            product.setInStock(productDto.getInStock());
-
-            ProductUpdatedEvent event = ProductUpdatedEvent.builder()
-                    .id(product.getId())
-                    .title(product.getTitle())
-                    .description(product.getDescription())
-                    .inStock(product.getInStock())
-                    .price(product.getPrice())
-                    .unit(product.getUnit())
-                    .build();
-
-            this.outboxEventService.save(PRODUCT_UPDATED_TOPIC, event);
+            ProductDto before = this.productMapper.toDto(product);
+
+            applyUpdate(product, productDto);
+
+            this.outboxEventService.save(PRODUCT_UPDATED_TOPIC, toUpdatedEvent(product));
+            this.productFacetService.onUpdated(before, this.productMapper.toDto(product));
+            this.applicationEventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product.getTitle()));
         }, () -> {
             throw ExceptionUtils.notFound("error.product.not_found", id);
         });
@@ -142,7 +163,7 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional
     @Caching(evict = {
-            @CacheEvict(value = "product", key = "#id"),
+            @CacheEvict(value = {"product", "productJson"}, key = "#id"),
             @CacheEvict(value = "allProducts", allEntries = true)
     })
     public void delete(Integer id) {
@@ -155,6 +176,84 @@ public class ProductServiceImpl implements ProductService {
 
         this.productRepository.delete(product);
         this.outboxEventService.save(PRODUCT_DELETED_TOPIC, event);
+        this.productFacetService.onDeleted(this.productMapper.toDto(product));
+        this.applicationEventPublisher.publishEvent(new ProductChangedEvent(id, null));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = "allProducts", allEntries = true)
+    public List<ProductDto> createAll(List<ProductDto> productDtos) {
+        log.info("createAll {}", productDtos.size());
+
+        //проверка существований сущностей, по запросу на уровень иерархии
+        checkAllExist(productDtos, ProductDto::getCategoryId, this.categoryService::getExistingIds, "error.category.not_found");
+        checkAllExist(productDtos, ProductDto::getSubcategoryId, this.subcategoryService::getExistingIds, "error.subcategory.not_found");
+        checkAllExist(productDtos, ProductDto::getProductTypeId, this.productTypeService::getExistingIds, "error.product_type.not_found");
+
+        List<Product> products = productDtos.stream()
+                .map(productDto -> {
+                    Product product = this.productMapper.toEntity(productDto);
+                    product.setId(null); //только вставка, без merge
+                    return product;
+                })
+                .toList();
+
+        //id берутся из пула последовательности, поэтому вставки уходят JDBC-батчами при flush
+        this.productRepository.saveAll(products);
+        this.productRepository.flush();
+
+        List<ProductDto> createdProducts = this.productMapper.toDto(products);
+        Map<Integer, String> titles = new HashMap<>();
+        createdProducts.forEach(createdProduct -> {
+            this.outboxEventService.save(PRODUCT_CREATED_TOPIC, toCreatedEvent(createdProduct));
+            titles.put(createdProduct.getId(), createdProduct.getTitle());
+        });
+        this.productFacetService.onCreatedAll(createdProducts);
+        this.applicationEventPublisher.publishEvent(new ProductsChangedEvent(titles));
+
+        return createdProducts;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = "allProducts", allEntries = true)
+    public void updateAll(List<ProductDto> productDtos) {
+        log.info("updateAll {}", productDtos.size());
+
+        List<Integer> ids = productDtos.stream()
+                .map(ProductDto::getId)
+                .toList();
+        Map<Integer, Product> products = this.productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<ProductDto> before = new ArrayList<>(productDtos.size());
+        List<ProductDto> after = new ArrayList<>(productDtos.size());
+        Map<Integer, String> titles = new HashMap<>();
+        for (ProductDto productDto : productDtos) {
+            Product product = products.get(productDto.getId());
+            if (product == null) {
+                throw ExceptionUtils.notFound("error.product.not_found", productDto.getId());
+            }
+
+            before.add(this.productMapper.toDto(product));
+            applyUpdate(product, productDto);
+            after.add(this.productMapper.toDto(product));
+
+            this.outboxEventService.save(PRODUCT_UPDATED_TOPIC, toUpdatedEvent(product));
+            titles.put(product.getId(), product.getTitle());
+        }
+        this.productFacetService.onUpdatedAll(before, after);
+        this.applicationEventPublisher.publishEvent(new ProductsChangedEvent(titles));
+        //до коммита параллельное чтение вернуло бы в кэш старые версии продуктов
+        TransactionUtils.afterCommit(() -> this.cacheClear.clearProducts(ids));
+    }
+
+    @Override
+    public List<Product> getAllByTitles(Collection<String> titles) {
+        log.info("getAllByTitles {}", titles.size());
+
+        return this.productRepository.findAllByTitleIn(titles);
     }
 
     @Override
@@ -165,9 +264,41 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Transactional
+    public List<ProductDto> getAllByIds(List<Integer> ids) {
+        log.info("getAllByIds {}", ids);
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, ProductDto> cachedProducts = this.batchCache.getAll(PRODUCT_CACHE, ids);
+        Map<Integer, ProductDto> products = new HashMap<>(cachedProducts);
+
+        List<Integer> missingIds = ids.stream()
+                .filter(id -> !products.containsKey(id))
+                .distinct()
+                .toList();
+
+        if (!missingIds.isEmpty()) {
+            Map<Integer, ProductDto> loadedProducts = this.productRepository.findAllDtosByIdIn(missingIds).stream()
+                    .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+
+            this.batchCache.putAll(PRODUCT_CACHE, loadedProducts);
+            products.putAll(loadedProducts);
+        }
+
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    //без транзакции: пока файлы уходят в S3, соединение из пула не занято, а загрузкам на виртуальных
+    //потоках оно нужно для метаданных. Ссылки пишутся короткими транзакциями, вставка идемпотентна
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Caching(evict = {
-            @CacheEvict(value = "product", key = "#id"),
+            @CacheEvict(value = {"product", "productJson"}, key = "#id"),
             @CacheEvict(value = "allProducts", allEntries = true)
     })
     public void assignImages(Integer id, List<MultipartFile> images) {
@@ -176,22 +307,75 @@ public class ProductServiceImpl implements ProductService {
         Product product = this.productRepository.findById(id)
                 .orElseThrow(() -> ExceptionUtils.notFound("error.product.not_found",id));
 
-        List<ProductImageDto> imageNames = this.storageService.uploadImages(images)
-                .stream()
-                .map(imageName -> new ProductImageDto(
+        List<String> uploaded = this.storageService.uploadImages(images);
+        //копии строятся после фиксации: при откате ссылок нет, и строить их не для чего;
+        //afterCommit выполняется в потоке запроса, multipart-файлы ещё на месте
+        TransactionUtils.afterCommit(() -> {
+            for (int i = 0; i < uploaded.size(); i++) {
+                this.imageDerivativeService.submit(uploaded.get(i), images.get(i));
+            }
+        });
+        //одинаковые файлы получают один ключ: уже привязанное к продукту изображение второй раз не добавляется
+        Set<String> linked = this.productImageService.getAllByProductId(id).stream()
+                .map(ProductImageDto::getLink)
+                .collect(Collectors.toSet());
+        //параллельная загрузка тех же файлов в продукт не падает на уникальном (product_id, link)
+        uploaded.stream()
+                .filter(linked::add)
+                .forEach(imageName -> this.productImageService.createIfAbsent(new ProductImageDto(
                         null,
                         product.getId(),
                         imageName
-                ))
-                .toList();
+                )));
+    }
+
+    //ключ привязан к продукту, подтвердить загрузку можно только в тот продукт, для которого выдана ссылка
+    @Override
+    public PresignedUrlDto presignImageUpload(Integer id, ImageUploadRequest request) {
+        log.info("presignImageUpload {}", id);
+
+        if (!this.productRepository.existsById(id)) {
+            throw ExceptionUtils.notFound("error.product.not_found", id);
+        }
+        String key = imageKeyPrefix(id) + UUID.randomUUID() + "_" + UNSAFE_KEY_CHARS.matcher(request.getFileName()).replaceAll("_");
+        return this.storageService.presignUpload(key, request.getContentType(), request.getSize());
+    }
+
+    //повторное подтверждение того же ключа ничего не меняет
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = {"product", "productJson"}, key = "#id"),
+            @CacheEvict(value = "allProducts", allEntries = true)
+    })
+    public void confirmImage(Integer id, String key) {
+        log.info("confirmImage {} {}", id, key);
 
-        this.productImageService.create(imageNames);
+        Product product = this.productRepository.findById(id)
+                .orElseThrow(() -> ExceptionUtils.notFound("error.product.not_found",id));
+        if (!key.startsWith(imageKeyPrefix(id))) {
+            throw ExceptionUtils.notFound("error.product_image.not_found", key);
+        }
+        StoredObjectInfo object = this.storageService.head(key)
+                .orElseThrow(() -> ExceptionUtils.notFound("error.product_image.not_found", key));
+        //объект загружен мимо сервиса: метаданные пишутся в транзакции подтверждения, на её соединении
+        this.imageMetadataService.create(ImageMetadataDto.builder()
+                .link(key)
+                .contentType(object.contentType())
+                .size(object.contentLength())
+                .eTag(object.eTag())
+                .build());
+        //параллельное подтверждение того же ключа упирается в уникальный (product_id, link), а не дублирует строку
+        if (!this.productImageService.createIfAbsent(new ProductImageDto(null, product.getId(), key))) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> this.imageDerivativeService.submit(key));
     }
 
     @Override
     @Transactional
     @Caching(evict = {
-            @CacheEvict(value = "product", key = "#id"),
+            @CacheEvict(value = {"product", "productJson"}, key = "#id"),
             @CacheEvict(value = "allProducts", allEntries = true)
     })
     public void deleteImage(Integer id, String link) {
@@ -200,6 +384,59 @@ public class ProductServiceImpl implements ProductService {
         Product product = this.productRepository.findById(id)
                 .orElseThrow(() -> ExceptionUtils.notFound("error.product.not_found",id));
 
-        this.productImageService.delete(link);
+        this.productImageService.delete(product.getId(), link);
+        this.applicationEventPublisher.publishEvent(new ImageReleasedEvent(link));
+    }
+
+    private String imageKeyPrefix(Integer id) {
+        return "product-" + id + "_";
+    }
+
+    private void applyUpdate(Product product, ProductDto productDto) {
+        product.setTitle(productDto.getTitle());
+        product.setUnit(productDto.getUnit());
+        product.setDescription(productDto.getDescription());
+        product.setPrice(productDto.getPrice());
+        product.setInStock(productDto.getInStock());
+    }
+
+    private ProductCreatedEvent toCreatedEvent(ProductDto createdProduct) {
+        return ProductCreatedEvent.builder()
+                .id(createdProduct.getId())
+                .title(createdProduct.getTitle())
+                .description(createdProduct.getDescription())
+                .inStock(createdProduct.getInStock())
+                .price(createdProduct.getPrice())
+                .unit(createdProduct.getUnit())
+                .categoryId(createdProduct.getCategoryId())
+                .subcategoryId(createdProduct.getSubcategoryId())
+                .productTypeId(createdProduct.getProductTypeId())
+                .build();
+    }
+
+    private ProductUpdatedEvent toUpdatedEvent(Product product) {
+        return ProductUpdatedEvent.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .description(product.getDescription())
+                .inStock(product.getInStock())
+                .price(product.getPrice())
+                .unit(product.getUnit())
+                .build();
+    }
+
+    private void checkAllExist(List<ProductDto> productDtos, Function<ProductDto, Integer> idGetter,
+                               Function<Collection<Integer>, Set<Integer>> existingIds, String errorKey) {
+        Set<Integer> ids = productDtos.stream()
+                .map(idGetter)
+                .collect(Collectors.toSet());
+        Set<Integer> found = existingIds.apply(ids);
+
+        ids.stream()
+                .filter(id -> !found.contains(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw ExceptionUtils.notFound(errorKey, id);
+                });
     }
-}
\ No newline at end of file
+}
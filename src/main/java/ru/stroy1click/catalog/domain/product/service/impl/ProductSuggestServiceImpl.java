@@ -0,0 +1,139 @@
+package ru.stroy1click.catalog.domain.product.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.category.event.CategoryTreeChangedEvent;
+import ru.stroy1click.catalog.domain.category.repository.CategoryRepository;
+import ru.stroy1click.catalog.domain.common.suggest.PrefixIndex;
+import ru.stroy1click.catalog.domain.product.dto.ProductTitle;
+import ru.stroy1click.catalog.domain.product.dto.SuggestionDto;
+import ru.stroy1click.catalog.domain.product.dto.SuggestionType;
+import ru.stroy1click.catalog.domain.product.event.ProductChangedEvent;
+import ru.stroy1click.catalog.domain.product.event.ProductsChangedEvent;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.ProductSuggestService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestServiceImpl implements ProductSuggestService {
+
+    private final ProductRepository productRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile PrefixIndex productIndex = new PrefixIndex();
+
+    private volatile PrefixIndex categoryIndex = new PrefixIndex();
+
+    private final Object rebuildLock = new Object();
+
+    private final Object changeLock = new Object();
+
+    //изменения, пришедшие во время перестройки; null, когда перестройка не идёт
+    private List<Consumer<PrefixIndex>> pendingChanges;
+
+    @Override
+    public List<SuggestionDto> suggest(String query, int limit) {
+        List<SuggestionDto> suggestions = new ArrayList<>(limit);
+
+        //категорий немного, они идут первыми
+        this.categoryIndex.search(query, limit).forEach(match ->
+                suggestions.add(new SuggestionDto(SuggestionType.CATEGORY, match.id(), match.title())));
+        this.productIndex.search(query, limit - suggestions.size()).forEach(match ->
+                suggestions.add(new SuggestionDto(SuggestionType.PRODUCT, match.id(), match.title())));
+
+        return suggestions;
+    }
+
+    //названия читаются из базы без блокировки изменений: onProductChanged применяет их к текущему индексу
+    //и запоминает, а после сборки они повторяются на новом индексе перед подменой
+    @Override
+    public void rebuild() {
+        log.info("rebuild");
+
+        synchronized (this.rebuildLock) {
+            synchronized (this.changeLock) {
+                this.pendingChanges = new ArrayList<>();
+            }
+            try {
+                PrefixIndex rebuilt = PrefixIndex.of(this.productRepository.findAllTitles().stream()
+                        .collect(Collectors.toMap(ProductTitle::id, ProductTitle::title)));
+                synchronized (this.changeLock) {
+                    this.pendingChanges.forEach(change -> change.accept(rebuilt));
+                    this.productIndex = rebuilt;
+                }
+            } finally {
+                synchronized (this.changeLock) {
+                    this.pendingChanges = null;
+                }
+            }
+
+            rebuildCategories();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    //изменения продуктов на других узлах подтягиваются полной перестройкой
+    @Scheduled(initialDelay = 10, fixedDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        log.info("onProductChanged {}", event);
+
+        applyChange(index -> {
+            if (event.deleted()) {
+                index.remove(event.id());
+            } else {
+                index.put(event.id(), event.title());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        log.info("onProductsChanged {}", event.titles().size());
+
+        applyChange(index -> index.putAll(event.titles()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryTreeChanged(CategoryTreeChangedEvent event) {
+        synchronized (this.rebuildLock) {
+            rebuildCategories();
+        }
+    }
+
+    private void applyChange(Consumer<PrefixIndex> change) {
+        synchronized (this.changeLock) {
+            change.accept(this.productIndex);
+            if (this.pendingChanges != null) {
+                this.pendingChanges.add(change);
+            }
+        }
+    }
+
+    private void rebuildCategories() {
+        this.categoryIndex = PrefixIndex.of(this.categoryRepository.findAllDtos().stream()
+                .collect(Collectors.toMap(CategoryDto::getId, CategoryDto::getTitle)));
+    }
+}
@@ -3,5 +3,9 @@ package ru.stroy1click.catalog.domain.product.validator;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
 import ru.stroy1click.common.validator.UpdateValidator;
 
+import java.util.List;
+
 public interface ProductUpdateValidator extends UpdateValidator<ProductDto> {
+
+    void validate(List<ProductDto> productDtos);
 }
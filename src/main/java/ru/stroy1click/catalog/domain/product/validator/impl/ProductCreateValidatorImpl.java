@@ -8,6 +8,10 @@ import ru.stroy1click.catalog.domain.product.service.ProductService;
 import ru.stroy1click.catalog.domain.product.validator.ProductCreateValidator;
 import ru.stroy1click.common.util.ExceptionUtils;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -22,4 +26,20 @@ public class ProductCreateValidatorImpl implements ProductCreateValidator {
             throw ExceptionUtils.alreadyExists("error.product.create.validate", null);
         }
     }
+
+    //названия проверяются одним запросом и на повторы внутри пакета
+    @Override
+    public void validate(List<ProductDto> productDtos) {
+        log.info("validate {} products", productDtos.size());
+        Set<String> titles = new HashSet<>();
+        for (ProductDto productDto : productDtos) {
+            if (!titles.add(productDto.getTitle())) {
+                throw ExceptionUtils.alreadyExists("error.product.create.validate", null);
+            }
+        }
+
+        if (!this.productService.getAllByTitles(titles).isEmpty()) {
+            throw ExceptionUtils.alreadyExists("error.product.create.validate", null);
+        }
+    }
 }
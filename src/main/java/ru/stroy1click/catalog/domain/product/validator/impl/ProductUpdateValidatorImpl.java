@@ -9,6 +9,9 @@ import ru.stroy1click.catalog.domain.product.service.ProductService;
 import ru.stroy1click.catalog.domain.product.validator.ProductUpdateValidator;
 import ru.stroy1click.common.util.ExceptionUtils;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -29,4 +32,23 @@ public class ProductUpdateValidatorImpl implements ProductUpdateValidator {
             throw ExceptionUtils.alreadyExists("error.product.update.validate", null);
         }
     }
+
+    @Override
+    public void validate(List<ProductDto> productDtos) {
+        log.info("validate {} products", productDtos.size());
+        Map<String, Integer> idsByTitle = new HashMap<>();
+        for (ProductDto productDto : productDtos) {
+            Integer previousId = idsByTitle.putIfAbsent(productDto.getTitle(), productDto.getId());
+            if (previousId != null && !previousId.equals(productDto.getId())) {
+                throw ExceptionUtils.alreadyExists("error.product.update.validate", null);
+            }
+        }
+
+        for (Product foundProduct : this.productService.getAllByTitles(productDtos.stream().map(ProductDto::getTitle).toList())) {
+            Integer id = idsByTitle.get(foundProduct.getTitle());
+            if (id != null && !id.equals(foundProduct.getId())) {
+                throw ExceptionUtils.alreadyExists("error.product.update.validate", null);
+            }
+        }
+    }
 }
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.stroy1click.catalog.domain.category.entity.CategoryTreeListener;
 import ru.stroy1click.catalog.domain.product.entity.Product;
 import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
 
@@ -13,6 +14,7 @@ import java.util.List;
 @Data
 @Table(schema = "catalog", name = "product_types")
 @Entity
+@EntityListeners(CategoryTreeListener.class)
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -26,6 +28,9 @@ public class ProductType {
 
     private String image;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "subcategory_id", referencedColumnName = "id")
     private Subcategory subcategory;
@@ -1,34 +1,42 @@
 package ru.stroy1click.catalog.domain.producttype.mapper;
 
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
 import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
+import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
 import ru.stroy1click.common.mapper.Mappable;
 
 import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class ProductTypeMapper implements Mappable<ProductType, ProductTypeDto>{
 
-    private final ModelMapper modelMapper;
-
     @Override
     public ProductType toEntity(ProductTypeDto productTypeDto) {
-        return this.modelMapper.map(productTypeDto, ProductType.class);
+        return ProductType.builder()
+                .id(productTypeDto.getId())
+                .title(productTypeDto.getTitle())
+                .image(productTypeDto.getImage())
+                .subcategory(productTypeDto.getSubcategoryId() == null
+                        ? null : Subcategory.builder().id(productTypeDto.getSubcategoryId()).build())
+                .build();
     }
 
     @Override
     public ProductTypeDto toDto(ProductType productType) {
-        return this.modelMapper.map(productType, ProductTypeDto.class);
+        return ProductTypeDto.builder()
+                .id(productType.getId())
+                .title(productType.getTitle())
+                .image(productType.getImage())
+                .subcategoryId(productType.getSubcategory() == null ? null : productType.getSubcategory().getId())
+                .version(productType.getVersion())
+                .build();
     }
 
     @Override
     public List<ProductTypeDto> toDto(List<ProductType> e) {
         return e.stream()
-                .map(productType -> this.modelMapper.map(productType, ProductTypeDto.class))
+                .map(this::toDto)
                 .toList();
     }
 }
@@ -1,13 +1,25 @@
 package ru.stroy1click.catalog.domain.producttype.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
 import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductTypeRepository extends JpaRepository<ProductType, Integer>{
 
     Optional<ProductType> findByTitle(String title);
+
+    @Query("select pt.id from ProductType pt where pt.id in :ids")
+    List<Integer> findIdsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select new ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto(pt.id, pt.subcategory.id, pt.image, pt.title, pt.version) " +
+            "from ProductType pt order by pt.id")
+    List<ProductTypeDto> findAllDtos();
 }
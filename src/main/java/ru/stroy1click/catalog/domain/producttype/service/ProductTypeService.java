@@ -7,12 +7,16 @@ import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
 import ru.stroy1click.catalog.domain.common.service.CrudOperations;
 import ru.stroy1click.catalog.domain.common.service.ImageAssignmentService;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 public interface ProductTypeService extends CrudOperations<Integer, ProductTypeDto>, ImageAssignmentService<Integer> {
 
     Optional<ProductType> getByTitle(String title);
 
+    Set<Integer> getExistingIds(Collection<Integer> ids);
+
     void assignImage(Integer id, MultipartFile image);
 
     void deleteImage(Integer id, String link);
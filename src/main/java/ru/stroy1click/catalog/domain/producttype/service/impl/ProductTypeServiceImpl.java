@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -14,16 +15,22 @@ import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
 import ru.stroy1click.catalog.domain.producttype.mapper.ProductTypeMapper;
 import ru.stroy1click.catalog.domain.producttype.repository.ProductTypeRepository;
 import ru.stroy1click.catalog.domain.producttype.service.ProductTypeService;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
 import ru.stroy1click.catalog.domain.subcategory.service.SubcategoryService;
+import ru.stroy1click.catalog.domain.common.util.TransactionUtils;
 import ru.stroy1click.common.event.ProductTypeCreatedEvent;
 import ru.stroy1click.common.event.ProductTypeDeletedEvent;
 import ru.stroy1click.common.event.ProductTypeUpdatedEvent;
 import ru.stroy1click.common.util.ExceptionUtils;
 import ru.stroy1click.outbox.service.OutboxEventService;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -39,6 +46,10 @@ public class ProductTypeServiceImpl implements ProductTypeService {
 
     private final StorageService storageService;
 
+    private final ImageDerivativeService imageDerivativeService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     private final SubcategoryService subcategoryService;
 
     private final OutboxEventService outboxEventService;
@@ -50,7 +61,7 @@ public class ProductTypeServiceImpl implements ProductTypeService {
     private final static String PRODUCT_TYPE_DELETED_TOPIC = "product-type-deleted-events";
 
     @Override
-    @Cacheable(value = "productType", key = "#id")
+    @Cacheable(value = "productType", key = "#id", sync = true)
     public ProductTypeDto get(Integer id) {
         log.info("get {}", id);
 
@@ -61,7 +72,7 @@ public class ProductTypeServiceImpl implements ProductTypeService {
     }
 
     @Override
-    @Cacheable(value = "allProductTypes")
+    @Cacheable(value = "allProductTypes", sync = true)
     public List<ProductTypeDto> getAll() {
         log.info("getAll");
 
@@ -146,6 +157,13 @@ public class ProductTypeServiceImpl implements ProductTypeService {
         return this.productTypeRepository.findByTitle(title);
     }
 
+    @Override
+    public Set<Integer> getExistingIds(Collection<Integer> ids) {
+        log.info("getExistingIds {}", ids.size());
+
+        return new HashSet<>(this.productTypeRepository.findIdsByIdIn(ids));
+    }
+
     @Override
     @Transactional
     @Caching(evict = {
@@ -159,6 +177,8 @@ public class ProductTypeServiceImpl implements ProductTypeService {
                 .orElseThrow(() -> ExceptionUtils.notFound("error.product_type.not_found",id));
 
         String imageName = this.storageService.uploadImage(image);
+        //копии строятся после фиксации, multipart-файл ещё на месте: afterCommit выполняется в потоке запроса
+        TransactionUtils.afterCommit(() -> this.imageDerivativeService.submit(imageName, image));
         productType.setImage(imageName);
 
         this.cacheClear.clearProductTypesOfSubcategory(productType.getSubcategory().getId());
@@ -176,8 +196,8 @@ public class ProductTypeServiceImpl implements ProductTypeService {
         ProductType productType = this.productTypeRepository.findById(id)
                 .orElseThrow(() -> ExceptionUtils.notFound("error.product_type.not_found",id));
 
-        this.storageService.deleteImage(imageName);
         productType.setImage(null);
+        this.applicationEventPublisher.publishEvent(new ImageReleasedEvent(imageName));
 
         this.cacheClear.clearProductTypesOfSubcategory(productType.getSubcategory().getId());
     }
@@ -8,6 +8,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.Length;
+import ru.stroy1click.catalog.domain.common.dto.Versioned;
 
 import java.io.Serializable;
 
@@ -15,7 +16,7 @@ import java.io.Serializable;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class SubcategoryDto implements Serializable {
+public class SubcategoryDto implements Serializable, Versioned {
 
     private final static Long SerialVersionUID= 1L;
 
@@ -30,4 +31,6 @@ public class SubcategoryDto implements Serializable {
     @NotBlank(message = "{validation.subcategorydto.title.not_blank}")
     @Length(min = 2, max = 40, message = "{validation.subcategorydto.title.length}")
     private String title;
+
+    private Long version;
 }
@@ -0,0 +1,24 @@
+package ru.stroy1click.catalog.domain.subcategory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubcategoryTreeDto {
+
+    private Integer id;
+
+    private String title;
+
+    private String image;
+
+    private List<ProductTypeDto> productTypes;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.stroy1click.catalog.domain.category.entity.CategoryTreeListener;
 import ru.stroy1click.catalog.domain.category.entity.Category;
 import ru.stroy1click.catalog.domain.product.entity.Product;
 import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
@@ -14,6 +15,7 @@ import java.util.List;
 @Data
 @Table(schema = "catalog", name = "subcategories")
 @Entity
+@EntityListeners(CategoryTreeListener.class)
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -27,6 +29,9 @@ public class Subcategory {
 
     private String image;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", referencedColumnName = "id")
     private Category category;
@@ -1,8 +1,7 @@
 package ru.stroy1click.catalog.domain.subcategory.mapper;
 
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.category.entity.Category;
 import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
 import ru.stroy1click.common.mapper.Mappable;
@@ -10,25 +9,34 @@ import ru.stroy1click.common.mapper.Mappable;
 import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class SubcategoryMapper implements Mappable<Subcategory, SubcategoryDto>{
 
-    private final ModelMapper modelMapper;
-
     @Override
     public Subcategory toEntity(SubcategoryDto subcategoryDto) {
-        return this.modelMapper.map(subcategoryDto, Subcategory.class);
+        return Subcategory.builder()
+                .id(subcategoryDto.getId())
+                .title(subcategoryDto.getTitle())
+                .image(subcategoryDto.getImage())
+                .category(subcategoryDto.getCategoryId() == null
+                        ? null : Category.builder().id(subcategoryDto.getCategoryId()).build())
+                .build();
     }
 
     @Override
     public SubcategoryDto toDto(Subcategory subcategory) {
-        return this.modelMapper.map(subcategory, SubcategoryDto.class);
+        return SubcategoryDto.builder()
+                .id(subcategory.getId())
+                .title(subcategory.getTitle())
+                .image(subcategory.getImage())
+                .categoryId(subcategory.getCategory() == null ? null : subcategory.getCategory().getId())
+                .version(subcategory.getVersion())
+                .build();
     }
 
     @Override
     public List<SubcategoryDto> toDto(List<Subcategory> e) {
         return e.stream()
-                .map(subcategory -> this.modelMapper.map(subcategory, SubcategoryDto.class))
+                .map(this::toDto)
                 .toList();
     }
 }
@@ -1,13 +1,30 @@
 package ru.stroy1click.catalog.domain.subcategory.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
+import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SubcategoryRepository extends JpaRepository<Subcategory, Integer>{
 
     Optional<Subcategory> findByTitle(String title);
+
+    @Query("select s.id from Subcategory s where s.id in :ids")
+    List<Integer> findIdsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select new ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto(s.id, s.category.id, s.image, s.title, s.version) " +
+            "from Subcategory s order by s.id")
+    List<SubcategoryDto> findAllDtos();
+
+    @Query("select new ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto(pt.id, pt.subcategory.id, pt.image, pt.title, pt.version) " +
+            "from ProductType pt where pt.subcategory.id = :subcategoryId")
+    List<ProductTypeDto> findProductTypeDtosBySubcategoryId(@Param("subcategoryId") Integer subcategoryId);
 }
@@ -8,12 +8,16 @@ import ru.stroy1click.catalog.domain.common.service.CrudOperations;
 import ru.stroy1click.catalog.domain.common.service.ImageAssignmentService;
 
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 public interface SubcategoryService extends CrudOperations<Integer, SubcategoryDto>, ImageAssignmentService<Integer> {
 
     Optional<Subcategory> getByTitle(String title);
 
+    Set<Integer> getExistingIds(Collection<Integer> ids);
+
     List<ProductTypeDto> getProductTypes(Integer id);
 
     void assignImage(Integer id, MultipartFile image);
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,20 +13,25 @@ import ru.stroy1click.catalog.domain.common.cache.CacheClear;
 import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
 import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
-import ru.stroy1click.catalog.domain.producttype.mapper.ProductTypeMapper;
 import ru.stroy1click.catalog.domain.subcategory.mapper.SubcategoryMapper;
 import ru.stroy1click.catalog.domain.subcategory.repository.SubcategoryRepository;
 import ru.stroy1click.catalog.domain.category.service.CategoryService;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
 import ru.stroy1click.catalog.domain.subcategory.service.SubcategoryService;
+import ru.stroy1click.catalog.domain.common.util.TransactionUtils;
 import ru.stroy1click.common.event.SubcategoryCreatedEvent;
 import ru.stroy1click.common.event.SubcategoryDeletedEvent;
 import ru.stroy1click.common.event.SubcategoryUpdatedEvent;
 import ru.stroy1click.common.util.ExceptionUtils;
 import ru.stroy1click.outbox.service.OutboxEventService;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -37,12 +43,14 @@ public class SubcategoryServiceImpl implements SubcategoryService {
 
     private final SubcategoryMapper subcategoryMapper;
 
-    private final ProductTypeMapper productTypeMapper;
-
     private final CacheClear cacheClear;
 
     private final StorageService storageService;
 
+    private final ImageDerivativeService imageDerivativeService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     private final CategoryService categoryService;
 
     private final OutboxEventService outboxEventService;
@@ -54,7 +62,7 @@ public class SubcategoryServiceImpl implements SubcategoryService {
     private final static String SUBCATEGORY_DELETED_TOPIC = "subcategory-deleted-events";
 
     @Override
-    @Cacheable(value = "subcategory", key = "#id")
+    @Cacheable(value = "subcategory", key = "#id", sync = true)
     public SubcategoryDto get(Integer id) {
         log.info("get {}", id);
 
@@ -65,7 +73,7 @@ public class SubcategoryServiceImpl implements SubcategoryService {
     }
 
     @Override
-    @Cacheable(value = "allSubcategories")
+    @Cacheable(value = "allSubcategories", sync = true)
     public List<SubcategoryDto> getAll() {
         log.info("getAll");
 
@@ -154,14 +162,22 @@ public class SubcategoryServiceImpl implements SubcategoryService {
     }
 
     @Override
-    @Cacheable(value = "productTypesOfSubcategory", key = "#id")
+    public Set<Integer> getExistingIds(Collection<Integer> ids) {
+        log.info("getExistingIds {}", ids.size());
+
+        return new HashSet<>(this.subcategoryRepository.findIdsByIdIn(ids));
+    }
+
+    @Override
+    @Cacheable(value = "productTypesOfSubcategory", key = "#id", sync = true)
     public List<ProductTypeDto> getProductTypes(Integer id) {
         log.info("getProductTypes {}", id);
 
-        Subcategory subcategory = this.subcategoryRepository.findById(id)
-                .orElseThrow(() -> ExceptionUtils.notFound("error.subcategory.not_found",id));
+        if (!this.subcategoryRepository.existsById(id)) {
+            throw ExceptionUtils.notFound("error.subcategory.not_found", id);
+        }
 
-        return this.productTypeMapper.toDto(subcategory.getProductTypes());
+        return this.subcategoryRepository.findProductTypeDtosBySubcategoryId(id);
     }
 
     @Override
@@ -178,6 +194,8 @@ public class SubcategoryServiceImpl implements SubcategoryService {
                 .orElseThrow(() -> ExceptionUtils.notFound("error.subcategory.not_found",id));
 
         String imageName = this.storageService.uploadImage(image);
+        //копии строятся после фиксации, multipart-файл ещё на месте: afterCommit выполняется в потоке запроса
+        TransactionUtils.afterCommit(() -> this.imageDerivativeService.submit(imageName, image));
         subcategory.setImage(imageName);
 
         this.cacheClear.clearSubcategoriesOfCategory(subcategory.getCategory().getId());
@@ -196,8 +214,8 @@ public class SubcategoryServiceImpl implements SubcategoryService {
         Subcategory subcategory = this.subcategoryRepository.findById(id)
                 .orElseThrow(() -> ExceptionUtils.notFound("error.subcategory.not_found",id));
 
-        this.storageService.deleteImage(imageName);
         subcategory.setImage(null);
+        this.applicationEventPublisher.publishEvent(new ImageReleasedEvent(imageName));
 
         this.cacheClear.clearSubcategoriesOfCategory(subcategory.getCategory().getId());
     }
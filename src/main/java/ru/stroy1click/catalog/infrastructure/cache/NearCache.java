@@ -0,0 +1,245 @@
+package ru.stroy1click.catalog.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+//Локальный ограниченный кэш перед Redis. Запись и удаление идут в Redis,
+//остальные узлы сбрасывают свою локальную копию по сообщению из pub/sub
+public class NearCache implements Cache {
+
+    private final Cache delegate;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local;
+
+    //(cacheName, key) -> публикация инвалидации, key == null - очистка всего кэша
+    private final BiConsumer<String, Object> invalidationPublisher;
+
+    //растёт при каждой инвалидации: значение, прочитанное из Redis до неё, в локальный кэш не кладём
+    private final AtomicLong generation = new AtomicLong();
+
+    //загрузки, идущие на этом узле: остальные потоки с тем же ключом ждут их результат, а не идут в Redis и базу
+    private final Map<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    //true - промах загружается под блокировкой ключа в Redisson (RedissonCache.get(key, loader)),
+    //и базу по ключу читает один узел; false - каждый узел загружает сам, без обращений к блокировке
+    private final boolean distributedLoad;
+
+    public NearCache(Cache delegate, long maximumSize, Duration ttl, BiConsumer<String, Object> invalidationPublisher) {
+        this(delegate, maximumSize, ttl, invalidationPublisher, true);
+    }
+
+    public NearCache(Cache delegate, long maximumSize, Duration ttl, BiConsumer<String, Object> invalidationPublisher,
+                     boolean distributedLoad) {
+        this.delegate = delegate;
+        this.invalidationPublisher = invalidationPublisher;
+        this.distributedLoad = distributedLoad;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return this.delegate.getName();
+    }
+
+    //RMap Redisson, им пользуется RedissonBatchCache
+    @Override
+    public Object getNativeCache() {
+        return this.delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = this.local.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long readGeneration = this.generation.get();
+        ValueWrapper remote = this.delegate.get(key);
+        if (remote != null) {
+            putLocal(key, remote, readGeneration);
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    //@Cacheable(sync = true): один загрузчик на ключ в пределах узла
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = this.local.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = this.loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return (T) await(inFlight);
+        }
+        try {
+            T value = load(key, valueLoader);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.loading.remove(key, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        this.generation.incrementAndGet();
+        this.delegate.put(key, value);
+        this.local.put(key, new SimpleValueWrapper(value));
+        this.invalidationPublisher.accept(getName(), key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        this.generation.incrementAndGet();
+        ValueWrapper existing = this.delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            this.local.put(key, new SimpleValueWrapper(value));
+            this.invalidationPublisher.accept(getName(), key);
+        } else {
+            this.local.put(key, existing);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        this.delegate.evict(key);
+        evictLocal(key);
+        this.invalidationPublisher.accept(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = this.delegate.evictIfPresent(key);
+        evictLocal(key);
+        this.invalidationPublisher.accept(getName(), key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        this.delegate.clear();
+        clearLocal();
+        this.invalidationPublisher.accept(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = this.delegate.invalidate();
+        clearLocal();
+        this.invalidationPublisher.accept(getName(), null);
+        return invalidated;
+    }
+
+    public void evictLocal(Object key) {
+        this.generation.incrementAndGet();
+        this.local.invalidate(key);
+    }
+
+    public void clearLocal() {
+        this.generation.incrementAndGet();
+        this.local.invalidateAll();
+    }
+
+    public long generation() {
+        return this.generation.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAllLocal(Collection<K> keys) {
+        Map<K, V> result = new HashMap<>();
+        this.local.getAllPresent(keys).forEach((key, wrapper) -> {
+            if (wrapper.get() != null) {
+                result.put((K) key, (V) wrapper.get());
+            }
+        });
+        return result;
+    }
+
+    public void putAllLocal(Map<?, ?> entries, long readGeneration) {
+        entries.forEach((key, value) -> putLocal(key, new SimpleValueWrapper(value), readGeneration));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        long readGeneration = this.generation.get();
+        T value;
+        if (this.distributedLoad) {
+            value = this.delegate.get(key, valueLoader);
+        } else {
+            ValueWrapper remote = this.delegate.get(key);
+            if (remote != null) {
+                value = (T) remote.get();
+            } else {
+                try {
+                    value = valueLoader.call();
+                } catch (Exception e) {
+                    throw new ValueRetrievalException(key, valueLoader, e);
+                }
+                this.delegate.put(key, value);
+            }
+        }
+        putLocal(key, new SimpleValueWrapper(value), readGeneration);
+        return value;
+    }
+
+    private static Object await(CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            //исключение загрузчика как есть: ValueRetrievalException или ошибка самого кэша
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void putLocal(Object key, ValueWrapper wrapper, long readGeneration) {
+        if (this.generation.get() == readGeneration) {
+            this.local.put(key, wrapper);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.stroy1click.catalog.infrastructure.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearCacheInvalidation implements Serializable {
+
+    private final static Long SerialVersionUID= 1L;
+
+    private String nodeId;
+
+    private String cacheName;
+
+    //null - очистить кэш целиком
+    private Object key;
+}
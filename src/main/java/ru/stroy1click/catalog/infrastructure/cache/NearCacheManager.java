@@ -0,0 +1,117 @@
+package ru.stroy1click.catalog.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.listener.BaseStatusListener;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+public class NearCacheManager implements CacheManager, InitializingBean, DisposableBean {
+
+    private final CacheManager delegate;
+
+    private final RTopic invalidationTopic;
+
+    //кэши без лимита работают только через Redis
+    private final Map<String, Long> maximumSizes;
+
+    private final Duration ttl;
+
+    private final boolean distributedLoad;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    private int messageListenerId;
+
+    private int statusListenerId;
+
+    public NearCacheManager(CacheManager delegate, RTopic invalidationTopic, Map<String, Long> maximumSizes, Duration ttl,
+                            boolean distributedLoad) {
+        this.delegate = delegate;
+        this.invalidationTopic = invalidationTopic;
+        this.maximumSizes = Map.copyOf(maximumSizes);
+        this.ttl = ttl;
+        this.distributedLoad = distributedLoad;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return this.caches.computeIfAbsent(name, cacheName -> {
+            Cache cache = this.delegate.getCache(cacheName);
+            Long maximumSize = this.maximumSizes.get(cacheName);
+            if (cache == null || maximumSize == null) {
+                return cache;
+            }
+            //имя кэша в Redis может отличаться (VersionedCacheManager), узлы сверяют инвалидации по имени из Spring
+            return new NearCache(cache, maximumSize, this.ttl,
+                    (redisName, key) -> publishInvalidation(cacheName, key), this.distributedLoad);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return this.delegate.getCacheNames();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.messageListenerId = this.invalidationTopic.addListener(NearCacheInvalidation.class,
+                (channel, invalidation) -> onInvalidation(invalidation));
+
+        //пока подписки не было, сообщения могли потеряться - локальные копии сбрасываем
+        this.statusListenerId = this.invalidationTopic.addListener(new BaseStatusListener() {
+            @Override
+            public void onSubscribe(String channel) {
+                log.info("near cache subscribed to {}, clearing local caches", channel);
+                clearLocal();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        this.invalidationTopic.removeListener(this.messageListenerId, this.statusListenerId);
+    }
+
+    private void onInvalidation(NearCacheInvalidation invalidation) {
+        if (this.nodeId.equals(invalidation.getNodeId())) {
+            return;
+        }
+
+        if (this.caches.get(invalidation.getCacheName()) instanceof NearCache nearCache) {
+            if (invalidation.getKey() == null) {
+                nearCache.clearLocal();
+            } else {
+                nearCache.evictLocal(invalidation.getKey());
+            }
+        }
+    }
+
+    private void publishInvalidation(String cacheName, Object key) {
+        this.invalidationTopic.publishAsync(new NearCacheInvalidation(this.nodeId, cacheName, key))
+                .whenComplete((receivers, e) -> {
+                    if (e != null) {
+                        log.error("publishInvalidation failed {}, {}", cacheName, key, e);
+                    }
+                });
+    }
+
+    private void clearLocal() {
+        this.caches.values().forEach(cache -> {
+            if (cache instanceof NearCache nearCache) {
+                nearCache.clearLocal();
+            }
+        });
+    }
+}
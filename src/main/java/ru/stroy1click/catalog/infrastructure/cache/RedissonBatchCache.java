@@ -0,0 +1,91 @@
+package ru.stroy1click.catalog.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMap;
+import org.redisson.api.RMapCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.common.cache.BatchCache;
+import ru.stroy1click.catalog.infrastructure.config.RedissonConfig;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedissonBatchCache implements BatchCache {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public <K, V> Map<K, V> getAll(String cacheName, Collection<K> keys) {
+        Cache cache = this.cacheManager.getCache(cacheName);
+        if (cache == null || keys.isEmpty()) {
+            return Map.of();
+        }
+
+        if (!(cache instanceof NearCache nearCache)) {
+            return getAllRemote(cache, keys);
+        }
+
+        Map<K, V> result = new HashMap<>(nearCache.getAllLocal(keys));
+        List<K> missingKeys = keys.stream()
+                .filter(key -> !result.containsKey(key))
+                .toList();
+
+        if (!missingKeys.isEmpty()) {
+            long readGeneration = nearCache.generation();
+            Map<K, V> remote = getAllRemote(cache, missingKeys);
+            nearCache.putAllLocal(remote, readGeneration);
+            result.putAll(remote);
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> void putAll(String cacheName, Map<K, V> entries) {
+        Cache cache = this.cacheManager.getCache(cacheName);
+        if (cache == null || entries.isEmpty()) {
+            return;
+        }
+
+        if (cache.getNativeCache() instanceof RMapCache<?, ?> mapCache) {
+            ((RMapCache<K, V>) mapCache).putAll(entries, RedissonConfig.CACHE_TTL_MILLIS, TimeUnit.MILLISECONDS);
+        } else if (cache.getNativeCache() instanceof RMap<?, ?> map) {
+            ((RMap<K, V>) map).putAll(entries);
+        } else {
+            entries.forEach(cache::put);
+            return;
+        }
+
+        //ключей не было в Redis, значит и в локальных кэшах других узлов, рассылать инвалидацию не нужно
+        if (cache instanceof NearCache nearCache) {
+            nearCache.putAllLocal(entries, nearCache.generation());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> Map<K, V> getAllRemote(Cache cache, Collection<K> keys) {
+        if (cache.getNativeCache() instanceof RMap<?, ?> map) {
+            return ((RMap<K, V>) map).getAll(new HashSet<>(keys));
+        }
+
+        log.warn("getAll: cache {} is not backed by Redisson, falling back to per-key reads", cache.getName());
+        Map<K, V> result = new HashMap<>();
+        for (K key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                result.put(key, (V) wrapper.get());
+            }
+        }
+        return result;
+    }
+}
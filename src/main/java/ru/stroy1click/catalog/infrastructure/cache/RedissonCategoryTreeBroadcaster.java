@@ -0,0 +1,57 @@
+package ru.stroy1click.catalog.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.category.event.CategoryTreeChangedEvent;
+import ru.stroy1click.catalog.domain.category.service.CategoryTreeBroadcaster;
+
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedissonCategoryTreeBroadcaster implements CategoryTreeBroadcaster, InitializingBean, DisposableBean {
+
+    private final RedissonClient redissonClient;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private RTopic topic;
+
+    private int listenerId;
+
+    private final static String CATEGORY_TREE_TOPIC = "catalog:category-tree-changed";
+
+    @Override
+    public void afterPropertiesSet() {
+        this.topic = this.redissonClient.getTopic(CATEGORY_TREE_TOPIC);
+        this.listenerId = this.topic.addListener(String.class, (channel, senderId) -> {
+            if (!this.nodeId.equals(senderId)) {
+                this.applicationEventPublisher.publishEvent(new CategoryTreeChangedEvent(true));
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        this.topic.removeListener(this.listenerId);
+    }
+
+    @Override
+    public void broadcastChanged() {
+        this.topic.publishAsync(this.nodeId)
+                .whenComplete((receivers, e) -> {
+                    if (e != null) {
+                        log.error("broadcastChanged failed", e);
+                    }
+                });
+    }
+}
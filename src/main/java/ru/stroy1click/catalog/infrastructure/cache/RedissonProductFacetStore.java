@@ -0,0 +1,152 @@
+package ru.stroy1click.catalog.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RLock;
+import org.redisson.api.RMapAsync;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//Каждая область - hash в Redis, изменения применяются одним Lua-скриптом: проверка флага пересборки и обе записи
+//атомарны, поэтому пересборка, начатая между проверкой и записью, не теряет изменение.
+//Пересборка копит счётчики во временных ключах: пока она идёт, изменения пишутся и в рабочий, и во временный ключ,
+//поэтому RENAME не теряет изменений, зафиксированных во время чтения базы. Изменение, зафиксированное до начала
+//чтения и применённое уже после, учитывается дважды - окно в пределах afterCommit, его исправит следующая пересборка
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedissonProductFacetStore implements ProductFacetStore {
+
+    private final RedissonClient redissonClient;
+
+    private final static String KEY_PREFIX = "catalog:facets:";
+
+    private final static String REBUILD_PREFIX = "catalog:facets-rebuild:";
+
+    private final static String REBUILDING_KEY = "catalog:facets-rebuilding";
+
+    private final static String REBUILD_LOCK = "catalog:facets-rebuild-lock";
+
+    //если узел упал посреди пересборки, двойная запись прекращается сама
+    private final static Duration REBUILDING_TTL = Duration.ofHours(6);
+
+    private final static String INITIALIZED_KEY = "catalog:facets-initialized";
+
+    private final static Codec CODEC = new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE);
+
+    //KEYS[1] - флаг пересборки, далее пары (рабочий ключ, временный ключ) по каждой области;
+    //ARGV - по каждой области число полей, затем пары (поле, приращение)
+    private final static String INCREMENT_SCRIPT = """
+            local rebuilding = redis.call('exists', KEYS[1]) == 1
+            local arg = 1
+            for key = 2, #KEYS, 2 do
+                local fields = tonumber(ARGV[arg])
+                arg = arg + 1
+                for field = 1, fields do
+                    redis.call('hincrby', KEYS[key], ARGV[arg], ARGV[arg + 1])
+                    if rebuilding then
+                        redis.call('hincrby', KEYS[key + 1], ARGV[arg], ARGV[arg + 1])
+                    end
+                    arg = arg + 2
+                end
+            end
+            return 1
+            """;
+
+    @Override
+    public Map<String, Long> get(String scope) {
+        return this.redissonClient.<String, Long>getMap(KEY_PREFIX + scope, CODEC).readAllMap();
+    }
+
+    @Override
+    public void increment(Map<String, Map<String, Long>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object> keys = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        keys.add(REBUILDING_KEY);
+        deltas.forEach((scope, fields) -> {
+            keys.add(KEY_PREFIX + scope);
+            keys.add(REBUILD_PREFIX + scope);
+            args.add(String.valueOf(fields.size()));
+            fields.forEach((field, delta) -> {
+                args.add(field);
+                args.add(String.valueOf(delta));
+            });
+        });
+        this.redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE, INCREMENT_SCRIPT, RScript.ReturnType.INTEGER, keys, args.toArray());
+    }
+
+    @Override
+    public boolean beginRebuild() {
+        RLock lock = this.redissonClient.getLock(REBUILD_LOCK);
+        if (!lock.tryLock()) {
+            return false;
+        }
+        //временные ключи прошлой, прерванной пересборки
+        this.redissonClient.getKeys().deleteByPattern(REBUILD_PREFIX + "*");
+        this.redissonClient.getBucket(REBUILDING_KEY, StringCodec.INSTANCE).set("true", REBUILDING_TTL);
+        return true;
+    }
+
+    //каждая область собирается во временном ключе и подменяется через RENAME, читатели не видят пустых счётчиков
+    @Override
+    public void replaceAll(Map<String, Map<String, Long>> counts) {
+        //во временных ключах уже лежат изменения, пришедшие во время чтения базы, - прибавляем к ним
+        RBatch batch = this.redissonClient.createBatch(BatchOptions.defaults());
+        counts.forEach((scope, fields) -> {
+            RMapAsync<String, Long> rebuilt = batch.getMap(REBUILD_PREFIX + scope, CODEC);
+            fields.forEach(rebuilt::addAndGetAsync);
+        });
+        batch.execute();
+
+        Set<String> staleKeys = new HashSet<>();
+        this.redissonClient.getKeys().getKeysByPattern(KEY_PREFIX + "*").forEach(staleKeys::add);
+
+        int replaced = 0;
+        for (String rebuiltKey : this.redissonClient.getKeys().getKeysByPattern(REBUILD_PREFIX + "*")) {
+            String key = KEY_PREFIX + rebuiltKey.substring(REBUILD_PREFIX.length());
+            this.redissonClient.getKeys().rename(rebuiltKey, key);
+            staleKeys.remove(key);
+            replaced++;
+        }
+
+        if (!staleKeys.isEmpty()) {
+            this.redissonClient.getKeys().delete(staleKeys.toArray(String[]::new));
+        }
+        this.redissonClient.getBucket(INITIALIZED_KEY, StringCodec.INSTANCE).set("true");
+
+        log.info("replaceAll: {} scopes, {} stale removed", replaced, staleKeys.size());
+    }
+
+    @Override
+    public void endRebuild() {
+        this.redissonClient.getBucket(REBUILDING_KEY, StringCodec.INSTANCE).delete();
+        RLock lock = this.redissonClient.getLock(REBUILD_LOCK);
+        if (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return this.redissonClient.getBucket(INITIALIZED_KEY, StringCodec.INSTANCE).isExists();
+    }
+}
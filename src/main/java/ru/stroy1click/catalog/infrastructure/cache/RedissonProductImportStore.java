@@ -0,0 +1,51 @@
+package ru.stroy1click.catalog.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.codec.TypedJsonJacksonCodec;
+import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+import ru.stroy1click.catalog.domain.product.service.ProductImportStore;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+@Component
+@RequiredArgsConstructor
+public class RedissonProductImportStore implements ProductImportStore {
+
+    private final RedissonClient redissonClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final static String KEY_PREFIX = "catalog:imports:";
+
+    private final static Duration TTL = Duration.ofDays(1);
+
+    private final static String LOCK_NAME = "catalog:imports-lock";
+
+    @Override
+    public void save(ProductImportDto productImport) {
+        bucket(productImport.getId()).set(productImport, TTL);
+    }
+
+    @Override
+    public Optional<ProductImportDto> get(UUID id) {
+        return Optional.ofNullable(bucket(id).get());
+    }
+
+    //RLock продлевает себя, пока узел жив, и освобождается по таймауту, если узел упал посреди импорта
+    @Override
+    public Lock lock() {
+        return this.redissonClient.getLock(LOCK_NAME);
+    }
+
+    private RBucket<ProductImportDto> bucket(UUID id) {
+        return this.redissonClient.getBucket(KEY_PREFIX + id,
+                new TypedJsonJacksonCodec(ProductImportDto.class, this.objectMapper));
+    }
+}
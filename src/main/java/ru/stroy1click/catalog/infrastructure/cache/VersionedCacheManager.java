@@ -0,0 +1,40 @@
+package ru.stroy1click.catalog.infrastructure.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+
+//Кэш "product" хранится в Redis под именем "product:<версия>". Значения сериализуются бинарным кодеком,
+//и записи, сделанные сборкой со старым набором полей DTO, новая сборка прочитать не может.
+//Смена версии при изменении формата разводит сборки по разным ключам на время выкладки,
+//старые записи истекают по TTL
+public class VersionedCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final String version;
+
+    public VersionedCacheManager(CacheManager delegate, String version) {
+        this.delegate = delegate;
+        this.version = version;
+    }
+
+    public static String versioned(String name, String version) {
+        return name + ":" + version;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return this.delegate.getCache(versioned(name, this.version));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        String suffix = versioned("", this.version);
+        return this.delegate.getCacheNames().stream()
+                .filter(name -> name.endsWith(suffix))
+                .map(name -> name.substring(0, name.length() - suffix.length()))
+                .toList();
+    }
+}
@@ -9,7 +9,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import ru.stroy1click.catalog.infrastructure.cache.NearCacheManager;
+import ru.stroy1click.catalog.infrastructure.cache.VersionedCacheManager;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,6 +20,18 @@ import java.util.Map;
 @Configuration
 public class RedissonConfig {
 
+    public static final long CACHE_TTL_MILLIS = 24 * 60 * 60 * 1000L; // 1 день
+
+    private static final long PRODUCT_TOTALS_TTL_MILLIS = 10 * 60 * 1000L; // 10 минут
+
+    //ограничивает устаревание локальной копии, если сообщение об инвалидации потерялось
+    private static final Duration NEAR_CACHE_TTL = Duration.ofMinutes(10);
+
+    private static final String NEAR_CACHE_TOPIC = "catalog:near-cache-invalidation";
+
+    //поднимается при изменении полей DTO, которые лежат в кэшах: v2 - поле version (ETag)
+    private static final String CACHE_FORMAT_VERSION = "v2";
+
     @Value("${redisson.host:localhost}")
     private String host;
 
@@ -29,6 +44,9 @@ public class RedissonConfig {
     @Value(value = "${redisson.password}")
     private String password;
 
+    @Value("${catalog.cache.distributed-load:true}")
+    private boolean distributedLoad;
+
     @Bean(destroyMethod = "shutdown")
     public RedissonClient redissonClient() {
         Config config = new Config();
@@ -46,20 +64,49 @@ public class RedissonConfig {
     public CacheManager cacheManager(RedissonClient redissonClient) {
         Map<String, CacheConfig> config = new HashMap<>();
 
-        long oneDayMillis = 24 * 60 * 60 * 1000L; // 1 день
-
-        config.put("category", new CacheConfig(oneDayMillis, 0));
-        config.put("allCategories", new CacheConfig(oneDayMillis, 0));
-        config.put("allSubcategories", new CacheConfig(oneDayMillis, 0));
-        config.put("allProductTypes", new CacheConfig(oneDayMillis, 0));
-        config.put("allProducts", new CacheConfig(oneDayMillis, 0));
-        config.put("subcategory", new CacheConfig(oneDayMillis, 0));
-        config.put("subcategoriesOfCategory", new CacheConfig(oneDayMillis, 0));
-        config.put("product", new CacheConfig(oneDayMillis, 0));
-        config.put("productImages", new CacheConfig(oneDayMillis, 0));
-        config.put("productType", new CacheConfig(oneDayMillis, 0));
-        config.put("productTypesOfSubcategory", new CacheConfig(oneDayMillis, 0));
-
-        return new RedissonSpringCacheManager(redissonClient, config);
+        config.put("category", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("allCategories", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("allSubcategories", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("allProductTypes", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("allProducts", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("subcategory", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("subcategoriesOfCategory", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("product", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("productJson", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("productImages", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("productType", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("productTypesOfSubcategory", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("imageMetadata", new CacheConfig(CACHE_TTL_MILLIS, 0));
+        config.put("productTotals", new CacheConfig(PRODUCT_TOTALS_TTL_MILLIS, 0));
+
+        //максимальное число записей локального кэша на узле
+        Map<String, Long> nearCacheSizes = new HashMap<>();
+
+        nearCacheSizes.put("category", 1_000L);
+        nearCacheSizes.put("allCategories", 1L);
+        nearCacheSizes.put("allSubcategories", 1L);
+        nearCacheSizes.put("allProductTypes", 1L);
+        nearCacheSizes.put("subcategory", 1_000L);
+        nearCacheSizes.put("subcategoriesOfCategory", 1_000L);
+        nearCacheSizes.put("product", 10_000L);
+        nearCacheSizes.put("productJson", 10_000L);
+        nearCacheSizes.put("productImages", 5_000L);
+        nearCacheSizes.put("imageMetadata", 10_000L);
+        nearCacheSizes.put("productType", 1_000L);
+        nearCacheSizes.put("productTypesOfSubcategory", 1_000L);
+
+        Map<String, CacheConfig> versionedConfig = new HashMap<>();
+        config.forEach((name, cacheConfig) ->
+                versionedConfig.put(VersionedCacheManager.versioned(name, CACHE_FORMAT_VERSION), cacheConfig));
+
+        return new NearCacheManager(
+                new VersionedCacheManager(
+                        new RedissonSpringCacheManager(redissonClient, versionedConfig), CACHE_FORMAT_VERSION
+                ),
+                redissonClient.getTopic(NEAR_CACHE_TOPIC),
+                nearCacheSizes,
+                NEAR_CACHE_TTL,
+                this.distributedLoad
+        );
     }
 }
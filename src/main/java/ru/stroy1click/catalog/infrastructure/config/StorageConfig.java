@@ -8,6 +8,8 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.net.URI;
 
@@ -19,14 +21,31 @@ public class StorageConfig {
 
     @Bean
     public S3Client s3Client(){
-        AwsBasicCredentials awsBasicCredentials = AwsBasicCredentials.create(this.storageProperties.getAccessKey()
-                ,this.storageProperties.getSecretKey());
-
         return S3Client.builder()
                 .region(Region.of(this.storageProperties.getRegion()))
                 .endpointOverride(URI.create(this.storageProperties.getStorageUrl()))
                 .forcePathStyle(true)
-                .credentialsProvider(StaticCredentialsProvider.create(awsBasicCredentials))
+                .credentialsProvider(credentialsProvider())
+                .build();
+    }
+
+    //подписывает ссылки с теми же endpoint и стилем адресации, что и S3Client, сетевых вызовов не делает
+    @Bean
+    public S3Presigner s3Presigner(){
+        return S3Presigner.builder()
+                .region(Region.of(this.storageProperties.getRegion()))
+                .endpointOverride(URI.create(this.storageProperties.getStorageUrl()))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
+                .credentialsProvider(credentialsProvider())
                 .build();
     }
+
+    private StaticCredentialsProvider credentialsProvider(){
+        AwsBasicCredentials awsBasicCredentials = AwsBasicCredentials.create(this.storageProperties.getAccessKey()
+                ,this.storageProperties.getSecretKey());
+
+        return StaticCredentialsProvider.create(awsBasicCredentials);
+    }
 }
@@ -22,4 +22,16 @@ public class StorageProperties {
 
     @Value("${s3.storage-url}")
     private String storageUrl;
+
+    //общий на все запросы предел одновременных загрузок, не больше пула соединений S3Client (50)
+    @Value("${s3.max-parallel-uploads:16}")
+    private int maxParallelUploads;
+
+    @Value("${s3.presign-ttl-seconds:600}")
+    private long presignTtlSeconds;
+
+    //дольше любой транзакции, которая привязывает загруженное изображение: освобождённый объект,
+    //переиспользованный загрузкой за это время, остаётся сборщику OrphanImageCollector
+    @Value("${s3.reuse-grace-seconds:3600}")
+    private long reuseGraceSeconds;
 }
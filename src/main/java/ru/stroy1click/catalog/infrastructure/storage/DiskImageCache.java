@@ -0,0 +1,327 @@
+package ru.stroy1click.catalog.infrastructure.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+//Локальный для узла кэш объектов S3 на диске. Индекс в памяти - Caffeine с весом в байтах (W-TinyLFU),
+//файл появляется только после полного чтения объекта из S3. Удалённый или перезаписанный ключ сбрасывается
+//на всех узлах через топик Redis; потерянное сообщение ограничено сроком жизни записи
+@Slf4j
+@Component
+public class DiskImageCache {
+
+    //подкаталог этого экземпляра
+    private final Path directory;
+
+    private final Path lockFile;
+
+    private final FileChannel lockChannel;
+
+    private final FileLock instanceLock;
+
+    private final long maxEntryBytes;
+
+    private final Cache<String, Entry> index;
+
+    private final RTopic invalidationTopic;
+
+    private final int listenerId;
+
+    private final AtomicLong fileCounter = new AtomicLong();
+
+    //растёт при каждом сбросе: заполнение, начатое до сброса, могло прочитать старый объект и в кэш не попадает.
+    //Сброс и запись в индекс идут под одной блокировкой, иначе сброс мог бы пройти между проверкой и записью
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Object indexLock = new Object();
+
+    //вытесненный файл мог только что уйти в sendfile - удаляем его с задержкой
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("image-cache-cleaner").daemon().factory()
+    );
+
+    private final static long DELETE_DELAY_SECONDS = 60;
+
+    private final static String FILE_SUFFIX = ".bin";
+
+    private final static String INSTANCE_PREFIX = "instance-";
+
+    private final static String LOCK_SUFFIX = ".lock";
+
+    private final static String INVALIDATION_TOPIC = "catalog:image-cache-invalidated";
+
+    //закрытие любого канала к файлу снимает все блокировки JVM на нём, поэтому свои lock-файлы не открываются
+    private final static Set<Path> HELD_LOCK_FILES = ConcurrentHashMap.newKeySet();
+
+    public DiskImageCache(@Value("${catalog.image-cache.dir:${java.io.tmpdir}/catalog-image-cache}") Path directory,
+                          @Value("${catalog.image-cache.max-size-mb:1024}") long maxSizeMb,
+                          @Value("${catalog.image-cache.ttl:1h}") Duration ttl,
+                          RedissonClient redissonClient) {
+        long maxBytes = maxSizeMb * 1024 * 1024;
+        //один объект не должен вытеснять заметную часть кэша
+        this.maxEntryBytes = maxBytes / 16;
+        this.index = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, entry.length()))
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        scheduleDelete(entry.path());
+                    }
+                })
+                .build();
+        //каталог общий для всех экземпляров на хосте: каждый пишет в свой подкаталог, пока держит блокировку
+        //его lock-файла. Метаданные файлов хранятся только в памяти, поэтому подкаталоги упавших экземпляров
+        //(их блокировка свободна) ничего не стоят и удаляются при старте
+        try {
+            Files.createDirectories(directory);
+            deleteAbandoned(directory);
+            Path lockFile = Files.createTempFile(directory, INSTANCE_PREFIX, LOCK_SUFFIX).toAbsolutePath();
+            HELD_LOCK_FILES.add(lockFile);
+            this.lockChannel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+            this.instanceLock = this.lockChannel.lock();
+            this.lockFile = lockFile;
+            this.directory = Files.createDirectories(instanceDirectory(lockFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        //своё же сообщение приходит и отправителю - повторный сброс ничего не стоит
+        this.invalidationTopic = redissonClient.getTopic(INVALIDATION_TOPIC);
+        this.listenerId = this.invalidationTopic.addListener(String.class, (channel, key) -> invalidateLocal(key));
+    }
+
+    public Optional<Entry> get(String key) {
+        return Optional.ofNullable(this.index.getIfPresent(key));
+    }
+
+    public void invalidate(String key) {
+        invalidateLocal(key);
+        this.invalidationTopic.publishAsync(key)
+                .whenComplete((receivers, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to publish image cache invalidation of {}", key, e);
+                    }
+                });
+    }
+
+    //берётся до запроса к S3 и передаётся в fill
+    public long generation() {
+        return this.generation.get();
+    }
+
+    //поток-обёртка пишет прочитанные байты во временный файл; запись в кэш - только если объект дочитан до конца
+    //и с readGeneration ключи не сбрасывались
+    public InputStream fill(String key, InputStream source, String contentType, String eTag, long length,
+                            long readGeneration) {
+        if (length <= 0 || length > this.maxEntryBytes) {
+            return source;
+        }
+        Path file = this.directory.resolve(this.fileCounter.incrementAndGet() + FILE_SUFFIX);
+        try {
+            return new FillingInputStream(source, key, new Entry(file, contentType, eTag, length),
+                    Files.newOutputStream(file), readGeneration);
+        } catch (IOException e) {
+            log.warn("Failed to create image cache file for {}", key, e);
+            return source;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.invalidationTopic.removeListener(this.listenerId);
+        this.cleaner.shutdownNow();
+        deleteRecursively(this.directory);
+        deleteQuietly(this.lockFile);
+        try {
+            this.instanceLock.release();
+            this.lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to release image cache lock {}", this.lockFile, e);
+        }
+        HELD_LOCK_FILES.remove(this.lockFile);
+    }
+
+    private void invalidateLocal(String key) {
+        synchronized (this.indexLock) {
+            this.generation.incrementAndGet();
+            this.index.invalidate(key);
+        }
+    }
+
+    //false - пока объект читался, ключи сбрасывались, прочитанные байты могут быть устаревшими
+    private boolean putIfCurrent(String key, Entry entry, long readGeneration) {
+        synchronized (this.indexLock) {
+            if (this.generation.get() != readGeneration) {
+                return false;
+            }
+            //заменённая запись уходит в removalListener с причиной REPLACED
+            this.index.put(key, entry);
+            return true;
+        }
+    }
+
+    private void scheduleDelete(Path file) {
+        this.cleaner.schedule(() -> deleteQuietly(file), DELETE_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    //подкаталог удаляется, только если его блокировку удалось взять: экземпляр-владелец завершился
+    private static void deleteAbandoned(Path directory) throws IOException {
+        try (DirectoryStream<Path> lockFiles = Files.newDirectoryStream(directory, INSTANCE_PREFIX + "*" + LOCK_SUFFIX)) {
+            for (Path lockFile : lockFiles) {
+                if (HELD_LOCK_FILES.contains(lockFile.toAbsolutePath())) {
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+                    FileLock lock = channel.tryLock();
+                    if (lock == null) {
+                        continue;
+                    }
+                    deleteRecursively(instanceDirectory(lockFile));
+                    deleteQuietly(lockFile);
+                } catch (IOException | OverlappingFileLockException e) {
+                    log.warn("Failed to check image cache lock {}", lockFile, e);
+                }
+            }
+        }
+    }
+
+    private static Path instanceDirectory(Path lockFile) {
+        String name = lockFile.getFileName().toString();
+        return lockFile.resolveSibling(name.substring(0, name.length() - LOCK_SUFFIX.length()));
+    }
+
+    private static void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(DiskImageCache::deleteQuietly);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to delete image cache directory {}", directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete image cache file {}", file, e);
+        }
+    }
+
+    public record Entry(Path path, String contentType, String eTag, long length) {
+    }
+
+    private class FillingInputStream extends FilterInputStream {
+
+        private final String key;
+
+        private final Entry entry;
+
+        private final OutputStream file;
+
+        private final long readGeneration;
+
+        private long written;
+
+        private boolean failed;
+
+        private boolean eof;
+
+        FillingInputStream(InputStream source, String key, Entry entry, OutputStream file, long readGeneration) {
+            super(source);
+            this.key = key;
+            this.entry = entry;
+            this.file = file;
+            this.readGeneration = readGeneration;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                this.eof = true;
+            } else {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) {
+                this.eof = true;
+            } else {
+                write(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                complete();
+            }
+        }
+
+        //ошибка записи на диск не должна обрывать ответ клиенту
+        private void write(byte[] b, int off, int len) {
+            if (this.failed) {
+                return;
+            }
+            try {
+                this.file.write(b, off, len);
+                this.written += len;
+            } catch (IOException e) {
+                log.warn("Failed to write image cache file for {}", this.key, e);
+                this.failed = true;
+            }
+        }
+
+        private void complete() {
+            try {
+                this.file.close();
+            } catch (IOException e) {
+                this.failed = true;
+            }
+            boolean complete = this.eof && !this.failed && this.written == this.entry.length();
+            if (!complete || !putIfCurrent(this.key, this.entry, this.readGeneration)) {
+                deleteQuietly(this.entry.path());
+            }
+        }
+    }
+}
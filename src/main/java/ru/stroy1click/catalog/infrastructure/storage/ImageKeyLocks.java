@@ -0,0 +1,23 @@
+package ru.stroy1click.catalog.infrastructure.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+
+import java.util.concurrent.locks.Lock;
+
+//Блокировка объекта хранилища, общая для узлов: загрузка, переиспользующая объект, и удаление этого объекта
+//не должны пересекаться. Копии блокируются вместе со своим оригиналом
+@Component
+@RequiredArgsConstructor
+public class ImageKeyLocks {
+
+    private final RedissonClient redissonClient;
+
+    private final static String KEY_PREFIX = "catalog:image-lock:";
+
+    public Lock lock(String key) {
+        return this.redissonClient.getLock(KEY_PREFIX + ImageVariant.originalOf(key));
+    }
+}
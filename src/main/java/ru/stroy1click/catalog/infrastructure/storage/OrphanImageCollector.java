@@ -0,0 +1,230 @@
+package ru.stroy1click.catalog.infrastructure.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+import ru.stroy1click.catalog.domain.common.service.ImageReferenceService;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
+import ru.stroy1click.catalog.infrastructure.prop.StorageProperties;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+//Сборщик объектов S3, на которые не ссылается ни одна строка: удаление продуктов и категорий каскадом в Postgres,
+//откаты загрузок и гонки при удалении общих изображений оставляют такие объекты в бакете.
+//Бакет обходится страницами ListObjectsV2, каждая страница сверяется с таблицами изображений одним запросом
+//и удаляется одним DeleteObjects, поэтому в памяти не больше одной страницы
+@Slf4j
+@Component
+public class OrphanImageCollector {
+
+    private final S3Client s3Client;
+
+    private final StorageProperties storageProperties;
+
+    private final ImageReferenceService imageReferenceService;
+
+    private final ImageMetadataService imageMetadataService;
+
+    private final DiskImageCache diskImageCache;
+
+    private final ImageKeyLocks imageKeyLocks;
+
+    private final RedissonClient redissonClient;
+
+    private final boolean enabled;
+
+    private final Duration minAge;
+
+    private final int batchSize;
+
+    private final Counter deletedObjects;
+
+    private final Counter reclaimedBytes;
+
+    private final Timer runTimer;
+
+    private final static String LOCK_NAME = "catalog:orphan-image-collector";
+
+    //DeleteObjects принимает не больше 1000 ключей
+    private final static int MAX_BATCH_SIZE = 1000;
+
+    //бакет может быть общим: трогаем только ключи, которые выдаёт этот сервис
+    private final static Pattern CATALOG_KEY = Pattern.compile("^(sha256-[0-9a-f]{64}|product-\\d+_|\\d{13}_).*");
+
+    public OrphanImageCollector(S3Client s3Client,
+                                StorageProperties storageProperties,
+                                ImageReferenceService imageReferenceService,
+                                ImageMetadataService imageMetadataService,
+                                DiskImageCache diskImageCache,
+                                ImageKeyLocks imageKeyLocks,
+                                RedissonClient redissonClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${catalog.image-gc.enabled:true}") boolean enabled,
+                                @Value("${catalog.image-gc.min-age:24h}") Duration minAge,
+                                @Value("${catalog.image-gc.batch-size:1000}") int batchSize) {
+        this.s3Client = s3Client;
+        this.storageProperties = storageProperties;
+        this.imageReferenceService = imageReferenceService;
+        this.imageMetadataService = imageMetadataService;
+        this.diskImageCache = diskImageCache;
+        this.imageKeyLocks = imageKeyLocks;
+        this.redissonClient = redissonClient;
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.batchSize = Math.clamp(batchSize, 1, MAX_BATCH_SIZE);
+        this.deletedObjects = Counter.builder("catalog.images.gc.deleted")
+                .description("Orphan objects removed from the bucket")
+                .register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("catalog.images.gc.reclaimed")
+                .description("Size of orphan objects removed from the bucket")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("catalog.images.gc.run")
+                .description("Duration of a full bucket pass")
+                .register(meterRegistry);
+    }
+
+    //узлов несколько, бакет обходит один из них
+    @Scheduled(cron = "${catalog.image-gc.cron:0 0 4 * * *}")
+    public void scheduledCollect() {
+        if (!this.enabled) {
+            return;
+        }
+        RLock lock = this.redissonClient.getLock(LOCK_NAME);
+        if (!lock.tryLock()) {
+            log.info("Orphan image collection is running on another node");
+            return;
+        }
+        try {
+            collect();
+        } catch (RuntimeException e) {
+            log.error("Orphan image collection failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //возвращает число удалённых объектов
+    public long collect() {
+        log.info("collect");
+        return this.runTimer.record(() -> {
+            //объект мог быть только что загружен, а ссылка на него ещё не зафиксирована
+            //(транзакция загрузки, неподтверждённая подписанная ссылка)
+            Instant threshold = Instant.now().minus(this.minAge);
+            long deleted = 0;
+            String continuationToken = null;
+            ListObjectsV2Response page;
+            do {
+                page = this.s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                        .bucket(this.storageProperties.getBucketName())
+                        .maxKeys(this.batchSize)
+                        .continuationToken(continuationToken)
+                        .build());
+                deleted += collectPage(page.contents(), threshold);
+                continuationToken = page.nextContinuationToken();
+            } while (Boolean.TRUE.equals(page.isTruncated()));
+            log.info("Orphan image collection removed {} objects", deleted);
+            return deleted;
+        });
+    }
+
+    private long collectPage(List<S3Object> objects, Instant threshold) {
+        //ключ -> размер; копия живёт, пока есть ссылка на её оригинал
+        Map<String, Long> candidates = new HashMap<>();
+        for (S3Object object : objects) {
+            String original = ImageVariant.originalOf(object.key());
+            if (object.lastModified().isBefore(threshold) && CATALOG_KEY.matcher(original).matches()) {
+                candidates.put(object.key(), object.size());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> originals = candidates.keySet().stream()
+                .map(ImageVariant::originalOf)
+                .collect(Collectors.toSet());
+        Set<String> referenced = this.imageReferenceService.findReferenced(originals);
+        Map<String, List<String>> orphansByOriginal = candidates.keySet().stream()
+                .filter(key -> !referenced.contains(ImageVariant.originalOf(key)))
+                .collect(Collectors.groupingBy(ImageVariant::originalOf));
+        if (orphansByOriginal.isEmpty()) {
+            return 0;
+        }
+
+        //загрузка могла переиспользовать объект после проверки: окончательная проверка и удаление идут
+        //под блокировками ключей, которые берёт и загрузка; занятые ключи ждут следующего обхода
+        List<Lock> locks = new ArrayList<>();
+        try {
+            Set<String> locked = new HashSet<>();
+            for (String original : orphansByOriginal.keySet()) {
+                Lock lock = this.imageKeyLocks.lock(original);
+                if (lock.tryLock()) {
+                    locks.add(lock);
+                    locked.add(original);
+                }
+            }
+            if (locked.isEmpty()) {
+                return 0;
+            }
+            Set<String> used = new HashSet<>(this.imageReferenceService.findReferenced(locked));
+            //lastModified переиспользованного объекта остаётся старым, свежесть видна только по отметке в метаданных
+            used.addAll(this.imageMetadataService.findUsedSince(locked, threshold));
+            List<ObjectIdentifier> orphans = locked.stream()
+                    .filter(original -> !used.contains(original))
+                    .flatMap(original -> orphansByOriginal.get(original).stream())
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            if (orphans.isEmpty()) {
+                return 0;
+            }
+            return delete(orphans, candidates);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    private long delete(List<ObjectIdentifier> orphans, Map<String, Long> sizes) {
+        DeleteObjectsResponse response = this.s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(this.storageProperties.getBucketName())
+                .delete(Delete.builder().objects(orphans).quiet(false).build())
+                .build());
+        response.errors().forEach(error ->
+                log.warn("Failed to delete orphan {}: [Code: {}] {}", error.key(), error.code(), error.message()));
+
+        List<String> deleted = response.deleted().stream()
+                .map(DeletedObject::key)
+                .toList();
+        deleted.forEach(this.diskImageCache::invalidate);
+        this.imageMetadataService.deleteAll(deleted);
+        this.deletedObjects.increment(deleted.size());
+        this.reclaimedBytes.increment(deleted.stream().mapToLong(sizes::get).sum());
+        return deleted.size();
+    }
+}
@@ -1,21 +1,65 @@
 package ru.stroy1click.catalog.infrastructure.storage;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+import ru.stroy1click.catalog.domain.common.dto.PresignedUrlDto;
+import ru.stroy1click.catalog.domain.common.dto.StoredFile;
+import ru.stroy1click.catalog.domain.common.dto.StoredObjectInfo;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
 import ru.stroy1click.catalog.infrastructure.prop.StorageProperties;
 import ru.stroy1click.common.exception.StorageException;
-import software.amazon.awssdk.core.ResponseBytes;
+import ru.stroy1click.common.util.ExceptionUtils;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
@@ -26,16 +70,41 @@ public class S3StorageService implements StorageService {
 
     private final S3Client s3Client;
 
+    private final S3Presigner s3Presigner;
+
+    private final DiskImageCache diskImageCache;
+
+    private final ImageMetadataService imageMetadataService;
+
+    private final ImageKeyLocks imageKeyLocks;
+
+    private final ExecutorService uploadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Semaphore uploadPermits;
+
+    private final static int NOT_MODIFIED = 304;
+
+    private final static int RANGE_NOT_SATISFIABLE = 416;
+
+    private final static int NOT_FOUND = 404;
+
+    private final static Pattern UNSAFE_EXTENSION_CHARS = Pattern.compile("[^a-z0-9]");
+
+    @PostConstruct
+    public void init() {
+        this.uploadPermits = new Semaphore(this.storageProperties.getMaxParallelUploads());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.uploadExecutor.shutdownNow();
+    }
+
     @Override
     public String uploadImage(MultipartFile image) {
         log.info("uploadImage");
-        String fileName = System.currentTimeMillis() + "_" + image.getOriginalFilename();
         try {
-            this.s3Client.putObject(PutObjectRequest.builder()
-                            .bucket(this.storageProperties.getBucketName())
-                            .key(fileName)
-                            .build(),
-                    RequestBody.fromBytes(image.getBytes()));
+            return store(image);
         } catch (S3Exception e) {
             log.error("S3 Service Error: [Code: {}] {}", e.awsErrorDetails().errorCode(), e.getMessage());
             throw new StorageException(e);
@@ -43,45 +112,74 @@ public class S3StorageService implements StorageService {
             log.error("Unexpected error during document upload to S3", e);
             throw new StorageException(e);
         }
-        return fileName;
     }
 
+    //файлы грузятся параллельно на виртуальных потоках; при ошибке загруженные объекты не удаляются:
+    //тот же объект мог уже переиспользовать другой запрос. Объекты без ссылок удаляет OrphanImageCollector
     @Override
     public List<String> uploadImages(List<MultipartFile> imageList) {
-        log.info("uploadImages");
-        List<String> fileNameList = new ArrayList<>();
-        for(MultipartFile file : imageList){
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
+        log.info("uploadImages {}", imageList.size());
+        List<Future<String>> uploads = new ArrayList<>(imageList.size());
+        for (MultipartFile file : imageList) {
+            uploads.add(this.uploadExecutor.submit(() -> {
+                this.uploadPermits.acquire();
+                try {
+                    return store(file);
+                } finally {
+                    this.uploadPermits.release();
+                }
+            }));
+        }
+
+        List<String> fileNameList = new ArrayList<>(imageList.size());
+        Exception failure = null;
+        for (Future<String> upload : uploads) {
             try {
-                this.s3Client.putObject(PutObjectRequest.builder()
-                                .bucket(this.storageProperties.getBucketName())
-                                .key(fileName)
-                                .build(),
-                        RequestBody.fromBytes(file.getBytes()));
-            } catch (S3Exception e) {
-                log.error("S3 Service Error: [Code: {}] {}", e.awsErrorDetails().errorCode(), e.getMessage());
-                throw new StorageException(e);
-            } catch (Exception e) {
-                log.error("Unexpected error during document upload to S3", e);
-                throw new StorageException(e);
+                fileNameList.add(upload.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception cause ? cause : e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                uploads.forEach(future -> future.cancel(true));
+                failure = e;
+                break;
             }
-            fileNameList.add(fileName);
         }
-        return fileNameList;
+        if (failure == null) {
+            return fileNameList;
+        }
+
+        if (failure instanceof S3Exception e) {
+            log.error("S3 Service Error: [Code: {}] {}", e.awsErrorDetails().errorCode(), e.getMessage());
+        } else {
+            log.error("Unexpected error during document upload to S3", failure);
+        }
+        throw new StorageException(failure);
     }
 
     @Override
-    @Cacheable(value = "image", key = "#fileName")
-    public byte[] downloadImage(String fileName) {
-        log.info("downloadFile {}", fileName);
+    public void uploadImageVariant(String fileName, ImageVariant variant, byte[] image, String contentType) {
+        log.info("uploadImageVariant {} {}", fileName, variant);
+        String key = variant.key(fileName);
         try {
-            ResponseBytes<GetObjectResponse> objectAsBytes =
-                    this.s3Client.getObjectAsBytes(GetObjectRequest.builder()
+            PutObjectResponse response = this.s3Client.putObject(PutObjectRequest.builder()
                             .bucket(this.storageProperties.getBucketName())
-                            .key(fileName)
-                            .build());
-
-            return objectAsBytes.asByteArray();
+                            .key(key)
+                            .contentType(contentType)
+                            .build(),
+                    RequestBody.fromBytes(image));
+            //сброс до записи позволил бы чтению между сбросом и записью снова положить в кэш старый объект
+            this.diskImageCache.invalidate(key);
+            //копия могла строиться повторно, прежняя запись описывает старый объект
+            this.imageMetadataService.delete(key);
+            this.imageMetadataService.create(ImageMetadataDto.builder()
+                    .link(key)
+                    .contentType(contentType)
+                    .size((long) image.length)
+                    .eTag(response.eTag())
+                    .build());
         } catch (S3Exception e) {
             log.error("S3 Service Error: [Code: {}] {}", e.awsErrorDetails().errorCode(), e.getMessage());
             throw new StorageException(e);
@@ -91,15 +189,106 @@ public class S3StorageService implements StorageService {
         }
     }
 
+    //Range и If-None-Match проверяет сам S3, тело не буферизуется: поток S3 отдаётся вызывающему как есть
+    @Override
+    public StoredFile downloadImage(String fileName, ImageVariant variant, String range, String ifNoneMatch) {
+        log.info("downloadFile {} {}", fileName, variant);
+        try {
+            if (variant != null) {
+                try {
+                    return open(variant.key(fileName), range, ifNoneMatch);
+                } catch (NoSuchKeyException e) {
+                    //копии ещё не построены или изображение не удалось декодировать
+                    log.debug("Variant {} of {} not found, serving original", variant, fileName);
+                }
+            }
+            return open(fileName, range, ifNoneMatch);
+        } catch (NoSuchKeyException e) {
+            throw ExceptionUtils.notFound("error.storage.not_found", fileName);
+        } catch (S3Exception e) {
+            log.error("S3 Service Error: [Code: {}] {}", e.awsErrorDetails().errorCode(), e.getMessage());
+            throw new StorageException(e);
+        } catch (Exception e) {
+            log.error("Unexpected error during document download from S3", e);
+            throw new StorageException(e);
+        }
+    }
+
+    //размер и Content-Type входят в подпись: S3 отклонит PUT с другими значениями
+    @Override
+    public PresignedUrlDto presignUpload(String fileName, String contentType, long contentLength) {
+        log.info("presignUpload {}", fileName);
+        PresignedPutObjectRequest request = this.s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(this.storageProperties.getPresignTtlSeconds()))
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(this.storageProperties.getBucketName())
+                        .key(fileName)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build())
+                .build());
+        return toPresignedUrl(fileName, request);
+    }
+
+    @Override
+    public PresignedUrlDto presignDownload(String fileName, ImageVariant variant) {
+        log.info("presignDownload {} {}", fileName, variant);
+        String key = variant != null && head(variant.key(fileName)).isPresent() ? variant.key(fileName) : fileName;
+        PresignedGetObjectRequest request = this.s3Presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(this.storageProperties.getPresignTtlSeconds()))
+                .getObjectRequest(GetObjectRequest.builder()
+                        .bucket(this.storageProperties.getBucketName())
+                        .key(key)
+                        .build())
+                .build());
+        return toPresignedUrl(key, request);
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> head(String fileName) {
+        log.info("head {}", fileName);
+        Optional<StoredObjectInfo> known = this.imageMetadataService.get(fileName)
+                .map(metadata -> new StoredObjectInfo(fileName, metadata.getContentType(), metadata.getSize(), metadata.getETag()));
+        if (known.isPresent()) {
+            return known;
+        }
+        try {
+            HeadObjectResponse response = this.s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(this.storageProperties.getBucketName())
+                    .key(fileName)
+                    .build());
+            //HEAD только читает: метаданные загруженного по подписанной ссылке объекта пишет подтверждение
+            return Optional.of(new StoredObjectInfo(fileName, response.contentType(), response.contentLength(), response.eTag()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == NOT_FOUND) {
+                return Optional.empty();
+            }
+            log.error("S3 Service Error: [Code: {}] {}", e.awsErrorDetails().errorCode(), e.getMessage());
+            throw new StorageException(e);
+        } catch (Exception e) {
+            log.error("Unexpected error during document head from S3", e);
+            throw new StorageException(e);
+        }
+    }
+
+    //копии удаляются вместе с оригиналом; отсутствующие ключи S3 в deleteObjects не считает ошибкой
     @Override
-    @CacheEvict(value = "image", key = "#fileName")
     public void deleteImage(String fileName) {
         log.info("deleteFile {}", fileName);
+        List<ObjectIdentifier> objects = new ArrayList<>();
+        objects.add(ObjectIdentifier.builder().key(fileName).build());
+        for (ImageVariant variant : ImageVariant.values()) {
+            objects.add(ObjectIdentifier.builder().key(variant.key(fileName)).build());
+        }
         try {
-            this.s3Client.deleteObject(DeleteObjectRequest.builder()
+            this.s3Client.deleteObjects(DeleteObjectsRequest.builder()
                     .bucket(this.storageProperties.getBucketName())
-                    .key(fileName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
                     .build());
+            objects.forEach(object -> this.diskImageCache.invalidate(object.key()));
+            this.imageMetadataService.deleteAll(objects.stream().map(ObjectIdentifier::key).toList());
         } catch (S3Exception e) {
             log.error("S3 Service Error: [Code: {}] {}", e.awsErrorDetails().errorCode(), e.getMessage());
             throw new StorageException(e);
@@ -108,4 +297,274 @@ public class S3StorageService implements StorageService {
             throw new StorageException(e);
         }
     }
+
+    //загрузка, переиспользовавшая объект, ставит отметку под той же блокировкой, но её ссылка фиксируется позже:
+    //свежая отметка означает, что ссылка может вот-вот появиться
+    @Override
+    public boolean deleteImageIfUnused(String fileName, Predicate<String> isReferenced) {
+        log.info("deleteImageIfUnused {}", fileName);
+        Lock lock = this.imageKeyLocks.lock(fileName);
+        lock.lock();
+        try {
+            Instant since = Instant.now().minusSeconds(this.storageProperties.getReuseGraceSeconds());
+            if (isReferenced.test(fileName) || this.imageMetadataService.isUsedSince(fileName, since)) {
+                return false;
+            }
+            deleteImage(fileName);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //ключ - SHA-256 содержимого: повторная загрузка того же файла не создаёт второй объект в бакете
+    //метаданные пишутся один раз здесь же, дальше HEAD-вопросы к объекту решаются без S3.
+    //под блокировкой ключа: одновременные загрузки не пишут объект дважды, а удаление освобождённого
+    //объекта либо завершается до проверки, либо видит отметку переиспользования
+    private String store(MultipartFile file) throws IOException {
+        String sha256 = sha256(file);
+        String fileName = StorageService.CONTENT_KEY_PREFIX + sha256 + extension(file);
+        Lock lock = this.imageKeyLocks.lock(fileName);
+        lock.lock();
+        try {
+            Optional<StoredObjectInfo> existing = head(fileName);
+            if (existing.isPresent()) {
+                log.debug("Image {} already stored", fileName);
+                this.imageMetadataService.markUsed(ImageMetadataDto.builder()
+                        .link(fileName)
+                        .contentType(existing.get().contentType())
+                        .size(existing.get().contentLength())
+                        .eTag(existing.get().eTag())
+                        .build());
+                return fileName;
+            }
+            String eTag = put(fileName, file);
+            Dimension dimensions = dimensions(file);
+            this.imageMetadataService.create(ImageMetadataDto.builder()
+                    .link(fileName)
+                    .contentType(file.getContentType())
+                    .size(file.getSize())
+                    .width(dimensions == null ? null : dimensions.width)
+                    .height(dimensions == null ? null : dimensions.height)
+                    .sha256(sha256)
+                    .eTag(eTag)
+                    .build());
+            return fileName;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //хэш считается потоково, файл читается дважды: для ключа и при отправке в S3
+    private static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream content = new DigestInputStream(file.getInputStream(), digest)) {
+            content.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    //читается только заголовок файла, без декодирования; null - формат не поддерживается ImageIO (webp)
+    private static Dimension dimensions(MultipartFile file) {
+        try (InputStream content = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read dimensions of {}", file.getOriginalFilename(), e);
+            return null;
+        }
+    }
+
+    private static String extension(MultipartFile file) {
+        String contentType = file.getContentType();
+        if (contentType != null) {
+            switch (contentType.toLowerCase(Locale.ROOT)) {
+                case "image/jpeg": return ".jpg";
+                case "image/png": return ".png";
+                case "image/webp": return ".webp";
+                case "image/gif": return ".gif";
+                default: break;
+            }
+        }
+        String extension = StringUtils.getFilenameExtension(file.getOriginalFilename());
+        if (extension == null) {
+            return "";
+        }
+        extension = UNSAFE_EXTENSION_CHARS.matcher(extension.toLowerCase(Locale.ROOT)).replaceAll("");
+        return extension.isEmpty() || extension.length() > 8 ? "" : "." + extension;
+    }
+
+    //тело читается из потока multipart-файла, без копии в byte[]
+    private String put(String fileName, MultipartFile file) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            return this.s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(this.storageProperties.getBucketName())
+                            .key(fileName)
+                            .contentType(file.getContentType())
+                            .contentLength(file.getSize())
+                            .build(),
+                    RequestBody.fromInputStream(content, file.getSize())).eTag();
+        }
+    }
+
+    //Host подставит HTTP-клиент сам, остальные подписанные заголовки клиент должен повторить
+    private PresignedUrlDto toPresignedUrl(String key, PresignedRequest request) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        request.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUrlDto(key, request.httpRequest().method().name(), request.url().toString(),
+                headers, request.expiration());
+    }
+
+    //полный ответ S3 попутно пишется в дисковый кэш, следующие запросы этого ключа в S3 не ходят
+    private StoredFile open(String key, String range, String ifNoneMatch) {
+        Optional<DiskImageCache.Entry> cached = this.diskImageCache.get(key);
+        if (cached.isPresent()) {
+            return fromDisk(cached.get(), range, ifNoneMatch);
+        }
+        //условный запрос к неизменившемуся объекту решается по ETag из метаданных, без обращения к S3
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = this.imageMetadataService.get(key)
+                    .map(ImageMetadataDto::getETag)
+                    .filter(tag -> matches(ifNoneMatch, tag));
+            if (eTag.isPresent()) {
+                return new StoredFile(StoredFile.Status.NOT_MODIFIED, null, null, null, eTag.get(), null);
+            }
+        }
+
+        //сброс ключа после этой точки не даст положить в кэш прочитанный ниже, возможно уже старый, объект
+        long readGeneration = this.diskImageCache.generation();
+        ResponseInputStream<GetObjectResponse> object;
+        try {
+            object = this.s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(this.storageProperties.getBucketName())
+                    .key(key)
+                    .range(range)
+                    .ifNoneMatch(ifNoneMatch)
+                    .build());
+        } catch (S3Exception e) {
+            if (e.statusCode() == NOT_MODIFIED) {
+                return new StoredFile(StoredFile.Status.NOT_MODIFIED, null, null, null, eTag(key, e), null);
+            }
+            if (e.statusCode() == RANGE_NOT_SATISFIABLE) {
+                return new StoredFile(StoredFile.Status.RANGE_NOT_SATISFIABLE, null, null, null, null,
+                        head(key).map(info -> "bytes */" + info.contentLength()).orElse(null));
+            }
+            throw e;
+        }
+        GetObjectResponse response = object.response();
+        if (response.contentRange() != null) {
+            return new StoredFile(StoredFile.Status.PARTIAL, new AbortOnEarlyCloseInputStream(object),
+                    response.contentType(), response.contentLength(), response.eTag(), response.contentRange());
+        }
+
+        return new StoredFile(
+                StoredFile.Status.FULL,
+                this.diskImageCache.fill(key, new AbortOnEarlyCloseInputStream(object),
+                        response.contentType(), response.eTag(),
+                        response.contentLength() != null ? response.contentLength() : -1, readGeneration),
+                response.contentType(),
+                response.contentLength(),
+                response.eTag(),
+                null);
+    }
+
+    //Range и If-None-Match для файла из кэша проверяются так же, как их проверил бы S3
+    private StoredFile fromDisk(DiskImageCache.Entry entry, String range, String ifNoneMatch) {
+        if (ifNoneMatch != null && matches(ifNoneMatch, entry.eTag())) {
+            return new StoredFile(StoredFile.Status.NOT_MODIFIED, null, null, null, entry.eTag(), null);
+        }
+        if (range == null) {
+            return new StoredFile(StoredFile.Status.FULL, null, entry.contentType(), entry.length(),
+                    entry.eTag(), null, entry.path(), 0);
+        }
+        long start;
+        long end;
+        try {
+            HttpRange httpRange = HttpRange.parseRanges(range).getFirst();
+            start = httpRange.getRangeStart(entry.length());
+            end = httpRange.getRangeEnd(entry.length());
+        } catch (IllegalArgumentException e) {
+            return new StoredFile(StoredFile.Status.RANGE_NOT_SATISFIABLE, null, null, null, null,
+                    "bytes */" + entry.length());
+        }
+        return new StoredFile(StoredFile.Status.PARTIAL, null, entry.contentType(), end - start + 1, entry.eTag(),
+                "bytes " + start + "-" + end + "/" + entry.length(), entry.path(), start);
+    }
+
+    //304 от S3 несёт ETag объекта; If-None-Match клиента может быть списком или *, отдавать его нельзя
+    private String eTag(String key, S3Exception e) {
+        return Optional.ofNullable(e.awsErrorDetails())
+                .map(AwsErrorDetails::sdkHttpResponse)
+                .flatMap(response -> response.firstMatchingHeader(HttpHeaders.ETAG))
+                .or(() -> head(key).map(StoredObjectInfo::eTag))
+                .orElse(null);
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //close() недочитанного потока S3 дочитывает тело до конца, чтобы вернуть соединение в пул;
+    //если клиент оборвал скачивание большого файла, дешевле закрыть соединение
+    private static class AbortOnEarlyCloseInputStream extends FilterInputStream {
+
+        private final ResponseInputStream<GetObjectResponse> object;
+
+        private boolean eof;
+
+        AbortOnEarlyCloseInputStream(ResponseInputStream<GetObjectResponse> object) {
+            super(object);
+            this.object = object;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            this.eof = b == -1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            this.eof = n == -1;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.eof) {
+                this.object.abort();
+            }
+            super.close();
+        }
+    }
 }
@@ -0,0 +1,12 @@
+-- метаданные объектов хранилища: заполняются один раз при загрузке, чтобы не спрашивать их у S3 (HEAD) на каждом запросе.
+-- строка описывает объект S3, а не ссылку на него, и удаляется вместе с объектом
+create table if not exists catalog.images(
+    link varchar primary key ,
+    content_type varchar not null ,
+    size bigint not null ,
+    width int ,
+    height int ,
+    sha256 varchar(64) ,
+    e_tag varchar ,
+    created_at timestamptz not null default now()
+);
@@ -0,0 +1,10 @@
+-- одна ссылка на изображение у продукта: подтверждение и загрузка вставляют строку через on conflict do nothing.
+-- дубликаты, накопившиеся до ограничения, схлопываются в строку с меньшим id
+delete from catalog.product_images duplicate
+using catalog.product_images kept
+where duplicate.product_id = kept.product_id
+  and duplicate.link = kept.link
+  and duplicate.id > kept.id;
+
+alter table catalog.product_images
+    add constraint product_images_product_id_link_key unique (product_id, link);
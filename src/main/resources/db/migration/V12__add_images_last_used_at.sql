@@ -0,0 +1,3 @@
+-- время последней загрузки того же содержимого: объект, только что переиспользованный загрузкой,
+-- не удаляется, пока ссылка на него не зафиксирована
+alter table catalog.images add column if not exists last_used_at timestamptz not null default now();
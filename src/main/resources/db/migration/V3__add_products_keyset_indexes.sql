@@ -0,0 +1,5 @@
+create index if not exists products_category_id_id_idx on catalog.products (category_id, id);
+
+create index if not exists products_subcategory_id_id_idx on catalog.products (subcategory_id, id);
+
+create index if not exists products_product_type_id_id_idx on catalog.products (product_type_id, id);
@@ -0,0 +1,11 @@
+create index if not exists products_category_id_price_id_idx on catalog.products (category_id, price, id);
+
+create index if not exists products_category_id_title_id_idx on catalog.products (category_id, title, id);
+
+create index if not exists products_subcategory_id_price_id_idx on catalog.products (subcategory_id, price, id);
+
+create index if not exists products_subcategory_id_title_id_idx on catalog.products (subcategory_id, title, id);
+
+create index if not exists products_product_type_id_price_id_idx on catalog.products (product_type_id, price, id);
+
+create index if not exists products_product_type_id_title_id_idx on catalog.products (product_type_id, title, id);
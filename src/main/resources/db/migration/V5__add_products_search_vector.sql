@@ -0,0 +1,7 @@
+alter table catalog.products
+    add column if not exists search_vector tsvector generated always as (
+        setweight(to_tsvector('russian', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+    ) stored;
+
+create index if not exists products_search_vector_idx on catalog.products using gin (search_vector);
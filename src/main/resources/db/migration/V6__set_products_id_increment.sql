@@ -0,0 +1,2 @@
+-- совпадает с allocationSize в Product: Hibernate резервирует по 50 id за один nextval
+alter table catalog.products alter column id set increment by 50;
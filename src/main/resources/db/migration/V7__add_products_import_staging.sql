@@ -0,0 +1,18 @@
+-- промежуточная таблица CSV-импорта: заполняется через COPY, строки удаляются после слияния.
+-- unlogged - без WAL, содержимое после аварийного рестарта не нужно
+create unlogged table if not exists catalog.products_import(
+    import_id uuid not null ,
+    line bigint not null ,
+    title varchar(60) not null ,
+    description varchar(1000) not null ,
+    price decimal(19, 2) not null ,
+    unit varchar not null ,
+    in_stock boolean not null ,
+    category_id int not null ,
+    subcategory_id int not null ,
+    product_type_id int not null ,
+    primary key (import_id, line)
+);
+
+-- слияние сопоставляет строки импорта с продуктами по названию
+create index if not exists products_title_idx on catalog.products (title);
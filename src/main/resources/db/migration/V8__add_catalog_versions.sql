@@ -0,0 +1,8 @@
+-- версия строки для @Version и ETag: увеличивается при каждом изменении
+alter table catalog.categories add column if not exists version bigint not null default 0;
+
+alter table catalog.subcategories add column if not exists version bigint not null default 0;
+
+alter table catalog.product_types add column if not exists version bigint not null default 0;
+
+alter table catalog.products add column if not exists version bigint not null default 0;
@@ -0,0 +1,2 @@
+-- ключи изображений адресуются содержимым и общие для продуктов: подсчёт ссылок перед удалением из S3
+create index if not exists product_images_link_idx on catalog.product_images (link);
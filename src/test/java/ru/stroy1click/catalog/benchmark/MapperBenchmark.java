@@ -0,0 +1,86 @@
+package ru.stroy1click.catalog.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.stroy1click.catalog.domain.category.entity.Category;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.entity.Product;
+import ru.stroy1click.catalog.domain.product.mapper.ProductMapper;
+import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
+import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
+import ru.stroy1click.common.dto.Unit;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+//ModelMapper против ProductMapper на 10 000 продуктов, аллокации - в колонке gc.alloc.rate.norm
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param("10000")
+    private int size;
+
+    private List<Product> products;
+
+    private ModelMapper modelMapper;
+
+    private ProductMapper productMapper;
+
+    @Setup
+    public void setUp() {
+        this.modelMapper = new ModelMapper();
+        this.productMapper = new ProductMapper();
+
+        Category category = Category.builder().id(1).title("Category").build();
+        Subcategory subcategory = Subcategory.builder().id(2).title("Subcategory").category(category).build();
+        ProductType productType = ProductType.builder().id(3).title("Type").subcategory(subcategory).build();
+
+        this.products = IntStream.rangeClosed(1, this.size)
+                .mapToObj(id -> Product.builder()
+                        .id(id)
+                        .title("Product " + id)
+                        .description("Description of product " + id)
+                        .price(BigDecimal.valueOf(id))
+                        .unit(Unit.KG)
+                        .inStock(id % 2 == 0)
+                        .category(category)
+                        .subcategory(subcategory)
+                        .productType(productType)
+                        .build())
+                .toList();
+
+        //первый вызов ModelMapper строит TypeMap, в измерения он попадать не должен
+        this.modelMapper.map(this.products.getFirst(), ProductDto.class);
+    }
+
+    @Benchmark
+    public List<ProductDto> modelMapper() {
+        return this.products.stream()
+                .map(product -> this.modelMapper.map(product, ProductDto.class))
+                .toList();
+    }
+
+    @Benchmark
+    public List<ProductDto> handwrittenMapper() {
+        return this.productMapper.toDto(this.products);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.stroy1click.catalog.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.stroy1click.catalog.domain.common.suggest.PrefixIndex;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Время подсказки по индексу на 100 000 названий. main перед прогоном печатает объём кучи, занятый индексом
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrefixIndexBenchmark {
+
+    private final static List<String> MATERIALS = List.of("Кирпич", "Цемент", "Гипсокартон", "Краска", "Саморезы",
+            "Утеплитель", "Доска", "Брус", "Плитка", "Ламинат", "Шпатлёвка", "Грунтовка");
+
+    private final static List<String> PROPERTIES = List.of("облицовочный", "марки М500", "влагостойкий", "белая",
+            "оцинкованные", "базальтовый", "обрезная", "клеёный", "керамическая", "дубовый");
+
+    @Param("100000")
+    private int size;
+
+    @Param({"к", "кирп", "гипс влаго", "арт 5123"})
+    private String query;
+
+    private PrefixIndex index;
+
+    @Setup
+    public void setUp() {
+        this.index = PrefixIndex.of(titles(this.size));
+    }
+
+    @Benchmark
+    public List<PrefixIndex.Match> suggest() {
+        return this.index.search(this.query, 10);
+    }
+
+    private static Map<Integer, String> titles(int size) {
+        return IntStream.rangeClosed(1, size).boxed()
+                .collect(Collectors.toMap(Function.identity(), id ->
+                        MATERIALS.get(id % MATERIALS.size()) + " " +
+                        PROPERTIES.get(id / MATERIALS.size() % PROPERTIES.size()) + " " +
+                        id % 997 + "x" + id % 61 + " мм арт. " + id));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Map<Integer, String> titles = titles(100_000);
+
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        PrefixIndex index = PrefixIndex.of(titles);
+        titles = null;
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        System.out.printf("PrefixIndex: %d titles, %.1f MB heap%n", index.size(), (after - before) / 1024.0 / 1024.0);
+
+        new Runner(new OptionsBuilder()
+                .include(PrefixIndexBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.stroy1click.catalog.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.stroy1click.catalog.Stroy1ClickCatalogServiceApplication;
+import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.service.ProductService;
+import ru.stroy1click.catalog.domain.product.validator.ProductCreateValidator;
+import ru.stroy1click.common.dto.Unit;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+//Загрузка пакета продуктов поставщика: валидация + вставка + outbox, одна транзакция. Нужен Docker
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProductBatchBenchmark {
+
+    @Param("10000")
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private ProductCreateValidator productCreateValidator;
+
+    private List<ProductDto> batch;
+
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = SpringApplication.from(Stroy1ClickCatalogServiceApplication::main)
+                .with(TestcontainersConfiguration.class)
+                .run()
+                .getApplicationContext();
+
+        this.productService = this.context.getBean(ProductService.class);
+        this.productCreateValidator = this.context.getBean(ProductCreateValidator.class);
+    }
+
+    //названия уникальны, поэтому на каждую итерацию новый пакет
+    @Setup(Level.Iteration)
+    public void prepareBatch() {
+        int prefix = this.iteration++;
+        this.batch = IntStream.rangeClosed(1, this.size)
+                .mapToObj(id -> new ProductDto(null, "Supplier " + prefix + "-" + id, "Description of supplier product " + id,
+                        BigDecimal.valueOf(id), Unit.KG, true, 1, 1, 1, null))
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> createAll() {
+        this.productCreateValidator.validate(this.batch);
+        return this.productService.createAll(this.batch);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductBatchBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
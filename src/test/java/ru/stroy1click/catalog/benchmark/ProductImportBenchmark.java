@@ -0,0 +1,88 @@
+package ru.stroy1click.catalog.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.stroy1click.catalog.Stroy1ClickCatalogServiceApplication;
+import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+import ru.stroy1click.catalog.domain.product.service.ProductImportService;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+//Импорт прайс-листа поставщика через COPY и слияние диапазонами: первая загрузка (вставки)
+//и повторная с новыми ценами (обновления). Строк в секунду = size / время итерации. Нужен Docker
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ProductImportBenchmark {
+
+    @Param("100000")
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductImportService productImportService;
+
+    private String fresh;
+
+    private String repriced;
+
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = SpringApplication.from(Stroy1ClickCatalogServiceApplication::main)
+                .with(TestcontainersConfiguration.class)
+                .run()
+                .getApplicationContext();
+
+        this.productImportService = this.context.getBean(ProductImportService.class);
+    }
+
+    //новые названия на каждую итерацию, повторная загрузка меняет цены уже созданных продуктов
+    @Setup(Level.Iteration)
+    public void prepareFiles() {
+        int prefix = this.iteration++;
+        this.fresh = csv(prefix, 0);
+        this.repriced = csv(prefix, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public ProductImportDto importAndReimport() {
+        this.productImportService.importCsv(new StringReader(this.fresh));
+        return this.productImportService.importCsv(new StringReader(this.repriced));
+    }
+
+    private String csv(int prefix, int priceShift) {
+        StringBuilder csv = new StringBuilder(this.size * 120)
+                .append("title,description,price,unit,in_stock,category,subcategory,product_type\n");
+        for (int i = 1; i <= this.size; i++) {
+            csv.append("Price list ").append(prefix).append('-').append(i)
+                    .append(",\"Supplier product ").append(i).append(", pallet\",")
+                    .append(i % 10_000 + 1 + priceShift).append(".50,KG,")
+                    .append(i % 3 != 0)
+                    .append(",Water,T-shirts,Orange T-Shirt\n");
+        }
+        return csv.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductImportBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.stroy1click.catalog.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.redisson.codec.Kryo5Codec;
+import ru.stroy1click.catalog.domain.common.dto.JsonBody;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.common.dto.Unit;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+//Цена попадания в кэш "product" и "productJson" на один запрос: чтение значения кодеком Redisson
+//и подготовка тела ответа. Near cache отдаёт уже декодированное значение - это колонки *NearCache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    @Param({"100", "2000"})
+    private int descriptionLength;
+
+    private Kryo5Codec codec;
+
+    private ObjectMapper objectMapper;
+
+    private ProductDto product;
+
+    private JsonBody body;
+
+    private ByteBuf productBytes;
+
+    private ByteBuf bodyBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.codec = new Kryo5Codec();
+        this.objectMapper = JsonMapper.builder().findAndAddModules().build();
+        this.product = new ProductDto(1, "Кирпич облицовочный М150", "д".repeat(this.descriptionLength),
+                new BigDecimal("1250.50"), Unit.KG, true, 1, 2, 3, 7L);
+        this.body = new JsonBody(1, 7L, this.objectMapper.writeValueAsBytes(this.product), null);
+        this.productBytes = this.codec.getValueEncoder().encode(this.product);
+        this.bodyBytes = this.codec.getValueEncoder().encode(this.body);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.productBytes.release();
+        this.bodyBytes.release();
+    }
+
+    @Benchmark
+    public byte[] dtoFromRedis() throws IOException {
+        ProductDto product = (ProductDto) this.codec.getValueDecoder().decode(this.productBytes.duplicate(), null);
+        return this.objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] jsonFromRedis() throws IOException {
+        JsonBody body = (JsonBody) this.codec.getValueDecoder().decode(this.bodyBytes.duplicate(), null);
+        return body.getJson();
+    }
+
+    @Benchmark
+    public byte[] dtoFromNearCache() throws IOException {
+        return this.objectMapper.writeValueAsBytes(this.product);
+    }
+
+    @Benchmark
+    public byte[] jsonFromNearCache() {
+        return this.body.getJson();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductJsonBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.stroy1click.catalog.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.stroy1click.catalog.Stroy1ClickCatalogServiceApplication;
+import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.mapper.ProductMapper;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Загрузка продуктов через сущности + маппер против DTO-проекции, без кэша.
+//Поднимает контекст приложения с Testcontainers, нужен Docker
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductReadBenchmark {
+
+    @Param("10000")
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductRepository productRepository;
+
+    private ProductMapper productMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setUp() {
+        this.context = SpringApplication.from(Stroy1ClickCatalogServiceApplication::main)
+                .with(TestcontainersConfiguration.class)
+                .run()
+                .getApplicationContext();
+
+        this.productRepository = this.context.getBean(ProductRepository.class);
+        this.productMapper = this.context.getBean(ProductMapper.class);
+        this.readOnlyTransaction = new TransactionTemplate(this.context.getBean(PlatformTransactionManager.class));
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.context.getBean(JdbcTemplate.class).update("""
+                insert into catalog.products (category_id, subcategory_id, product_type_id, title, description, price, unit, in_stock)
+                select 1, 1, 1, 'Bench product ' || g, 'Description of bench product ' || g, g, 'KG', true
+                from generate_series(1, ?) g
+                """, this.size);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> entities() {
+        return this.readOnlyTransaction.execute(status ->
+                this.productMapper.toDto(this.productRepository.findAll()));
+    }
+
+    @Benchmark
+    public List<ProductDto> projection() {
+        return this.readOnlyTransaction.execute(status -> this.productRepository.findAllDtos());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductReadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,78 @@
+package ru.stroy1click.catalog.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.stroy1click.catalog.Stroy1ClickCatalogServiceApplication;
+import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+import ru.stroy1click.catalog.domain.common.dto.PageResponse;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.service.ProductPaginationService;
+
+import java.util.concurrent.TimeUnit;
+
+//Полнотекстовый поиск по каталогу: ранжирование в Postgres + гидрация через кэш.
+//Mode.SampleTime выводит перцентили, цель - p0.99 меньше 50 мс. Нужен Docker
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param("200000")
+    private int size;
+
+    @Param({"кирпич", "цемент марки", "\"гипсокартон влагостойкий\"", "краска -белая"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductPaginationService productPaginationService;
+
+    @Setup
+    public void setUp() {
+        this.context = SpringApplication.from(Stroy1ClickCatalogServiceApplication::main)
+                .with(TestcontainersConfiguration.class)
+                .run()
+                .getApplicationContext();
+
+        this.productPaginationService = this.context.getBean(ProductPaginationService.class);
+
+        JdbcTemplate jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                insert into catalog.products (category_id, subcategory_id, product_type_id, title, description, price, unit, in_stock)
+                select 1, 1, 1,
+                       (array['Кирпич', 'Цемент', 'Гипсокартон', 'Краска', 'Саморезы', 'Утеплитель'])[1 + g % 6] || ' ' ||
+                       (array['облицовочный', 'марки М500', 'влагостойкий', 'белая', 'оцинкованные', 'базальтовый'])[1 + g / 6 % 6] || ' ' || g,
+                       'Строительный материал для ' ||
+                       (array['фасада', 'фундамента', 'стен', 'кровли', 'пола'])[1 + g % 5] || ', партия ' || g,
+                       g % 10000, 'KG', g % 3 <> 0
+                from generate_series(1, ?) g
+                """, this.size);
+        jdbcTemplate.execute("analyze catalog.products");
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public PageResponse<ProductDto> search() {
+        return this.productPaginationService.search(this.query, PageRequest.of(0, 20));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
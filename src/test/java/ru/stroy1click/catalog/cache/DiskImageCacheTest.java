@@ -0,0 +1,200 @@
+package ru.stroy1click.catalog.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RFuture;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import ru.stroy1click.catalog.infrastructure.storage.DiskImageCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DiskImageCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private DiskImageCache diskImageCache;
+
+    private final RedissonClient redissonClient = mock(RedissonClient.class);
+
+    private final RTopic topic = mock(RTopic.class);
+
+    @BeforeEach
+    void setUp() {
+        when(this.redissonClient.getTopic(anyString())).thenReturn(this.topic);
+        this.diskImageCache = new DiskImageCache(this.directory, 16, Duration.ofHours(1), this.redissonClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.diskImageCache.shutdown();
+    }
+
+    @Test
+    void fill_WhenObjectIsReadToTheEnd_ShouldCacheItOnDisk() throws Exception {
+        //Arrange
+        byte[] image = new byte[1000];
+        image[999] = 7;
+
+        //Act
+        try (InputStream stream = this.diskImageCache.fill("a.png", new ByteArrayInputStream(image),
+                "image/png", "\"abc\"", image.length, this.diskImageCache.generation())) {
+            stream.readAllBytes();
+        }
+        Optional<DiskImageCache.Entry> result = this.diskImageCache.get("a.png");
+
+        //Assert
+        assertTrue(result.isPresent());
+        assertEquals("image/png", result.get().contentType());
+        assertEquals("\"abc\"", result.get().eTag());
+        assertArrayEquals(image, Files.readAllBytes(result.get().path()));
+    }
+
+    @Test
+    void fill_WhenReadIsAbandoned_ShouldNotCacheAndRemoveFile() throws Exception {
+        //Arrange
+        byte[] image = new byte[1000];
+
+        //Act
+        try (InputStream stream = this.diskImageCache.fill("a.png", new ByteArrayInputStream(image),
+                "image/png", "\"abc\"", image.length, this.diskImageCache.generation())) {
+            stream.readNBytes(10);
+        }
+
+        //Assert
+        assertTrue(this.diskImageCache.get("a.png").isEmpty());
+        try (var files = Files.walk(this.directory)) {
+            assertEquals(0, files.filter(file -> file.toString().endsWith(".bin")).count());
+        }
+    }
+
+    @Test
+    void invalidate_WhenCalled_ShouldPublishKeyToOtherNodes() throws Exception {
+        //Arrange
+        when(this.topic.publishAsync("a.png")).thenReturn(mock(RFuture.class));
+        cache("a.png");
+
+        //Act
+        this.diskImageCache.invalidate("a.png");
+
+        //Assert
+        assertTrue(this.diskImageCache.get("a.png").isEmpty());
+        verify(this.topic).publishAsync("a.png");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onInvalidation_WhenAnotherNodeInvalidatesKey_ShouldDropLocalEntry() throws Exception {
+        //Arrange
+        ArgumentCaptor<MessageListener<String>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(this.topic).addListener(eq(String.class), listener.capture());
+        cache("a.png");
+
+        //Act
+        listener.getValue().onMessage("catalog:image-cache-invalidated", "a.png");
+
+        //Assert
+        assertTrue(this.diskImageCache.get("a.png").isEmpty());
+    }
+
+    @Test
+    void fill_WhenKeyInvalidatedWhileReading_ShouldNotCacheStaleObject() throws Exception {
+        //Arrange
+        when(this.topic.publishAsync("a.png")).thenReturn(mock(RFuture.class));
+        byte[] image = new byte[100];
+        long readGeneration = this.diskImageCache.generation();
+
+        //Act
+        try (InputStream stream = this.diskImageCache.fill("a.png", new ByteArrayInputStream(image),
+                "image/png", "\"abc\"", image.length, readGeneration)) {
+            stream.readNBytes(10);
+            //объект перезаписан в S3, пока старая версия ещё читается
+            this.diskImageCache.invalidate("a.png");
+            stream.readAllBytes();
+        }
+
+        //Assert
+        assertTrue(this.diskImageCache.get("a.png").isEmpty());
+    }
+
+    @Test
+    void get_WhenEntryIsOlderThanTtl_ShouldMiss() throws Exception {
+        //Arrange
+        this.diskImageCache.shutdown();
+        this.diskImageCache = new DiskImageCache(this.directory, 16, Duration.ofMillis(50), this.redissonClient);
+        cache("a.png");
+
+        //Act
+        Thread.sleep(100);
+
+        //Assert
+        assertTrue(this.diskImageCache.get("a.png").isEmpty());
+    }
+
+    @Test
+    void constructor_WhenAnotherInstanceSharesDirectory_ShouldKeepItsFiles() throws Exception {
+        //Arrange
+        cache("a.png");
+        Path file = this.diskImageCache.get("a.png").orElseThrow().path();
+
+        //Act
+        DiskImageCache other = new DiskImageCache(this.directory, 16, Duration.ofHours(1), this.redissonClient);
+        other.shutdown();
+
+        //Assert
+        assertTrue(Files.exists(file));
+        assertTrue(this.diskImageCache.get("a.png").isPresent());
+    }
+
+    @Test
+    void constructor_WhenInstanceDirectoryIsAbandoned_ShouldDeleteIt() throws Exception {
+        //Arrange
+        Path abandoned = Files.createDirectories(this.directory.resolve("instance-1"));
+        Files.write(abandoned.resolve("1.bin"), new byte[10]);
+        Files.createFile(this.directory.resolve("instance-1.lock"));
+
+        //Act
+        DiskImageCache other = new DiskImageCache(this.directory, 16, Duration.ofHours(1), this.redissonClient);
+        other.shutdown();
+
+        //Assert
+        assertFalse(Files.exists(abandoned));
+        assertFalse(Files.exists(this.directory.resolve("instance-1.lock")));
+    }
+
+    @Test
+    void fill_WhenObjectIsLargerThanEntryLimit_ShouldPassStreamThrough() {
+        //Arrange
+        InputStream source = new ByteArrayInputStream(new byte[0]);
+
+        //Act
+        InputStream result = this.diskImageCache.fill("a.png", source, "image/png", "\"abc\"", 2L * 1024 * 1024, 0);
+
+        //Assert
+        assertSame(source, result);
+    }
+
+    private void cache(String key) throws Exception {
+        byte[] image = new byte[100];
+        try (InputStream stream = this.diskImageCache.fill(key, new ByteArrayInputStream(image),
+                "image/png", "\"abc\"", image.length, this.diskImageCache.generation())) {
+            stream.readAllBytes();
+        }
+        assertTrue(this.diskImageCache.get(key).isPresent());
+    }
+}
@@ -0,0 +1,170 @@
+package ru.stroy1click.catalog.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import ru.stroy1click.catalog.infrastructure.cache.NearCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NearCacheTest {
+
+    private Cache redis;
+
+    private List<Object> publishedKeys;
+
+    private NearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        this.redis = spy(new ConcurrentMapCache("product"));
+        this.publishedKeys = new ArrayList<>();
+        this.nearCache = new NearCache(this.redis, 2, Duration.ofMinutes(1),
+                (cacheName, key) -> this.publishedKeys.add(key));
+    }
+
+    @Test
+    void get_WhenValueWasReadOnce_ShouldServeSecondReadLocally() {
+        //Arrange
+        this.redis.put(1, "product");
+
+        //Act
+        this.nearCache.get(1);
+        Cache.ValueWrapper result = this.nearCache.get(1);
+
+        //Assert
+        assertEquals("product", result.get());
+        verify(this.redis, times(1)).get(1);
+    }
+
+    @Test
+    void evict_ShouldRemoveFromBothLevelsAndPublishInvalidation() {
+        //Arrange
+        this.nearCache.put(1, "product");
+
+        //Act
+        this.nearCache.evict(1);
+
+        //Assert
+        assertNull(this.nearCache.get(1));
+        assertNull(this.redis.get(1));
+        assertEquals(List.of(1, 1), this.publishedKeys);
+    }
+
+    @Test
+    void evictLocal_WhenInvalidationComesFromOtherNode_ShouldReadFreshValueFromRedis() {
+        //Arrange
+        this.nearCache.put(1, "old");
+        this.redis.put(1, "new");
+
+        //Act
+        this.nearCache.evictLocal(1);
+
+        //Assert
+        assertEquals("new", this.nearCache.get(1).get());
+    }
+
+    @Test
+    void putAllLocal_WhenInvalidatedDuringRemoteRead_ShouldNotKeepStaleValue() {
+        //Arrange
+        long readGeneration = this.nearCache.generation();
+        this.nearCache.evictLocal(1);
+
+        //Act
+        this.nearCache.putAllLocal(Map.of(1, "stale"), readGeneration);
+
+        //Assert
+        assertTrue(this.nearCache.getAllLocal(List.of(1)).isEmpty());
+    }
+
+    @Test
+    void getWithLoader_WhenKeyIsMissedConcurrently_ShouldLoadOnce() throws Exception {
+        //Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "product";
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //Act
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            results.add(executor.submit(() -> this.nearCache.get(1, loader)));
+            started.await();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> this.nearCache.get(1, loader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("product", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //Assert
+        assertEquals(1, loads.get());
+        verify(this.redis, times(1)).get(eq(1), any(Callable.class));
+    }
+
+    @Test
+    void getWithLoader_WhenLoaderFails_ShouldNotKeepFailedLoad() {
+        //Arrange
+        Callable<String> failing = () -> {
+            throw new IllegalStateException("db is down");
+        };
+
+        //Act
+        assertThrows(Cache.ValueRetrievalException.class, () -> this.nearCache.get(1, failing));
+        String result = this.nearCache.get(1, () -> "product");
+
+        //Assert
+        assertEquals("product", result);
+    }
+
+    @Test
+    void getWithLoader_WhenDistributedLoadIsDisabled_ShouldLoadWithoutRedisLock() {
+        //Arrange
+        NearCache nearCache = new NearCache(this.redis, 2, Duration.ofMinutes(1), (cacheName, key) -> {}, false);
+
+        //Act
+        String result = nearCache.get(1, () -> "product");
+
+        //Assert
+        assertEquals("product", result);
+        assertEquals("product", this.redis.get(1).get());
+        verify(this.redis, never()).get(eq(1), any(Callable.class));
+    }
+
+    @Test
+    void clear_ShouldPublishNullKey() {
+        //Act
+        this.nearCache.clear();
+
+        //Assert
+        assertEquals(1, this.publishedKeys.size());
+        assertNull(this.publishedKeys.getFirst());
+    }
+}
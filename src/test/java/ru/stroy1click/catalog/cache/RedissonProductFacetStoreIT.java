@@ -0,0 +1,56 @@
+package ru.stroy1click.catalog.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+import ru.stroy1click.catalog.infrastructure.cache.RedissonProductFacetStore;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+public class RedissonProductFacetStoreIT {
+
+    @Autowired
+    private RedissonProductFacetStore productFacetStore;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @AfterEach
+    void tearDown() {
+        this.productFacetStore.endRebuild();
+        this.redissonClient.getKeys().deleteByPattern("catalog:facets*");
+    }
+
+    @Test
+    public void increment_WhenCalledTwice_ShouldSumDeltas() {
+        //Act
+        this.productFacetStore.increment(Map.of("category:1", Map.of("inStock:true", 2L)));
+        this.productFacetStore.increment(Map.of("category:1", Map.of("inStock:true", -1L, "inStock:false", 1L)));
+
+        //Assert
+        assertEquals(Map.of("inStock:true", 1L, "inStock:false", 1L), this.productFacetStore.get("category:1"));
+    }
+
+    @Test
+    public void increment_WhenRebuildIsRunning_ShouldBeKeptAfterReplace() {
+        //Arrange
+        assertTrue(this.productFacetStore.beginRebuild());
+
+        //Act
+        //изменение зафиксировано во время чтения базы, пересчитанные счётчики его ещё не видят
+        this.productFacetStore.increment(Map.of("category:1", Map.of("inStock:true", 1L)));
+        this.productFacetStore.replaceAll(Map.of("category:1", Map.of("inStock:true", 5L)));
+
+        //Assert
+        assertEquals(Map.of("inStock:true", 6L), this.productFacetStore.get("category:1"));
+    }
+}
@@ -0,0 +1,44 @@
+package ru.stroy1click.catalog.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.stroy1click.catalog.infrastructure.cache.VersionedCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedCacheManagerTest {
+
+    @Test
+    void getCache_ShouldReadAndWriteUnderVersionedName() {
+        //Arrange
+        ConcurrentMapCacheManager redis = new ConcurrentMapCacheManager("product", "product:v2");
+        redis.getCache("product").put(1, "written by the previous build");
+        VersionedCacheManager cacheManager = new VersionedCacheManager(redis, "v2");
+
+        //Act
+        Cache cache = cacheManager.getCache("product");
+        cache.put(2, "current");
+
+        //Assert
+        assertEquals("product:v2", cache.getName());
+        assertNull(cache.get(1));
+        assertEquals("current", redis.getCache("product:v2").get(2).get());
+    }
+
+    @Test
+    void getCacheNames_ShouldReturnNamesWithoutVersion() {
+        //Arrange
+        VersionedCacheManager cacheManager = new VersionedCacheManager(
+                new ConcurrentMapCacheManager("product", "product:v2", "category:v2"), "v2");
+
+        //Act
+        List<String> names = List.copyOf(cacheManager.getCacheNames());
+
+        //Assert
+        assertEquals(2, names.size());
+        assertTrue(names.containsAll(List.of("product", "category")));
+    }
+}
@@ -1,11 +1,13 @@
 package ru.stroy1click.catalog.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.DynamicPropertyRegistrar;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.kafka.KafkaContainer;
 import org.testcontainers.utility.DockerImageName;
 
@@ -31,13 +33,27 @@ public class TestcontainersConfiguration {
     }
 
     @Bean
-    public DynamicPropertyRegistrar properties(GenericContainer<?> redisContainer) {
+    public static GenericContainer<?> minioContainer() {
+        return new GenericContainer<>("minio/minio:RELEASE.2025-04-22T22-12-26Z")
+                .withCommand("server", "/data")
+                .withExposedPorts(9000)
+                .waitingFor(Wait.forHttp("/minio/health/live").forPort(9000));
+    }
+
+    @Bean
+    public DynamicPropertyRegistrar properties(@Qualifier("redisContainer") GenericContainer<?> redisContainer,
+                                               @Qualifier("minioContainer") GenericContainer<?> minioContainer) {
         return (registry) -> {
             String redissonHost = redisContainer.getHost();
             Integer redissonPort =  redisContainer.getMappedPort(6379);
 
             registry.add("redisson.host", () -> redissonHost);
             registry.add("redisson.port", () -> redissonPort);
+
+            registry.add("s3.storage-url", () -> "http://" + minioContainer.getHost() + ":" + minioContainer.getMappedPort(9000));
+            registry.add("s3.access-key", () -> "minioadmin");
+            registry.add("s3.secret-key", () -> "minioadmin");
+            registry.add("s3.region", () -> "us-east-1");
         };
     }
 }
@@ -64,7 +64,7 @@ class CategoryControllerIT {
     @Test
     public void create_WhenValidDataProvided_ShouldReturnCreatedCategoryDto() {
         //Arrange
-        CategoryDto dto = new CategoryDto(null, "Image link", "Cement");
+        CategoryDto dto = new CategoryDto(null, "Image link", "Cement", null);
         HttpEntity<CategoryDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -81,7 +81,7 @@ class CategoryControllerIT {
     @Test
     public void create_WhenCategoryAlreadyExists_ShouldThrowAlreadyExistsException() {
         //Arrange
-        CategoryDto dto = new CategoryDto(null, "Image link", "Water");
+        CategoryDto dto = new CategoryDto(null, "Image link", "Water", null);
         HttpEntity<CategoryDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -96,7 +96,7 @@ class CategoryControllerIT {
     @Test
     public void update_WhenCategoryExistsAndValidDataProvided_ShouldReturnOk() {
         //Arrange
-        CategoryDto dto = new CategoryDto(null, "Image link", "New Category");
+        CategoryDto dto = new CategoryDto(null, "Image link", "New Category", null);
         HttpEntity<CategoryDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -115,7 +115,7 @@ class CategoryControllerIT {
     @Test
     public void update_WhenCategoryAlreadyExists_ShouldThrowAlreadyExistsException() {
         //Arrange
-        CategoryDto dto = new CategoryDto(null, "Image link", "Water");
+        CategoryDto dto = new CategoryDto(null, "Image link", "Water", null);
         HttpEntity<CategoryDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -130,7 +130,7 @@ class CategoryControllerIT {
     @Test
     public void update_WhenTitleIsEmpty_ShouldThrowValidationException() {
         //Arrange
-        CategoryDto dto = new CategoryDto(null, "Image link", "");
+        CategoryDto dto = new CategoryDto(null, "Image link", "", null);
         HttpEntity<CategoryDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -13,12 +13,19 @@ import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.stroy1click.catalog.api.controller.CategoryController;
 import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.category.dto.CategoryTreeSnapshot;
 import ru.stroy1click.catalog.domain.category.service.CategoryService;
+import ru.stroy1click.catalog.domain.category.service.CategoryTreeService;
 import ru.stroy1click.catalog.domain.category.validator.CategoryCreateValidator;
 import ru.stroy1click.catalog.domain.category.validator.CategoryUpdateValidator;
 import ru.stroy1click.common.validator.ImageValidator;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = CategoryController.class)
 public class CategoryControllerTest {
@@ -38,10 +45,81 @@ public class CategoryControllerTest {
     @MockitoBean
     private ImageValidator imageValidator;
 
+    @MockitoBean
+    private CategoryTreeService categoryTreeService;
+
+    @Test
+    public void getTree_ShouldReturnPreSerializedTreeWithEtag() throws Exception {
+        //Arrange
+        byte[] body = "[{\"id\":1,\"title\":\"Water\"}]".getBytes(StandardCharsets.UTF_8);
+        when(this.categoryTreeService.getTree()).thenReturn(new CategoryTreeSnapshot(body, "\"abc\""));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/categories/tree");
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals("\"abc\"", result.getResponse().getHeader("ETag"));
+        assertArrayEquals(body, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void getTree_WhenEtagMatches_ShouldReturnNotModified() throws Exception {
+        //Arrange
+        byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+        when(this.categoryTreeService.getTree()).thenReturn(new CategoryTreeSnapshot(body, "\"abc\""));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/categories/tree")
+                .header("If-None-Match", "\"abc\"");
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(304, result.getResponse().getStatus());
+        assertEquals(0, result.getResponse().getContentLength());
+    }
+
+    @Test
+    public void getCategories_WhenVersionsAreUnchanged_ShouldReturnSameEtagAndNotModified() throws Exception {
+        //Arrange
+        when(this.categoryService.getAll()).thenReturn(List.of(
+                new CategoryDto(1, "water.png", "Water", 2L),
+                new CategoryDto(2, "milk.png", "Milk", 0L)
+        ));
+        MvcResult first = this.mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/categories")).andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/categories")
+                .header("If-None-Match", etag);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(200, first.getResponse().getStatus());
+        assertEquals(304, result.getResponse().getStatus());
+        assertEquals(0, result.getResponse().getContentLength());
+    }
+
+    @Test
+    public void get_WhenVersionChanged_ShouldReturnBodyWithNewEtag() throws Exception {
+        //Arrange
+        when(this.categoryService.get(1)).thenReturn(new CategoryDto(1, "water.png", "Water", 3L));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/categories/1")
+                .header("If-None-Match", "\"1-2\"");
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals("\"1-3\"", result.getResponse().getHeader("ETag"));
+    }
+
     @Test
     public void create_WhenTitleIsEmpty_ShouldThrowValidationException() throws Exception {
         //Arrange
-        CategoryDto dto = new CategoryDto(null, "", "s");
+        CategoryDto dto = new CategoryDto(null, "", "s", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/v1/categories")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -64,7 +142,7 @@ public class CategoryControllerTest {
     @Test
     public void update_WhenTitleIsEmpty_ShouldThrowValidationException() throws Exception {
         //Arrange
-        CategoryDto dto = new CategoryDto(null, "", "s");
+        CategoryDto dto = new CategoryDto(null, "", "s", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.patch("/api/v1/categories/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -7,7 +7,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
@@ -15,7 +17,10 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+import ru.stroy1click.catalog.domain.product.dto.ProductBatchDto;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportState;
 import ru.stroy1click.catalog.domain.product.image.dto.ProductImageDto;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
 import ru.stroy1click.common.dto.Unit;
@@ -24,6 +29,8 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -51,6 +58,47 @@ public class ProductControllerIT {
         assertEquals("First Product", response.getBody().getTitle());
     }
 
+    @Test
+    public void get_WhenEtagMatches_ShouldReturnNotModified() {
+        //Arrange
+        ResponseEntity<ProductDto> first =
+                this.testRestTemplate.getForEntity("/api/v1/products/1", ProductDto.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+
+        //Act
+        ResponseEntity<String> response = this.testRestTemplate.exchange(
+                "/api/v1/products/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //Assert
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void export_ShouldStreamProductsAsNdjson() {
+        //Act
+        ResponseEntity<String> response =
+                this.testRestTemplate.getForEntity("/api/v1/products/export", String.class);
+
+        //Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertTrue(response.getBody().lines().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
+    }
+
+    @Test
+    public void search_WhenQueryMatchesTitle_ShouldReturnMatchingProducts() {
+        //Act
+        ResponseEntity<String> response =
+                this.testRestTemplate.getForEntity("/api/v1/products/search?q=second", String.class);
+
+        //Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertTrue(response.getBody().contains("Second Product"));
+        assertFalse(response.getBody().contains("Third Product"));
+    }
+
     @Test
     public void get_WhenProductDoesNotExist_ShouldThrowNotFoundException() {
         //Act
@@ -65,7 +113,7 @@ public class ProductControllerIT {
     @Test
     public void create_WhenValidDataProvided_ShouldReturnOk() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"111 Product","Description", BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1);
+        ProductDto dto = new ProductDto(null,"111 Product","Description", BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1, null);
 
         //Act
         ResponseEntity<ProductDto> response = this.testRestTemplate.
@@ -76,10 +124,58 @@ public class ProductControllerIT {
         assertEquals("111 Product", response.getBody().getTitle());
     }
 
+    @Test
+    public void createAll_WhenValidBatchProvided_ShouldCreateAllProducts() {
+        //Arrange
+        ProductBatchDto batch = new ProductBatchDto(List.of(
+                new ProductDto(null, "Batch Product 1", "Description", BigDecimal.valueOf(10.00), Unit.KG, true, 1, 1, 1, null),
+                new ProductDto(null, "Batch Product 2", "Description", BigDecimal.valueOf(20.00), Unit.KG, false, 1, 1, 1, null)
+        ));
+
+        //Act
+        ResponseEntity<ProductDto[]> response = this.testRestTemplate
+                .postForEntity("/api/v1/products/batch", batch, ProductDto[].class);
+
+        //Assert
+        assertEquals(201, response.getStatusCode().value());
+        assertEquals(2, response.getBody().length);
+        assertTrue(response.getBody()[0].getId() < response.getBody()[1].getId());
+    }
+
+    @Test
+    public void importCsv_WhenFileIsValid_ShouldMergeProductsByTitle() throws InterruptedException {
+        //Arrange
+        String csv = """
+                title,description,price,unit,in_stock,category,subcategory,product_type
+                Imported Product 1,"Description, first",15.50,KG,true,Water,T-shirts,Orange T-Shirt
+                Imported Product 2,Description,25,KG,false,Water,T-shirts,Orange T-Shirt
+                Imported Product 3,Description,35,KG,true,Unknown,T-shirts,Orange T-Shirt
+                Imported Product 1,Description,16,KG,true,Water,T-shirts,Orange T-Shirt
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+        //Act
+        ResponseEntity<ProductImportDto> started = this.testRestTemplate
+                .postForEntity("/api/v1/products/import", new HttpEntity<>(csv, headers), ProductImportDto.class);
+        ProductImportDto result = started.getBody();
+        for (int attempt = 0; attempt < 50 && result.getFinishedAt() == null; attempt++) {
+            Thread.sleep(200);
+            result = this.testRestTemplate.getForObject(started.getHeaders().getLocation(), ProductImportDto.class);
+        }
+
+        //Assert
+        assertEquals(202, started.getStatusCode().value());
+        assertEquals(ProductImportState.COMPLETED, result.getState());
+        assertEquals(4, result.getRowsRead());
+        assertEquals(1, result.getRowsRejected());
+        assertEquals(2, result.getCreated());
+    }
+
     @Test
     public void create_WhenProductAlreadyExists_ShouldThrowAlreadyExistsException() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"First Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1);
+        ProductDto dto = new ProductDto(null,"First Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1, null);
         HttpEntity<ProductDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -94,7 +190,7 @@ public class ProductControllerIT {
     @Test
     public void update_WhenProductExistsAndValidDataProvided_ShouldReturnOk() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"Updated Product 1","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1);
+        ProductDto dto = new ProductDto(null,"Updated Product 1","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1, null);
 
         //Act
         ResponseEntity<String> response = this.testRestTemplate.
@@ -109,7 +205,7 @@ public class ProductControllerIT {
     @Test
     public void update_WhenProductAlreadyExists_ShouldThrowAlreadyExistsException() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"First Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1);
+        ProductDto dto = new ProductDto(null,"First Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1, null);
         HttpEntity<ProductDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -135,7 +231,7 @@ public class ProductControllerIT {
     @Test
     public void update_WhenProductDtoTitleIsEmpty_ShouldThrowValidationException() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1);
+        ProductDto dto = new ProductDto(null,"","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,1, null);
 
         //Act
         ResponseEntity<ProblemDetail> response = this.testRestTemplate
@@ -148,7 +244,7 @@ public class ProductControllerIT {
     @Test
     public void update_WhenProductDtoPriceIsNegative_ShouldThrowValidationException() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(-200.00), Unit.KG,true,1,1,1);
+        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(-200.00), Unit.KG,true,1,1,1, null);
 
         //Arrange
         ResponseEntity<ProblemDetail> response = this.testRestTemplate
@@ -161,7 +257,7 @@ public class ProductControllerIT {
     @Test
     public void update_WhenProductDtoInStockIsNull_ShouldThrowValidationException() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(200.00), Unit.KG,null,1,1,1);
+        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(200.00), Unit.KG,null,1,1,1, null);
 
         //Act
         ResponseEntity<ProblemDetail> response = this.testRestTemplate
@@ -174,7 +270,7 @@ public class ProductControllerIT {
     @Test
     public void update_WhenProductDtoCategoryIdIsNull_ShouldThrowValidationException() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,null,1,1);
+        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,null,1,1, null);
 
         //Act
         ResponseEntity<ProblemDetail> response = this.testRestTemplate
@@ -187,7 +283,7 @@ public class ProductControllerIT {
     @Test
     public void update_WhenProductDtoSubcategoryIdIsNull_ShouldThrowValidationException() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,null,1);
+        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,null,1, null);
 
         //Act
         ResponseEntity<ProblemDetail> response = this.testRestTemplate
@@ -200,7 +296,7 @@ public class ProductControllerIT {
     @Test
     public void update_WhenProductDtoProductTypeIdIsNull_ShouldThrowValidationException() {
         //Arrange
-        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,null);
+        ProductDto dto = new ProductDto(null,"Third Product","Description",BigDecimal.valueOf(200.00), Unit.KG,true,1,1,null, null);
 
         //Act
         ResponseEntity<ProblemDetail> response = this.testRestTemplate
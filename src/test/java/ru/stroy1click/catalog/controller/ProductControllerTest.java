@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -11,19 +12,39 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.stroy1click.catalog.api.controller.ProductController;
+import ru.stroy1click.catalog.domain.common.dto.JsonBody;
+import ru.stroy1click.catalog.domain.product.dto.ProductBatchDto;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportState;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
 import ru.stroy1click.catalog.domain.product.image.service.ProductImageService;
+import ru.stroy1click.catalog.domain.product.service.ProductExportService;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetService;
+import ru.stroy1click.catalog.domain.product.service.ProductImportService;
+import ru.stroy1click.catalog.domain.product.service.ProductJsonService;
 import ru.stroy1click.catalog.domain.product.service.ProductPaginationService;
 import ru.stroy1click.catalog.domain.product.service.ProductService;
+import ru.stroy1click.catalog.domain.product.service.ProductSuggestService;
 import ru.stroy1click.catalog.domain.product.validator.ProductCreateValidator;
 import ru.stroy1click.catalog.domain.product.validator.ProductUpdateValidator;
 import ru.stroy1click.common.dto.Unit;
 import ru.stroy1click.common.validator.ImageValidator;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = ProductController.class)
 public class ProductControllerTest {
@@ -49,6 +70,78 @@ public class ProductControllerTest {
     @MockitoBean
     private ImageValidator imageValidator;
 
+    @MockitoBean
+    private ProductExportService productExportService;
+
+    @MockitoBean
+    private ProductSuggestService productSuggestService;
+
+    @MockitoBean
+    private ProductFacetService productFacetService;
+
+    @MockitoBean
+    private ProductImportService productImportService;
+
+    @MockitoBean
+    private ProductJsonService productJsonService;
+
+    @MockitoBean
+    private ImageMetadataService imageMetadataService;
+
+    @Autowired
+    private ProductController productController;
+
+    @Test
+    public void get_WhenJsonPassthroughEnabledAndGzipAccepted_ShouldWriteCachedGzipBytes() throws Exception {
+        //Arrange
+        byte[] json = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        byte[] gzip = {31, -117, 8, 0};
+        when(this.productJsonService.get(1)).thenReturn(new JsonBody(1, 2L, json, gzip));
+        ReflectionTestUtils.setField(this.productController, "jsonPassthrough", true);
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products/1")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        //Act
+        MvcResult result;
+        try {
+            result = this.mockMvc.perform(requestBuilder).andReturn();
+        } finally {
+            ReflectionTestUtils.setField(this.productController, "jsonPassthrough", false);
+        }
+
+        //Assert
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals("gzip", result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"1-2-gz\"", result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, result.getResponse().getHeader(HttpHeaders.VARY));
+        assertArrayEquals(gzip, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void get_WhenJsonPassthroughEnabledAndGzipRefused_ShouldWritePlainJsonWithOwnETag() throws Exception {
+        //Arrange
+        byte[] json = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        byte[] gzip = {31, -117, 8, 0};
+        when(this.productJsonService.get(1)).thenReturn(new JsonBody(1, 2L, json, gzip));
+        ReflectionTestUtils.setField(this.productController, "jsonPassthrough", true);
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products/1")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity");
+
+        //Act
+        MvcResult result;
+        try {
+            result = this.mockMvc.perform(requestBuilder).andReturn();
+        } finally {
+            ReflectionTestUtils.setField(this.productController, "jsonPassthrough", false);
+        }
+
+        //Assert
+        assertEquals(200, result.getResponse().getStatus());
+        assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"1-2\"", result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(json, result.getResponse().getContentAsByteArray());
+    }
+
     @Test
     public void create_WhenProductDtoTitleIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
@@ -218,4 +311,210 @@ public class ProductControllerTest {
         assertEquals(400, status);
         assertEquals("Id типа продукта не может быть пустым", problemDetail.getDetail());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getProductsByPagination_WhenMinPriceGreaterThanMaxPrice_ShouldThrowValidationException() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products")
+                .param("categoryId", "1")
+                .param("minPrice", "200")
+                .param("maxPrice", "100")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        String string = result.getResponse().getContentAsString();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(string, ProblemDetail.class);
+        int status = result.getResponse().getStatus();
+
+        //Assert
+        assertEquals(400, status);
+        assertEquals("Минимальная цена не может быть больше максимальной", problemDetail.getDetail());
+    }
+
+    @Test
+    public void getProductsByPagination_WhenSortFieldIsUnknown_ShouldThrowValidationException() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products")
+                .param("categoryId", "1")
+                .param("sort", "description")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        String string = result.getResponse().getContentAsString();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(string, ProblemDetail.class);
+        int status = result.getResponse().getStatus();
+
+        //Assert
+        assertEquals(400, status);
+        assertEquals("Сортировка возможна по id, price или title в направлении asc или desc", problemDetail.getDetail());
+    }
+
+    @Test
+    public void getProductsByCursor_WhenSizeIsNotPositive_ShouldThrowValidationException() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products")
+                .param("categoryId", "1")
+                .param("after", "")
+                .param("size", "0")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        String string = result.getResponse().getContentAsString();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(string, ProblemDetail.class);
+        int status = result.getResponse().getStatus();
+
+        //Assert
+        assertEquals(400, status);
+        assertEquals("Размер страницы должен быть от 1 до 100", problemDetail.getDetail());
+        verifyNoInteractions(this.productPaginationService);
+    }
+
+    @Test
+    public void getProductsByCursor_WhenSizeExceedsMaximum_ShouldThrowValidationException() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products")
+                .param("categoryId", "1")
+                .param("after", "")
+                .param("size", String.valueOf(Integer.MAX_VALUE))
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        String string = result.getResponse().getContentAsString();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(string, ProblemDetail.class);
+        int status = result.getResponse().getStatus();
+
+        //Assert
+        assertEquals(400, status);
+        assertEquals("Размер страницы должен быть от 1 до 100", problemDetail.getDetail());
+        verifyNoInteractions(this.productPaginationService);
+    }
+
+    @Test
+    public void search_WhenSizeIsNotPositive_ShouldThrowValidationException() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products/search")
+                .param("q", "дрель")
+                .param("size", "0")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        String string = result.getResponse().getContentAsString();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(string, ProblemDetail.class);
+        int status = result.getResponse().getStatus();
+
+        //Assert
+        assertEquals(400, status);
+        assertEquals("Размер страницы должен быть от 1 до 100", problemDetail.getDetail());
+        verifyNoInteractions(this.productPaginationService);
+    }
+
+    @Test
+    public void search_WhenPageIsNegative_ShouldThrowValidationException() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products/search")
+                .param("q", "дрель")
+                .param("page", "-1")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        String string = result.getResponse().getContentAsString();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(string, ProblemDetail.class);
+        int status = result.getResponse().getStatus();
+
+        //Assert
+        assertEquals(400, status);
+        assertEquals("Некорректный номер страницы", problemDetail.getDetail());
+        verifyNoInteractions(this.productPaginationService);
+    }
+
+    @Test
+    public void search_WhenQueryIsBlank_ShouldThrowValidationException() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products/search")
+                .param("q", "   ")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        String string = result.getResponse().getContentAsString();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(string, ProblemDetail.class);
+        int status = result.getResponse().getStatus();
+
+        //Assert
+        assertEquals(400, status);
+        assertEquals("Поисковый запрос должен быть непустым и не длиннее 200 символов", problemDetail.getDetail());
+    }
+
+    @Test
+    public void suggest_WhenLimitIsTooLarge_ShouldClampIt() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/products/suggest")
+                .param("q", "кирп")
+                .param("limit", "1000")
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(200, result.getResponse().getStatus());
+        verify(this.productSuggestService).suggest("кирп", 50);
+    }
+
+    @Test
+    public void updateAll_WhenProductIdIsMissing_ShouldThrowValidationException() throws Exception {
+        //Arrange
+        ProductDto dto = ProductDto.builder()
+                .title("Title")
+                .description("description")
+                .inStock(true)
+                .price(BigDecimal.ONE)
+                .unit(Unit.KG)
+                .categoryId(1)
+                .subcategoryId(1)
+                .productTypeId(1)
+                .build();
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.patch("/api/v1/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(new ProductBatchDto(List.of(dto))));
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        String string = result.getResponse().getContentAsString();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(string, ProblemDetail.class);
+        int status = result.getResponse().getStatus();
+
+        //Assert
+        assertEquals(400, status);
+        assertEquals("У каждого продукта в пакете должен быть указан id", problemDetail.getDetail());
+    }
+
+    @Test
+    public void importCsv_ShouldReturnAcceptedWithImportLocation() throws Exception {
+        //Arrange
+        UUID id = UUID.randomUUID();
+        when(this.productImportService.start(any())).thenReturn(ProductImportDto.builder()
+                .id(id)
+                .state(ProductImportState.QUEUED)
+                .errors(List.of())
+                .build());
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/v1/products/import")
+                .contentType("text/csv")
+                .accept(MediaType.APPLICATION_JSON)
+                .content("title,description,price,unit,in_stock,category,subcategory,product_type\n");
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(202, result.getResponse().getStatus());
+        assertEquals("/api/v1/products/import/" + id, result.getResponse().getHeader("Location"));
+    }
+}
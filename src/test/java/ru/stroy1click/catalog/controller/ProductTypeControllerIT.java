@@ -64,7 +64,7 @@ class ProductTypeControllerIT {
     @Test
     public void create_WhenValidDataProvided_ShouldReturnOk() {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, 1, "Image link", "Cheese");
+        ProductTypeDto dto = new ProductTypeDto(null, 1, "Image link", "Cheese", null);
         HttpEntity<ProductTypeDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -80,7 +80,7 @@ class ProductTypeControllerIT {
     @Test
     public void create_WhenProductTypeAlreadyExists_ShouldThrowAlreadyExistsException() {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, 1, "Image link", "Orange T-Shirt");
+        ProductTypeDto dto = new ProductTypeDto(null, 1, "Image link", "Orange T-Shirt", null);
         HttpEntity<ProductTypeDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -95,7 +95,7 @@ class ProductTypeControllerIT {
     @Test
     public void update_WhenValidDataProvidedAndProductTypeExists_WhenValid() {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, 1, "Image link", "New ProductType");
+        ProductTypeDto dto = new ProductTypeDto(null, 1, "Image link", "New ProductType", null);
         HttpEntity<ProductTypeDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -112,7 +112,7 @@ class ProductTypeControllerIT {
     @Test
     public void update_WhenProductTypeAlreadyExists_ShouldThrowAlreadyExistsException() {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, 1, "Image link", "Orange T-Shirt");
+        ProductTypeDto dto = new ProductTypeDto(null, 1, "Image link", "Orange T-Shirt", null);
         HttpEntity<ProductTypeDto> request = new HttpEntity<>(dto);
 
         //Act
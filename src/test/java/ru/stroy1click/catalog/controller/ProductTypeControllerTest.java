@@ -41,7 +41,7 @@ public class ProductTypeControllerTest {
     @Test
     void create_WhenProductTypeDtoTitleIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, 1, "image", "");
+        ProductTypeDto dto = new ProductTypeDto(null, 1, "image", "", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/v1/product-types")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -61,7 +61,7 @@ public class ProductTypeControllerTest {
     @Test
     void create_WhenProductTypeDtoSubcategoryIdIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, null, "image", "Title");
+        ProductTypeDto dto = new ProductTypeDto(null, null, "image", "Title", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/v1/product-types")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -81,7 +81,7 @@ public class ProductTypeControllerTest {
     @Test
     void create_WhenProductTypeDtoSubcategoryIdIsNegative_ShouldReturnValidationException() throws Exception {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, -1, "image", "Title");
+        ProductTypeDto dto = new ProductTypeDto(null, -1, "image", "Title", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/v1/product-types")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -102,7 +102,7 @@ public class ProductTypeControllerTest {
     @Test
     public void update_WhenProductTypeDtoTitleIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, 1, "image", "");
+        ProductTypeDto dto = new ProductTypeDto(null, 1, "image", "", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.patch("/api/v1/product-types/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -122,7 +122,7 @@ public class ProductTypeControllerTest {
     @Test
     void update_WhenProductTypeDtoSubcategoryIdIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, null, "image", "Title");
+        ProductTypeDto dto = new ProductTypeDto(null, null, "image", "Title", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.patch("/api/v1/product-types/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -143,7 +143,7 @@ public class ProductTypeControllerTest {
     @Test
     void update_WhenProductTypeDtoSubcategoryIdIsNegative_ShouldReturnValidationException() throws Exception {
         //Arrange
-        ProductTypeDto dto = new ProductTypeDto(null, -1, "image", "Title");
+        ProductTypeDto dto = new ProductTypeDto(null, -1, "image", "Title", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.patch("/api/v1/product-types/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -0,0 +1,99 @@
+package ru.stroy1click.catalog.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+import ru.stroy1click.catalog.domain.common.dto.ImageUploadRequest;
+import ru.stroy1click.catalog.domain.common.dto.PresignedUrlDto;
+import ru.stroy1click.catalog.domain.product.image.dto.ProductImageDto;
+import ru.stroy1click.catalog.infrastructure.prop.StorageProperties;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class StorageControllerIT {
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private S3Client s3Client;
+
+    @Autowired
+    private StorageProperties storageProperties;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setUp() {
+        try {
+            this.s3Client.createBucket(builder -> builder.bucket(this.storageProperties.getBucketName()));
+        } catch (BucketAlreadyOwnedByYouException ignored) {
+        }
+    }
+
+    @Test
+    public void presignedUpload_WhenUploadedAndConfirmed_ShouldAssignImageAndServeItByPresignedUrl() throws Exception {
+        //Arrange
+        byte[] image = "not really a png".getBytes(StandardCharsets.UTF_8);
+        ImageUploadRequest request = new ImageUploadRequest("image.png", "image/png", (long) image.length);
+
+        //Act
+        PresignedUrlDto upload = this.testRestTemplate
+                .postForEntity("/api/v1/products/2/images/presign", request, PresignedUrlDto.class)
+                .getBody();
+        HttpRequest.Builder put = HttpRequest.newBuilder(URI.create(upload.getUrl()))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(image));
+        upload.getHeaders().forEach((name, value) -> {
+            if (!name.equalsIgnoreCase("content-length")) {
+                put.header(name, value);
+            }
+        });
+        HttpResponse<Void> putResponse = this.httpClient.send(put.build(), HttpResponse.BodyHandlers.discarding());
+        ResponseEntity<String> confirm = this.testRestTemplate
+                .postForEntity("/api/v1/products/2/images/confirm?key={key}", null, String.class, upload.getKey());
+        ProductImageDto[] images = this.testRestTemplate
+                .getForEntity("/api/v1/products/2/images", ProductImageDto[].class)
+                .getBody();
+        PresignedUrlDto download = this.testRestTemplate
+                .getForEntity("/api/v1/storage/{fileName}/presigned", PresignedUrlDto.class, upload.getKey())
+                .getBody();
+        HttpResponse<byte[]> getResponse = this.httpClient.send(
+                HttpRequest.newBuilder(URI.create(download.getUrl())).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        //Assert
+        assertTrue(upload.getKey().startsWith("product-2_"));
+        assertEquals(200, putResponse.statusCode());
+        assertTrue(confirm.getStatusCode().is2xxSuccessful());
+        assertTrue(Arrays.stream(images).anyMatch(dto -> dto.getLink().equals(upload.getKey())));
+        assertEquals(200, getResponse.statusCode());
+        assertEquals(new String(image, StandardCharsets.UTF_8), new String(getResponse.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void confirmImage_WhenObjectWasNotUploaded_ShouldReturnNotFound() {
+        //Act
+        ResponseEntity<String> response = this.testRestTemplate
+                .postForEntity("/api/v1/products/2/images/confirm?key={key}", null, String.class, "product-2_missing.png");
+
+        //Assert
+        assertEquals(404, response.getStatusCode().value());
+    }
+}
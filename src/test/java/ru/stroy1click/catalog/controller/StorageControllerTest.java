@@ -0,0 +1,179 @@
+package ru.stroy1click.catalog.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ProblemDetail;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.stroy1click.catalog.api.controller.StorageController;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+import ru.stroy1click.catalog.domain.common.dto.StoredFile;
+import ru.stroy1click.catalog.domain.common.service.StorageService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+@WebMvcTest(controllers = StorageController.class)
+public class StorageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private StorageService storageService;
+
+    @Test
+    public void downloadFile_WhenRangeRequested_ShouldStreamPartialContentWithStoredContentType() throws Exception {
+        //Arrange
+        byte[] part = "PNG".getBytes(StandardCharsets.UTF_8);
+        when(this.storageService.downloadImage("1_image.png", null, "bytes=1-3", null)).thenReturn(new StoredFile(
+                StoredFile.Status.PARTIAL, new ByteArrayInputStream(part), "image/png", 3L, "\"abc\"", "bytes 1-3/100"));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/storage/1_image.png")
+                .header(HttpHeaders.RANGE, "bytes=1-3");
+
+        //Act
+        MvcResult asyncResult = this.mockMvc.perform(requestBuilder).andReturn();
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+        //Assert
+        assertEquals(206, result.getResponse().getStatus());
+        assertEquals("image/png", result.getResponse().getContentType());
+        assertEquals("bytes 1-3/100", result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("\"abc\"", result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(part, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void downloadFile_WhenSeveralRangesRequested_ShouldRequestWholeFile() throws Exception {
+        //Arrange
+        byte[] data = "image".getBytes(StandardCharsets.UTF_8);
+        when(this.storageService.downloadImage("1_image.jpg", null, null, null)).thenReturn(new StoredFile(
+                StoredFile.Status.FULL, new ByteArrayInputStream(data), "binary/octet-stream", 5L, "\"abc\"", null));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/storage/1_image.jpg")
+                .header(HttpHeaders.RANGE, "bytes=0-1,3-4");
+
+        //Act
+        MvcResult asyncResult = this.mockMvc.perform(requestBuilder).andReturn();
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+        //Assert
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals("image/jpeg", result.getResponse().getContentType());
+        assertArrayEquals(data, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void downloadFile_WhenEtagMatches_ShouldReturnNotModified() throws Exception {
+        //Arrange
+        when(this.storageService.downloadImage("1_image.png", null, null, "\"abc\"")).thenReturn(new StoredFile(
+                StoredFile.Status.NOT_MODIFIED, null, null, null, "\"abc\"", null));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/storage/1_image.png")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc\"");
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(304, result.getResponse().getStatus());
+        assertEquals(0, result.getResponse().getContentLength());
+        assertNull(result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void downloadFile_WhenKeyIsContentAddressed_ShouldReturnImmutableCacheControl() throws Exception {
+        //Arrange
+        when(this.storageService.downloadImage("sha256-abc.png", null, null, "\"abc\"")).thenReturn(new StoredFile(
+                StoredFile.Status.NOT_MODIFIED, null, null, null, "\"abc\"", null));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/storage/sha256-abc.png")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc\"");
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(304, result.getResponse().getStatus());
+        assertEquals("max-age=31536000, public, immutable", result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void downloadFile_WhenVariantRequested_ShouldRequestVariant() throws Exception {
+        //Arrange
+        byte[] data = "thumbnail".getBytes(StandardCharsets.UTF_8);
+        when(this.storageService.downloadImage("1_image.jpg", ImageVariant.THUMBNAIL, null, null)).thenReturn(new StoredFile(
+                StoredFile.Status.FULL, new ByteArrayInputStream(data), "image/jpeg", 9L, "\"def\"", null));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/storage/1_image.jpg")
+                .param("variant", "thumbnail");
+
+        //Act
+        MvcResult asyncResult = this.mockMvc.perform(requestBuilder).andReturn();
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+        //Assert
+        assertEquals(200, result.getResponse().getStatus());
+        assertArrayEquals(data, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void downloadFile_WhenVariantIsUnknown_ShouldReturnValidationException() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/storage/1_image.jpg")
+                .param("variant", "huge");
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+        ProblemDetail problemDetail = new ObjectMapper().readValue(result.getResponse().getContentAsString(), ProblemDetail.class);
+
+        //Assert
+        assertEquals(400, result.getResponse().getStatus());
+        assertEquals("Ошибка валидации", problemDetail.getTitle());
+    }
+
+    @Test
+    public void downloadFile_WhenRangeIsNotSatisfiable_ShouldReturnContentRangeWithSize() throws Exception {
+        //Arrange
+        when(this.storageService.downloadImage("1_image.png", null, "bytes=200-300", null)).thenReturn(new StoredFile(
+                StoredFile.Status.RANGE_NOT_SATISFIABLE, null, null, null, null, "bytes */100"));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/storage/1_image.png")
+                .header(HttpHeaders.RANGE, "bytes=200-300");
+
+        //Act
+        MvcResult result = this.mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        assertEquals(416, result.getResponse().getStatus());
+        assertEquals("bytes */100", result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void downloadFile_WhenFileIsCachedOnDisk_ShouldTransferRequestedRegion() throws Exception {
+        //Arrange
+        Path path = Files.createTempFile("image", ".bin");
+        Files.write(path, "0123456789".getBytes(StandardCharsets.UTF_8));
+        when(this.storageService.downloadImage("1_image.png", null, "bytes=2-5", null)).thenReturn(new StoredFile(
+                StoredFile.Status.PARTIAL, null, "image/png", 4L, "\"abc\"", "bytes 2-5/10", path, 2));
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/v1/storage/1_image.png")
+                .header(HttpHeaders.RANGE, "bytes=2-5");
+
+        //Act
+        MvcResult asyncResult = this.mockMvc.perform(requestBuilder).andReturn();
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+        Files.delete(path);
+
+        //Assert
+        assertEquals(206, result.getResponse().getStatus());
+        assertEquals("2345", result.getResponse().getContentAsString());
+    }
+}
@@ -65,7 +65,7 @@ class SubcategoryControllerIT {
     @Test
     public void create_WhenProvidedDataIsValid_ShouldReturnCreatedSubcategory() {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, 1, "image.png", "Cement");
+        SubcategoryDto dto = new SubcategoryDto(null, 1, "image.png", "Cement", null);
         HttpEntity<SubcategoryDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -80,7 +80,7 @@ class SubcategoryControllerIT {
     @Test
     public void create_WhenSubcategoryAlreadyExists_ShouldThrowAlreadyExistsException() {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, 1, "image.png", "T-shirts");
+        SubcategoryDto dto = new SubcategoryDto(null, 1, "image.png", "T-shirts", null);
         HttpEntity<SubcategoryDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -95,7 +95,7 @@ class SubcategoryControllerIT {
     @Test
     public void update_WhenValidDataProvidedAndSubcategoryExists_ShouldReturnOk() {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, 1, "image.png", "New Subcategory");
+        SubcategoryDto dto = new SubcategoryDto(null, 1, "image.png", "New Subcategory", null);
         HttpEntity<SubcategoryDto> request = new HttpEntity<>(dto);
 
         //Act
@@ -114,7 +114,7 @@ class SubcategoryControllerIT {
     @Test
     public void update_WhenSubcategoryAlreadyExists_ShouldThrowAlreadyExistsException() {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, 1, "image.png", "T-shirts");
+        SubcategoryDto dto = new SubcategoryDto(null, 1, "image.png", "T-shirts", null);
         HttpEntity<SubcategoryDto> request = new HttpEntity<>(dto);
 
         //Act
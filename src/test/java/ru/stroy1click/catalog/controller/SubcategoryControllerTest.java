@@ -41,7 +41,7 @@ public class SubcategoryControllerTest {
     @Test
     public void create_WhenSubcategoryDtoTitleIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, 1, "image", "");
+        SubcategoryDto dto = new SubcategoryDto(null, 1, "image", "", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/v1/subcategories")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -61,7 +61,7 @@ public class SubcategoryControllerTest {
     @Test
     public void create_WhenSubcategoryDtoCategoryIdIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, null, "image", "Title");
+        SubcategoryDto dto = new SubcategoryDto(null, null, "image", "Title", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/v1/subcategories")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -81,7 +81,7 @@ public class SubcategoryControllerTest {
     @Test
     public void create_WhenSubcategoryDtoCategoryIdIsNegative_ShouldReturnValidationException() throws Exception {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, 1, "image", "");
+        SubcategoryDto dto = new SubcategoryDto(null, 1, "image", "", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/v1/subcategories")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -101,7 +101,7 @@ public class SubcategoryControllerTest {
     @Test
     public void update_WhenSubcategoryDtoTitleIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, 1, "image", "");
+        SubcategoryDto dto = new SubcategoryDto(null, 1, "image", "", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.patch("/api/v1/subcategories/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -121,7 +121,7 @@ public class SubcategoryControllerTest {
     @Test
     public void update_WhenSubcategoryDtoCategoryIdIsEmpty_ShouldReturnValidationException() throws Exception {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, null, "image", "Title");
+        SubcategoryDto dto = new SubcategoryDto(null, null, "image", "Title", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.patch("/api/v1/subcategories/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -141,7 +141,7 @@ public class SubcategoryControllerTest {
     @Test
     public void update_WhenSubcategoryDtoCategoryIdIsNegative_ShouldReturnValidationException() throws Exception {
         //Arrange
-        SubcategoryDto dto = new SubcategoryDto(null, -1, "image", "Title");
+        SubcategoryDto dto = new SubcategoryDto(null, -1, "image", "Title", null);
         RequestBuilder requestBuilder = MockMvcRequestBuilders.patch("/api/v1/subcategories/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
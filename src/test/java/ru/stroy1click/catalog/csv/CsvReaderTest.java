@@ -0,0 +1,60 @@
+package ru.stroy1click.catalog.csv;
+
+import org.junit.jupiter.api.Test;
+import ru.stroy1click.catalog.domain.common.csv.CsvReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void next_WhenFieldsAreQuoted_ShouldKeepDelimitersQuotesAndLineBreaks() throws IOException {
+        //Arrange
+        CsvReader reader = new CsvReader(new StringReader("""
+                "Кирпич, красный","Размер ""НФ""
+                250х120х65",12.50
+                """), ',');
+
+        //Act
+        List<String> record = reader.next();
+
+        //Assert
+        assertEquals(List.of("Кирпич, красный", "Размер \"НФ\"\n250х120х65", "12.50"), record);
+        assertEquals(1, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_WhenLinesEndWithCrLf_ShouldCountFileLines() throws IOException {
+        //Arrange
+        CsvReader reader = new CsvReader(new StringReader("\uFEFFtitle;price\r\n\"a\nb\";1\r\nc;2"), ';');
+
+        //Act
+        List<String> header = reader.next();
+        List<String> first = reader.next();
+        List<String> second = reader.next();
+
+        //Assert
+        assertEquals(List.of("title", "price"), header);
+        assertEquals(List.of("a\nb", "1"), first);
+        assertEquals(List.of("c", "2"), second);
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_WhenFieldIsEmpty_ShouldReturnEmptyString() throws IOException {
+        //Arrange
+        CsvReader reader = new CsvReader(new StringReader("a,,\"\"\n"), ',');
+
+        //Act
+        List<String> record = reader.next();
+
+        //Assert
+        assertEquals(List.of("a", "", ""), record);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.stroy1click.catalog.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Оценка зависит от статистики, поэтому проверяется только то, что план разобран и число разумное
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@Transactional
+public class ProductEstimateRepositoryIT {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void estimateCount_WhenFilterHasAllConditions_ShouldReturnPlannerEstimate() {
+        //Arrange
+        this.jdbcTemplate.execute("analyze catalog.products");
+        ProductFilter filter = new ProductFilter(1, 1, 1, true, BigDecimal.ONE, BigDecimal.valueOf(1_000));
+        long total = this.productRepository.count();
+
+        //Act
+        long estimate = this.productRepository.estimateCount(filter);
+
+        //Assert
+        assertTrue(estimate >= 1 && estimate <= total, () -> estimate + " of " + total);
+    }
+}
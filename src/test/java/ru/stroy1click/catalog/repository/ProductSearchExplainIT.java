@@ -0,0 +1,74 @@
+package ru.stroy1click.catalog.repository;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.stroy1click.catalog.config.TestcontainersConfiguration;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Запросы повторяют форму SQL, который строит ProductIdRepositoryImpl по ProductFilter.
+//В тестовой базе мало строк, поэтому seq scan запрещается: если подходящего индекса нет,
+//планировщик всё равно выберет seq scan
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@Transactional
+public class ProductSearchExplainIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "select p.id from catalog.products p where p.category_id = 1 order by p.id limit 21;" +
+                    "products_category_id_id_idx",
+            "select p.id from catalog.products p where p.subcategory_id = 1 order by p.id limit 21;" +
+                    "products_subcategory_id_id_idx",
+            "select p.id from catalog.products p where p.product_type_id = 1 order by p.id limit 21;" +
+                    "products_product_type_id_id_idx",
+            "select p.id from catalog.products p where p.category_id = 1 and p.id > 10 order by p.id limit 21;" +
+                    "products_category_id_id_idx",
+            "select p.id from catalog.products p where p.category_id = 1 order by p.price, p.id limit 21;" +
+                    "products_category_id_price_id_idx",
+            "select p.id from catalog.products p where p.category_id = 1 order by p.price desc, p.id desc limit 21;" +
+                    "products_category_id_price_id_idx",
+            "select p.id from catalog.products p where p.subcategory_id = 1 order by p.title, p.id limit 21;" +
+                    "products_subcategory_id_title_id_idx",
+            "select p.id from catalog.products p where p.product_type_id = 1 order by p.title desc, p.id desc limit 21;" +
+                    "products_product_type_id_title_id_idx",
+            "select p.id from catalog.products p where p.category_id = 1 and p.in_stock = true order by p.id limit 21;" +
+                    "products_category_id_id_idx",
+            "select p.id from catalog.products p where p.subcategory_id = 1 and p.price >= 100 and p.price <= 200 " +
+                    "order by p.price, p.id limit 21;" +
+                    "products_subcategory_id_price_id_idx",
+            //в следующих двух запросах планировщик волен выбрать любой подходящий индекс иерархии
+            "select p.id from catalog.products p where p.category_id = 1 and p.subcategory_id = 1 and p.product_type_id = 1 " +
+                    "and p.in_stock = true and p.price >= 100 and p.price <= 200 order by p.price, p.id limit 21;" +
+                    "products_(category|subcategory|product_type)_id_(price_)?id_idx",
+            "select count(p.id) from catalog.products p where p.product_type_id = 1 and p.in_stock = true and p.price >= 100;" +
+                    "products_product_type_id_(price_)?id_idx"
+    })
+    public void search_WhenFilterCombinationIsSupported_ShouldUseFilterIndex(String sql, String expectedIndex) {
+        //Arrange
+        this.jdbcTemplate.execute("set local enable_seqscan = off");
+
+        //Act
+        List<String> plan = this.jdbcTemplate.queryForList("explain " + sql, String.class);
+
+        //Assert
+        //полный проход по products_pkey тоже не Seq Scan, поэтому проверяется имя индекса
+        //и то, что фильтр по иерархии стал условием индекса, а не Filter после чтения
+        String text = String.join("\n", plan);
+        assertTrue(Pattern.compile("(Index Scan|Index Only Scan|Bitmap Index Scan) (Backward )?(using|on) " + expectedIndex + " ")
+                .matcher(text).find(), () -> text);
+        assertTrue(Pattern.compile("Index Cond: .*(category_id|subcategory_id|product_type_id) = 1")
+                .matcher(text).find(), () -> text);
+    }
+}
@@ -7,15 +7,16 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.multipart.MultipartFile;
 import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
 import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.catalog.domain.category.entity.Category;
-import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
 import ru.stroy1click.catalog.domain.category.mapper.CategoryMapper;
-import ru.stroy1click.catalog.domain.subcategory.mapper.SubcategoryMapper;
 import ru.stroy1click.catalog.domain.category.repository.CategoryRepository;
 import ru.stroy1click.catalog.domain.category.service.impl.CategoryServiceImpl;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
 import ru.stroy1click.common.event.CategoryCreatedEvent;
 import ru.stroy1click.common.event.CategoryDeletedEvent;
@@ -43,10 +44,13 @@ class CategoryServiceTest {
     private CategoryMapper categoryMapper;
 
     @Mock
-    private SubcategoryMapper subcategoryMapper;
+    private StorageService storageService;
 
     @Mock
-    private StorageService storageService;
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Mock
     private OutboxEventService outboxEventService;
@@ -70,7 +74,7 @@ class CategoryServiceTest {
                 .image("image.png")
                 .build();
 
-        categoryDto = new CategoryDto(1, "image.png", "Electronics");
+        categoryDto = new CategoryDto(1, "image.png", "Electronics", null);
     }
 
     @Test
@@ -146,7 +150,7 @@ class CategoryServiceTest {
     @Test
     public void update_WhenValidData_ShouldUpdateExistingCategoryAndSaveOutboxEvent() {
         //Arrange
-        CategoryDto updatedDto = new CategoryDto(1, "image.png", "New Title");
+        CategoryDto updatedDto = new CategoryDto(1, "image.png", "New Title", null);
         when(this.categoryRepository.findById(1)).thenReturn(Optional.of(category));
 
         //Act
@@ -204,6 +208,7 @@ class CategoryServiceTest {
         //Assert
         assertThat(category.getImage()).isEqualTo("newImage.png");
         verify(this.storageService).uploadImage(file);
+        verify(this.imageDerivativeService).submit("newImage.png", file);
     }
 
     @Test
@@ -227,7 +232,8 @@ class CategoryServiceTest {
 
         //Assert
         assertThat(category.getImage()).isNull();
-        verify(this.storageService).deleteImage("image.png");
+        verify(this.applicationEventPublisher).publishEvent(new ImageReleasedEvent("image.png"));
+        verify(this.storageService, never()).deleteImage(anyString());
     }
 
     @Test
@@ -246,28 +252,24 @@ class CategoryServiceTest {
     @Test
     public void getSubcategories_WhenCategoryExists_ShouldReturnListOfDtos() {
         //Arrange
-        List<Subcategory> subcategories = List.of(new Subcategory(1,"title 1", "image 1",
-                category, List.of(), List.of()),  new Subcategory(2,"title 2", "image 2",
-                category, List.of(), List.of()));
-        List<SubcategoryDto> subcategoryDtos = List.of(new SubcategoryDto(1, 1,"image 1", "title 1"),
-                new SubcategoryDto(2, 1,"image 2", "title 2"));
-        category.setSubcategories(subcategories);
-        when(this.categoryRepository.findById(1)).thenReturn(Optional.of(category));
-        when(this.subcategoryMapper.toDto(subcategories)).thenReturn(subcategoryDtos);
+        List<SubcategoryDto> subcategoryDtos = List.of(new SubcategoryDto(1, 1,"image 1", "title 1", null),
+                new SubcategoryDto(2, 1,"image 2", "title 2", null));
+        when(this.categoryRepository.existsById(1)).thenReturn(true);
+        when(this.categoryRepository.findSubcategoryDtosByCategoryId(1)).thenReturn(subcategoryDtos);
 
         //Act
         List<SubcategoryDto> result = this.categoryService.getSubcategories(1);
 
         //Assert
-        verify(this.categoryRepository).findById(1);
-        verify(this.subcategoryMapper).toDto(subcategories);
+        verify(this.categoryRepository).findSubcategoryDtosByCategoryId(1);
+        verify(this.categoryRepository, never()).findById(1);
         assertEquals(2, result.size());
     }
 
     @Test
     public void getSubcategories_WhenCategoryDoesNotExist_ShouldThrowNotFoundException() {
         //Arrange
-        when(this.categoryRepository.findById(999)).thenReturn(Optional.empty());
+        when(this.categoryRepository.existsById(999)).thenReturn(false);
 
         //Act & Assert
         assertThatThrownBy(() -> this.categoryService.getSubcategories(999))
@@ -0,0 +1,141 @@
+package ru.stroy1click.catalog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.category.dto.CategoryTreeSnapshot;
+import ru.stroy1click.catalog.domain.category.event.CategoryTreeChangedEvent;
+import ru.stroy1click.catalog.domain.category.repository.CategoryRepository;
+import ru.stroy1click.catalog.domain.category.service.CategoryTreeBroadcaster;
+import ru.stroy1click.catalog.domain.category.service.impl.CategoryTreeServiceImpl;
+import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
+import ru.stroy1click.catalog.domain.producttype.repository.ProductTypeRepository;
+import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
+import ru.stroy1click.catalog.domain.subcategory.repository.SubcategoryRepository;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryTreeServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubcategoryRepository subcategoryRepository;
+
+    @Mock
+    private ProductTypeRepository productTypeRepository;
+
+    @Mock
+    private CategoryTreeBroadcaster categoryTreeBroadcaster;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CategoryTreeServiceImpl categoryTreeService;
+
+    @BeforeEach
+    void setUp() {
+        this.categoryTreeService = new CategoryTreeServiceImpl(this.categoryRepository, this.subcategoryRepository,
+                this.productTypeRepository, this.categoryTreeBroadcaster, this.objectMapper,
+                this.transactionManager, Duration.ofMillis(50));
+
+        when(this.categoryRepository.findAllDtos()).thenReturn(List.of(
+                new CategoryDto(1, "water.png", "Water", null),
+                new CategoryDto(2, "milk.png", "Milk", null)
+        ));
+        when(this.subcategoryRepository.findAllDtos()).thenReturn(List.of(
+                new SubcategoryDto(10, 1, "still.png", "Still", null),
+                new SubcategoryDto(11, 99, "orphan.png", "Orphan", null)
+        ));
+        when(this.productTypeRepository.findAllDtos()).thenReturn(List.of(
+                new ProductTypeDto(100, 10, "bottle.png", "Bottle", null)
+        ));
+    }
+
+    @Test
+    void getTree_ShouldNestSubcategoriesAndProductTypesAndSkipOrphans() throws Exception {
+        //Act
+        CategoryTreeSnapshot tree = this.categoryTreeService.getTree();
+
+        //Assert
+        JsonNode json = this.objectMapper.readTree(tree.body());
+        assertEquals(2, json.size());
+        assertEquals(1, json.get(0).get("subcategories").size());
+        assertEquals("Bottle", json.get(0).get("subcategories").get(0).get("productTypes").get(0).get("title").asText());
+        assertEquals(0, json.get(1).get("subcategories").size());
+        assertTrue(tree.etag().startsWith("\""));
+    }
+
+    @Test
+    void getTree_WhenSnapshotExists_ShouldNotQueryDatabaseAgain() {
+        //Act
+        this.categoryTreeService.getTree();
+        this.categoryTreeService.getTree();
+
+        //Assert
+        verify(this.categoryRepository, times(1)).findAllDtos();
+    }
+
+    @Test
+    void onCategoryTreeChanged_WhenLocalChange_ShouldRebuildAndBroadcast() {
+        //Arrange
+        CategoryTreeSnapshot before = this.categoryTreeService.getTree();
+        when(this.categoryRepository.findAllDtos()).thenReturn(List.of(new CategoryDto(1, "water.png", "Water", null)));
+
+        //Act
+        this.categoryTreeService.onCategoryTreeChanged(new CategoryTreeChangedEvent(false));
+
+        //Assert
+        verify(this.categoryTreeBroadcaster, timeout(1000)).broadcastChanged();
+        assertNotEquals(before.etag(), this.categoryTreeService.getTree().etag());
+    }
+
+    @Test
+    void onCategoryTreeChanged_WhenRemoteChange_ShouldRebuildWithoutBroadcast() {
+        //Act
+        this.categoryTreeService.onCategoryTreeChanged(new CategoryTreeChangedEvent(true));
+
+        //Assert
+        verify(this.categoryRepository, timeout(1000)).findAllDtos();
+        verifyNoInteractions(this.categoryTreeBroadcaster);
+    }
+
+    @Test
+    void onCategoryTreeChanged_WhenEventsArriveTogether_ShouldRebuildOnceAndBroadcastOnce() throws Exception {
+        //Act
+        for (int i = 0; i < 20; i++) {
+            this.categoryTreeService.onCategoryTreeChanged(new CategoryTreeChangedEvent(i % 2 == 0));
+        }
+
+        //Assert
+        verify(this.categoryTreeBroadcaster, timeout(1000)).broadcastChanged();
+        Thread.sleep(100);
+        verify(this.categoryRepository, times(1)).findAllDtos();
+        verify(this.categoryTreeBroadcaster, times(1)).broadcastChanged();
+    }
+
+    @Test
+    void getTree_ShouldReadHierarchyInOneRepeatableReadTransaction() {
+        //Act
+        this.categoryTreeService.getTree();
+
+        //Assert
+        verify(this.transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+    }
+}
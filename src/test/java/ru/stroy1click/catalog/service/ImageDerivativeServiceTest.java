@@ -0,0 +1,143 @@
+package ru.stroy1click.catalog.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+import ru.stroy1click.catalog.domain.common.dto.StoredObjectInfo;
+import ru.stroy1click.catalog.domain.common.service.StorageService;
+import ru.stroy1click.catalog.domain.common.service.impl.ImageDerivativeServiceImpl;
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDerivativeServiceTest {
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private ImageMetadataService imageMetadataService;
+
+    @InjectMocks
+    private ImageDerivativeServiceImpl imageDerivativeService;
+
+    @Test
+    public void generate_WhenImageIsLarge_ShouldStoreAllVariantsWithinTheirSize() throws Exception {
+        //Arrange
+        byte[] image = encode(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "jpeg");
+
+        //Act
+        this.imageDerivativeService.generate("1_image.jpg", image);
+
+        //Assert
+        for (ImageVariant variant : ImageVariant.values()) {
+            ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+            verify(this.storageService).uploadImageVariant(eq("1_image.jpg"), eq(variant), captor.capture(), eq("image/jpeg"));
+            BufferedImage derivative = ImageIO.read(new ByteArrayInputStream(captor.getValue()));
+            assertEquals(variant.getMaxSide(), derivative.getWidth());
+            assertEquals(variant.getMaxSide() / 2, derivative.getHeight());
+        }
+    }
+
+    @Test
+    public void generate_WhenImageIsSmallerThanVariant_ShouldNotUpscale() throws Exception {
+        //Arrange
+        byte[] image = encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB), "png");
+
+        //Act
+        this.imageDerivativeService.generate("1_image.png", image);
+
+        //Assert
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(this.storageService).uploadImageVariant(eq("1_image.png"), eq(ImageVariant.FULL), captor.capture(), eq("image/png"));
+        assertEquals(300, ImageIO.read(new ByteArrayInputStream(captor.getValue())).getWidth());
+    }
+
+    @Test
+    public void generate_WhenDimensionsAreUnknown_ShouldRecordThem() throws Exception {
+        //Arrange
+        byte[] image = encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB), "jpeg");
+        when(this.imageMetadataService.get("product-1_a.jpg"))
+                .thenReturn(Optional.of(ImageMetadataDto.builder().link("product-1_a.jpg").build()));
+
+        //Act
+        this.imageDerivativeService.generate("product-1_a.jpg", image);
+
+        //Assert
+        verify(this.imageMetadataService).updateDimensions("product-1_a.jpg", 300, 200);
+    }
+
+    @Test
+    public void generate_WhenFileIsNotAnImage_ShouldSkipVariants() {
+        //Act
+        this.imageDerivativeService.generate("1_image.png", "dummy content".getBytes(StandardCharsets.UTF_8));
+
+        //Assert
+        verify(this.storageService, never()).uploadImageVariant(anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    public void generate_WhenImageDeclaresTooManyPixels_ShouldSkipWithoutDecoding() throws Exception {
+        //Arrange
+        byte[] image = withDimensions(encode(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png"), 100_000, 100_000);
+
+        //Act
+        this.imageDerivativeService.generate("1_image.png", image);
+
+        //Assert
+        verify(this.storageService, never()).uploadImageVariant(anyString(), any(), any(), anyString());
+        verifyNoInteractions(this.imageMetadataService);
+    }
+
+    @Test
+    public void submit_WhenDerivativesAlreadyExist_ShouldNotDownloadOriginal() {
+        //Arrange
+        String fileName = "sha256-ab.png";
+        when(this.storageService.head(ImageVariant.THUMBNAIL.key(fileName)))
+                .thenReturn(Optional.of(new StoredObjectInfo(ImageVariant.THUMBNAIL.key(fileName), "image/png", 10L, "\"t\"")));
+
+        //Act
+        this.imageDerivativeService.submit(fileName);
+
+        //Assert
+        verify(this.storageService, timeout(1000)).head(ImageVariant.THUMBNAIL.key(fileName));
+        verify(this.storageService, never()).downloadImage(anyString(), any(), any(), any());
+        verify(this.storageService, never()).uploadImageVariant(anyString(), any(), any(), anyString());
+    }
+
+    //подменяет размеры в заголовке IHDR: сигнатура PNG - 8 байт, затем длина и тип чанка
+    private byte[] withDimensions(byte[] png, int width, int height) {
+        ByteBuffer buffer = ByteBuffer.wrap(png);
+        buffer.putInt(16, width);
+        buffer.putInt(20, height);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        buffer.putInt(29, (int) crc.getValue());
+        return png;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+package ru.stroy1click.catalog.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.common.service.StorageService;
+import ru.stroy1click.catalog.domain.common.service.impl.ImageReferenceServiceImpl;
+import ru.stroy1click.catalog.domain.product.image.repository.ProductImageRepository;
+
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageReferenceServiceTest {
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private StorageService storageService;
+
+    @InjectMocks
+    private ImageReferenceServiceImpl imageReferenceService;
+
+    @Test
+    public void onImageReleased_WhenImageIsStillReferenced_ShouldKeepObject() {
+        //Arrange
+        when(this.productImageRepository.countReferences("sha256-abc.png")).thenReturn(1L);
+        when(this.storageService.deleteImageIfUnused(eq("sha256-abc.png"), any()))
+                .thenAnswer(invocation -> !invocation.<Predicate<String>>getArgument(1).test("sha256-abc.png"));
+
+        //Act
+        this.imageReferenceService.onImageReleased(new ImageReleasedEvent("sha256-abc.png"));
+
+        //Assert
+        verify(this.storageService, never()).deleteImage(anyString());
+    }
+
+    @Test
+    public void onImageReleased_WhenLastReferenceIsRemoved_ShouldDeleteObjectUnderStorageCheck() {
+        //Arrange
+        when(this.productImageRepository.countReferences("sha256-abc.png")).thenReturn(0L);
+        ArgumentCaptor<Predicate<String>> isReferenced = ArgumentCaptor.forClass(Predicate.class);
+        when(this.storageService.deleteImageIfUnused(eq("sha256-abc.png"), isReferenced.capture())).thenReturn(true);
+
+        //Act
+        this.imageReferenceService.onImageReleased(new ImageReleasedEvent("sha256-abc.png"));
+
+        //Assert
+        assertFalse(isReferenced.getValue().test("sha256-abc.png"));
+    }
+}
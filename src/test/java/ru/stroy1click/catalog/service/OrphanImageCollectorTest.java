@@ -0,0 +1,180 @@
+package ru.stroy1click.catalog.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import ru.stroy1click.catalog.domain.common.service.ImageReferenceService;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
+import ru.stroy1click.catalog.infrastructure.prop.StorageProperties;
+import ru.stroy1click.catalog.infrastructure.storage.DiskImageCache;
+import ru.stroy1click.catalog.infrastructure.storage.ImageKeyLocks;
+import ru.stroy1click.catalog.infrastructure.storage.OrphanImageCollector;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanImageCollectorTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private ImageReferenceService imageReferenceService;
+
+    @Mock
+    private ImageMetadataService imageMetadataService;
+
+    @Mock
+    private DiskImageCache diskImageCache;
+
+    @Mock
+    private ImageKeyLocks imageKeyLocks;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrphanImageCollector orphanImageCollector;
+
+    private final static String ORPHAN = "sha256-" + "a".repeat(64) + ".png";
+
+    private final static String ORPHAN_THUMBNAIL = "variants/thumbnail/" + ORPHAN;
+
+    private final static String REFERENCED = "product-1_abc_photo.png";
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setBucketName("bucket");
+        lenient().when(this.imageKeyLocks.lock(anyString())).thenAnswer(invocation -> new ReentrantLock());
+        this.orphanImageCollector = new OrphanImageCollector(this.s3Client, storageProperties, this.imageReferenceService,
+                this.imageMetadataService, this.diskImageCache, this.imageKeyLocks, this.redissonClient, this.meterRegistry,
+                true, Duration.ofHours(24), 3);
+    }
+
+    @Test
+    public void collect_WhenBucketHasOrphans_ShouldDeleteOnlyOldUnreferencedCatalogObjects() {
+        //Arrange
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        when(this.s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+            ListObjectsV2Request request = invocation.getArgument(0);
+            if (request.continuationToken() == null) {
+                return ListObjectsV2Response.builder()
+                        .contents(object(ORPHAN, 100, old), object(ORPHAN_THUMBNAIL, 10, old), object(REFERENCED, 50, old))
+                        .isTruncated(true)
+                        .nextContinuationToken("next")
+                        .build();
+            }
+            return ListObjectsV2Response.builder()
+                    //свежая загрузка и чужой объект в общем бакете
+                    .contents(object("1700000000000_new.png", 20, Instant.now()), object("documents/contract.pdf", 30, old))
+                    .isTruncated(false)
+                    .build();
+        });
+        when(this.imageReferenceService.findReferenced(Set.of(ORPHAN, REFERENCED))).thenReturn(Set.of(REFERENCED));
+        when(this.imageReferenceService.findReferenced(Set.of(ORPHAN))).thenReturn(Set.of());
+        when(this.s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder()
+                .deleted(DeletedObject.builder().key(ORPHAN).build(), DeletedObject.builder().key(ORPHAN_THUMBNAIL).build())
+                .build());
+
+        //Act
+        long result = this.orphanImageCollector.collect();
+
+        //Assert
+        assertEquals(2, result);
+        ArgumentCaptor<DeleteObjectsRequest> captor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(this.s3Client).deleteObjects(captor.capture());
+        assertEquals(Set.of(ORPHAN, ORPHAN_THUMBNAIL), captor.getValue().delete().objects().stream()
+                .map(ObjectIdentifier::key)
+                .collect(Collectors.toSet()));
+        verify(this.imageMetadataService).deleteAll(List.of(ORPHAN, ORPHAN_THUMBNAIL));
+        verify(this.diskImageCache).invalidate(ORPHAN);
+        assertEquals(2, this.meterRegistry.get("catalog.images.gc.deleted").counter().count());
+        assertEquals(110, this.meterRegistry.get("catalog.images.gc.reclaimed").counter().count());
+    }
+
+    @Test
+    public void collect_WhenOldObjectWasJustReusedByUpload_ShouldNotDelete() {
+        //Arrange
+        when(this.s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(ListObjectsV2Response.builder()
+                .contents(object(ORPHAN, 100, Instant.now().minus(Duration.ofDays(2))))
+                .isTruncated(false)
+                .build());
+        when(this.imageReferenceService.findReferenced(Set.of(ORPHAN))).thenReturn(Set.of());
+        when(this.imageMetadataService.findUsedSince(eq(Set.of(ORPHAN)), any(Instant.class))).thenReturn(Set.of(ORPHAN));
+
+        //Act
+        long result = this.orphanImageCollector.collect();
+
+        //Assert
+        assertEquals(0, result);
+        verify(this.s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    public void collect_WhenUploadHoldsKeyLock_ShouldSkipObjectUntilNextRun() throws Exception {
+        //Arrange
+        ReentrantLock busy = new ReentrantLock();
+        Thread uploader = Thread.ofVirtual().start(busy::lock);
+        uploader.join();
+        when(this.imageKeyLocks.lock(ORPHAN)).thenReturn(busy);
+        when(this.s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(ListObjectsV2Response.builder()
+                .contents(object(ORPHAN, 100, Instant.now().minus(Duration.ofDays(2))))
+                .isTruncated(false)
+                .build());
+        when(this.imageReferenceService.findReferenced(Set.of(ORPHAN))).thenReturn(Set.of());
+
+        //Act
+        long result = this.orphanImageCollector.collect();
+
+        //Assert
+        assertEquals(0, result);
+        verify(this.s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    public void collect_WhenEverythingIsReferenced_ShouldNotDelete() {
+        //Arrange
+        when(this.s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(ListObjectsV2Response.builder()
+                .contents(object(REFERENCED, 50, Instant.now().minus(Duration.ofDays(2))))
+                .isTruncated(false)
+                .build());
+        when(this.imageReferenceService.findReferenced(Set.of(REFERENCED))).thenReturn(Set.of(REFERENCED));
+
+        //Act
+        long result = this.orphanImageCollector.collect();
+
+        //Assert
+        assertEquals(0, result);
+        verify(this.s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    private S3Object object(String key, long size, Instant lastModified) {
+        return S3Object.builder().key(key).size(size).lastModified(lastModified).build();
+    }
+}
@@ -0,0 +1,93 @@
+package ru.stroy1click.catalog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.impl.ProductExportServiceImpl;
+import ru.stroy1click.common.dto.Unit;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void exportAll_WhenProductsExist_ShouldWriteOneJsonObjectPerLineAndCloseStream() throws Exception {
+        //Arrange
+        ProductDto first = new ProductDto(1, "First", "Description", BigDecimal.TEN, Unit.KG, true, 1, 1, 1, null);
+        ProductDto second = new ProductDto(2, "Second", "Description", BigDecimal.ONE, Unit.KG, false, 1, 1, 1, null);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(this.productRepository.streamAllDtos())
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        ProductExportServiceImpl productExportService =
+                new ProductExportServiceImpl(this.productRepository, this.objectMapper);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //Act
+        productExportService.exportAll(outputStream);
+
+        //Assert
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("{"));
+        assertEquals(first, this.objectMapper.readValue(lines[0], ProductDto.class));
+        assertEquals(second, this.objectMapper.readValue(lines[1], ProductDto.class));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportAll_WhenManyProducts_ShouldFlushInBatchesNotPerRow() throws Exception {
+        //Arrange
+        when(this.productRepository.streamAllDtos()).thenReturn(IntStream.rangeClosed(1, 1200)
+                .mapToObj(id -> new ProductDto(id, "Product", "Description", BigDecimal.TEN, Unit.KG, true, 1, 1, 1, null)));
+        ProductExportServiceImpl productExportService =
+                new ProductExportServiceImpl(this.productRepository, this.objectMapper);
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        //Act
+        productExportService.exportAll(outputStream);
+
+        //Assert
+        assertEquals(1200, outputStream.toString(StandardCharsets.UTF_8).split("\n").length);
+        assertTrue(flushes.get() < 10, () -> "flushes: " + flushes.get());
+    }
+
+    @Test
+    void exportAll_WhenNoProducts_ShouldWriteNothing() throws Exception {
+        //Arrange
+        when(this.productRepository.streamAllDtos()).thenReturn(Stream.empty());
+        ProductExportServiceImpl productExportService =
+                new ProductExportServiceImpl(this.productRepository, this.objectMapper);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //Act
+        productExportService.exportAll(outputStream);
+
+        //Assert
+        assertEquals(0, outputStream.size());
+    }
+}
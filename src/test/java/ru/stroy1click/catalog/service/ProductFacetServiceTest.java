@@ -0,0 +1,133 @@
+package ru.stroy1click.catalog.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFacetsDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetStore;
+import ru.stroy1click.catalog.domain.product.service.impl.ProductFacetServiceImpl;
+import ru.stroy1click.common.dto.Unit;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductFacetStore productFacetStore;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ProductFacetServiceImpl productFacetService;
+
+    @Test
+    void getFacets_WhenSubcategoryFilterProvided_ShouldReadSubcategoryScope() {
+        //Arrange
+        when(this.productFacetStore.get("subcategory:2")).thenReturn(Map.of(
+                "subcategory:2", 5L,
+                "productType:7", 3L,
+                "productType:8", 0L,
+                "inStock:true", 4L,
+                "price:1000-5000", 2L,
+                "price:0-500", 3L
+        ));
+
+        //Act
+        ProductFacetsDto result = this.productFacetService.getFacets(
+                ProductFilter.builder().categoryId(1).subcategoryId(2).build());
+
+        //Assert
+        assertEquals(Map.of(2, 5L), result.getSubcategories());
+        assertEquals(Map.of(7, 3L), result.getProductTypes());
+        assertEquals(Map.of(true, 4L), result.getInStock());
+        assertEquals(List.of("0-500", "1000-5000"), List.copyOf(result.getPrices().keySet()));
+    }
+
+    @Test
+    void onCreated_WhenNoTransaction_ShouldIncrementAllScopesImmediately() {
+        //Arrange
+        ProductDto product = product(true, BigDecimal.valueOf(700));
+
+        //Act
+        this.productFacetService.onCreated(product);
+
+        //Assert
+        Map<String, Long> fields = Map.of("subcategory:2", 1L, "productType:3", 1L, "inStock:true", 1L, "price:500-1000", 1L);
+        verify(this.productFacetStore).increment(Map.of(
+                "category:1", fields,
+                "subcategory:2", fields,
+                "productType:3", fields
+        ));
+    }
+
+    @Test
+    void onUpdated_WhenOnlyStockChanged_ShouldMoveOnlyStockCounters() {
+        //Act
+        this.productFacetService.onUpdated(product(true, BigDecimal.TEN), product(false, BigDecimal.TEN));
+
+        //Assert
+        Map<String, Long> fields = Map.of("inStock:true", -1L, "inStock:false", 1L);
+        verify(this.productFacetStore).increment(Map.of(
+                "category:1", fields,
+                "subcategory:2", fields,
+                "productType:3", fields
+        ));
+    }
+
+    @Test
+    void onUpdated_WhenFacetValuesDidNotChange_ShouldNotTouchStore() {
+        //Act
+        this.productFacetService.onUpdated(product(true, BigDecimal.TEN), product(true, BigDecimal.ONE));
+
+        //Assert
+        verifyNoInteractions(this.productFacetStore);
+    }
+
+    @Test
+    void rebuild_WhenRunningOnAnotherNode_ShouldSkipScan() {
+        //Arrange
+        when(this.productFacetStore.beginRebuild()).thenReturn(false);
+
+        //Act
+        this.productFacetService.rebuild();
+
+        //Assert
+        verifyNoInteractions(this.transactionTemplate, this.productRepository);
+        verify(this.productFacetStore, never()).replaceAll(any());
+        verify(this.productFacetStore, never()).endRebuild();
+    }
+
+    @Test
+    void rebuild_WhenScanFails_ShouldEndRebuild() {
+        //Arrange
+        when(this.productFacetStore.beginRebuild()).thenReturn(true);
+        doThrow(new IllegalStateException("connection lost")).when(this.transactionTemplate).executeWithoutResult(any());
+
+        //Act
+        assertThrows(IllegalStateException.class, () -> this.productFacetService.rebuild());
+
+        //Assert
+        verify(this.productFacetStore, never()).replaceAll(any());
+        verify(this.productFacetStore).endRebuild();
+    }
+
+    private ProductDto product(boolean inStock, BigDecimal price) {
+        return new ProductDto(10, "Title", "Description", price, Unit.KG, inStock, 1, 2, 3, null);
+    }
+}
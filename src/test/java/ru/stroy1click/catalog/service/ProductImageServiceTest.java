@@ -101,6 +101,19 @@ class ProductImageServiceTest {
         verify(this.cacheClear, never()).clearProductImages(anyInt());
     }
 
+    @Test
+    void createIfAbsent_WhenLinkIsAlreadyAssigned_ShouldReturnFalse() {
+        //Arrange
+        when(this.productImageRepository.insertIfAbsent(1, "link1")).thenReturn(0);
+
+        //Act
+        boolean result = this.productImageService.createIfAbsent(productImageDto);
+
+        //Assert
+        assertFalse(result);
+        verify(this.productImageRepository, never()).save(any());
+    }
+
     @Test
     void create_WhenValidData_ShouldSaveImagesAndClearCache() {
         //Arrange
@@ -174,24 +187,25 @@ class ProductImageServiceTest {
     @Test
     void delete_WhenImageExists_ShouldDeleteEntityAndClearCache() {
         //Arrange
-        when(this.productImageRepository.findByLink("link1")).thenReturn(Optional.of(productImage));
+        Integer productId = productImage.getProduct().getId();
+        when(this.productImageRepository.findByProduct_IdAndLink(productId, "link1")).thenReturn(Optional.of(productImage));
 
         //Act
-        this.productImageService.delete("link1");
+        this.productImageService.delete(productId, "link1");
 
         //Assert
-        verify(this.cacheClear).clearProductImages(productImage.getProduct().getId());
+        verify(this.cacheClear).clearProductImages(productId);
         verify(this.productImageRepository).delete(productImage);
     }
 
     @Test
     void delete_WhenImageDoesNotExist_ShouldThrowNotFoundException() {
         //Arrange
-        when(this.productImageRepository.findByLink("link1")).thenReturn(Optional.empty());
+        when(this.productImageRepository.findByProduct_IdAndLink(1, "link1")).thenReturn(Optional.empty());
 
         //Act
         NotFoundException exception = assertThrows(NotFoundException.class,
-                () -> this.productImageService.delete("link1"));
+                () -> this.productImageService.delete(1, "link1"));
 
         //Assert
         assertEquals("error.product_image.not_found", exception.getMessage());
@@ -0,0 +1,227 @@
+package ru.stroy1click.catalog.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.category.repository.CategoryRepository;
+import ru.stroy1click.catalog.domain.common.cache.CacheClear;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportRow;
+import ru.stroy1click.catalog.domain.product.dto.ProductImportState;
+import ru.stroy1click.catalog.domain.product.repository.ProductImportRepository;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetService;
+import ru.stroy1click.catalog.domain.product.service.ProductImportStore;
+import ru.stroy1click.catalog.domain.product.service.ProductSuggestService;
+import ru.stroy1click.catalog.domain.product.service.impl.ProductImportServiceImpl;
+import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
+import ru.stroy1click.catalog.domain.producttype.repository.ProductTypeRepository;
+import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
+import ru.stroy1click.catalog.domain.subcategory.repository.SubcategoryRepository;
+import ru.stroy1click.common.dto.Unit;
+import ru.stroy1click.common.event.ProductCreatedEvent;
+import ru.stroy1click.common.event.ProductUpdatedEvent;
+import ru.stroy1click.common.exception.NotFoundException;
+import ru.stroy1click.outbox.service.OutboxEventService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductImportRepository productImportRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubcategoryRepository subcategoryRepository;
+
+    @Mock
+    private ProductTypeRepository productTypeRepository;
+
+    @Mock
+    private ProductImportStore productImportStore;
+
+    @Mock
+    private OutboxEventService outboxEventService;
+
+    @Mock
+    private ProductFacetService productFacetService;
+
+    @Mock
+    private ProductSuggestService productSuggestService;
+
+    @Mock
+    private CacheClear cacheClear;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @InjectMocks
+    private ProductImportServiceImpl productImportService;
+
+    private final List<ProductImportRow> staged = new ArrayList<>();
+
+    private final ReentrantLock importLock = new ReentrantLock();
+
+    private final static String HEADER = "title,description,price,unit,in_stock,category,subcategory,product_type\n";
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(this.categoryRepository.findAllDtos()).thenReturn(List.of(new CategoryDto(1, null, "Кирпич", null)));
+        lenient().when(this.subcategoryRepository.findAllDtos()).thenReturn(List.of(new SubcategoryDto(2, 1, null, "Облицовочный", null)));
+        lenient().when(this.productTypeRepository.findAllDtos()).thenReturn(List.of(new ProductTypeDto(3, 2, null, "Красный", null)));
+        lenient().when(this.productImportRepository.stage(any(), any())).thenAnswer(invocation -> {
+            Iterator<ProductImportRow> rows = invocation.getArgument(1);
+            rows.forEachRemaining(this.staged::add);
+            return (long) this.staged.size();
+        });
+        lenient().when(this.productImportStore.lock()).thenReturn(this.importLock);
+        lenient().when(this.transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void importCsv_WhenFileHasValidAndInvalidRows_ShouldStageValidRowsAndMergeThem() {
+        //Arrange
+        String csv = HEADER +
+                "Кирпич М150,\"Размер 250х120х65, полнотелый\",\"1 250,50\",kg,да,кирпич,ОБЛИЦОВОЧНЫЙ,красный\n" +
+                "Кирпич М200,Описание,30,KG,true,Бетон,Облицовочный,Красный\n" +
+                "Кирпич М100,Описание,abc,KG,true,Кирпич,Облицовочный,Красный\n" +
+                "Кирпич М175,Описание,40,KG,false,Кирпич,Облицовочный,Красный\n";
+        when(this.productImportRepository.mergeUpdated(any(), eq(0L), eq(5_000L))).thenReturn(List.of(7));
+        when(this.productImportRepository.mergeCreated(any(), eq(0L), eq(5_000L))).thenReturn(List.of(10));
+        when(this.productRepository.findAllDtosByIdIn(List.of(7))).thenReturn(List.of(product(7, "Кирпич М175")));
+        when(this.productRepository.findAllDtosByIdIn(List.of(10))).thenReturn(List.of(product(10, "Кирпич М150")));
+
+        //Act
+        ProductImportDto result = this.productImportService.importCsv(new StringReader(csv));
+
+        //Assert
+        assertEquals(ProductImportState.COMPLETED, result.getState());
+        assertEquals(4, result.getRowsRead());
+        assertEquals(2, result.getRowsRejected());
+        assertEquals(2, result.getRowsStaged());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(List.of(
+                new ProductImportRow(2, "Кирпич М150", "Размер 250х120х65, полнотелый", new BigDecimal("1250.50"),
+                        Unit.KG, true, 1, 2, 3),
+                new ProductImportRow(5, "Кирпич М175", "Описание", new BigDecimal("40"), Unit.KG, false, 1, 2, 3)
+        ), this.staged);
+        verify(this.outboxEventService).save(eq("product-created-events"), any(ProductCreatedEvent.class));
+        verify(this.outboxEventService).save(eq("product-updated-events"), any(ProductUpdatedEvent.class));
+        verify(this.productImportRepository).deleteStaged(result.getId());
+        verify(this.cacheClear).clearAllProducts();
+        verify(this.productFacetService).rebuild();
+        verify(this.productSuggestService).rebuild();
+    }
+
+    @Test
+    void importCsv_WhenHeaderDoesNotMatch_ShouldFailWithoutStaging() throws Exception {
+        //Arrange
+        String csv = "name,price\nКирпич,10\n";
+
+        //Act
+        ProductImportDto result = this.productImportService.importCsv(new StringReader(csv));
+
+        //Assert
+        assertEquals(ProductImportState.FAILED, result.getState());
+        assertNotNull(result.getFinishedAt());
+        verify(this.productImportRepository, never()).stage(any(), any());
+        verify(this.productImportRepository, never()).mergeCreated(any(), anyLong(), anyLong());
+        verify(this.productFacetService, never()).rebuild();
+        assertFalse(this.importLock.isLocked());
+    }
+
+    @Test
+    void importCsv_WhenMergeFails_ShouldStoreLocalizedErrorInsteadOfExceptionText() {
+        //Arrange
+        String csv = HEADER + "Кирпич М150,Описание,10,KG,true,Кирпич,Облицовочный,Красный\n";
+        when(this.productImportRepository.mergeUpdated(any(), eq(0L), eq(5_000L)))
+                .thenThrow(new IllegalStateException("ERROR: deadlock detected on relation catalog.products"));
+        when(this.messageSource.getMessage("error.product_import.failed", null, Locale.getDefault()))
+                .thenReturn("Импорт прерван из-за внутренней ошибки, уже загруженные строки сохранены");
+
+        //Act
+        ProductImportDto result = this.productImportService.importCsv(new StringReader(csv));
+
+        //Assert
+        assertEquals(ProductImportState.FAILED, result.getState());
+        assertEquals(List.of("Импорт прерван из-за внутренней ошибки, уже загруженные строки сохранены"), result.getErrors());
+    }
+
+    @Test
+    void start_WhenImportCannotBeSaved_ShouldDeleteTempFile() throws Exception {
+        //Arrange
+        doThrow(new IllegalStateException("Redis is down")).when(this.productImportStore).save(any());
+        Path tmp = Path.of(System.getProperty("java.io.tmpdir"));
+        Set<Path> before = importFiles(tmp);
+
+        //Act
+        assertThrows(IllegalStateException.class, () -> this.productImportService.start(
+                new ByteArrayInputStream(HEADER.getBytes(StandardCharsets.UTF_8))));
+
+        //Assert
+        assertEquals(before, importFiles(tmp));
+    }
+
+    @Test
+    void get_WhenImportDoesNotExist_ShouldThrowNotFoundException() {
+        //Arrange
+        UUID id = UUID.randomUUID();
+        when(this.productImportStore.get(id)).thenReturn(Optional.empty());
+
+        //Act & Assert
+        assertThrows(NotFoundException.class, () -> this.productImportService.get(id));
+    }
+
+    private Set<Path> importFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("products-import-"))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private ProductDto product(Integer id, String title) {
+        return new ProductDto(id, title, "Описание", BigDecimal.TEN, Unit.KG, true, 1, 2, 3, null);
+    }
+}
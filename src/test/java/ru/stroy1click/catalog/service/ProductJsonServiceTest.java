@@ -0,0 +1,70 @@
+package ru.stroy1click.catalog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.stroy1click.catalog.domain.common.dto.JsonBody;
+import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.service.ProductService;
+import ru.stroy1click.catalog.domain.product.service.impl.ProductJsonServiceImpl;
+import ru.stroy1click.common.dto.Unit;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductJsonServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ProductJsonServiceImpl productJsonService;
+
+    @Test
+    public void get_WhenProductIsSmall_ShouldReturnJsonWithoutGzip() throws Exception {
+        //Arrange
+        ProductDto product = product("Описание");
+        when(this.productService.get(1)).thenReturn(product);
+
+        //Act
+        JsonBody result = this.productJsonService.get(1);
+
+        //Assert
+        assertEquals(1, result.getId());
+        assertEquals(3L, result.getVersion());
+        assertEquals(product, this.objectMapper.readValue(result.getJson(), ProductDto.class));
+        assertNull(result.getGzip());
+    }
+
+    @Test
+    public void get_WhenProductIsLarge_ShouldReturnGzipOfSameJson() throws Exception {
+        //Arrange
+        when(this.productService.get(1)).thenReturn(product("Описание ".repeat(200)));
+
+        //Act
+        JsonBody result = this.productJsonService.get(1);
+
+        //Assert
+        assertNotNull(result.getGzip());
+        assertTrue(result.getGzip().length < result.getJson().length);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(result.getGzip()))) {
+            assertArrayEquals(result.getJson(), gzip.readAllBytes());
+        }
+    }
+
+    private ProductDto product(String description) {
+        return new ProductDto(1, "Кирпич", description, BigDecimal.TEN, Unit.KG, true, 1, 2, 3, 3L);
+    }
+}
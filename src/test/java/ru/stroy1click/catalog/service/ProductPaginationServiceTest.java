@@ -14,10 +14,16 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import ru.stroy1click.catalog.domain.common.dto.CursorPageResponse;
+import ru.stroy1click.catalog.domain.product.dto.ProductCursor;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
+import ru.stroy1click.catalog.domain.product.dto.ProductFilter;
 import ru.stroy1click.common.exception.ValidationException;
 import ru.stroy1click.catalog.domain.common.dto.PageResponse;
+import ru.stroy1click.catalog.domain.common.dto.TotalsMode;
 import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.ProductCountService;
 import ru.stroy1click.catalog.domain.product.service.ProductService;
 import ru.stroy1click.catalog.domain.product.service.impl.ProductPaginationServiceImpl;
 
@@ -30,6 +36,9 @@ class ProductPaginationServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductCountService productCountService;
+
     @Mock
     private MessageSource messageSource;
 
@@ -57,80 +66,261 @@ class ProductPaginationServiceTest {
         //Arrange
         Pageable pageable = PageRequest.of(0, 10);
         List<Integer> productIds = List.of(1, 2, 3);
-        Page<Integer> page = new PageImpl<>(productIds);
-        when(this.productRepository.findProductIdsByCategory_Id(1, pageable)).thenReturn(page);
-        when(this.productService.get(anyInt())).thenReturn(productDto);
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(productIds, pageable, false));
+        when(this.productService.getAllByIds(productIds)).thenReturn(List.of(productDto, productDto, productDto));
 
         //Act
-        PageResponse<ProductDto> result = this.productPaginationService.getProducts(1, null, null, pageable);
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(
+                ProductFilter.builder().categoryId(1).build(), pageable, TotalsMode.EXACT);
 
         //Assert
         assertEquals(3, result.getTotalElements());
-        verify(this.productRepository).findProductIdsByCategory_Id(1, pageable);
-        verify(this.productService, times(3)).get(anyInt());
+        assertTrue(result.isTotalExact());
+        verify(this.productService).getAllByIds(productIds);
+        verify(this.productService, never()).get(anyInt());
+        verify(this.productRepository, never()).count(any(Specification.class));
     }
 
     @Test
-    void getProducts_WhenSubcategoryIdProvided_ShouldReturnProductIds() {
+    void getProducts_WhenFiltersCombined_ShouldSearchByAllOfThem() {
         //Arrange
-        Pageable pageable = PageRequest.of(0, 10);
-        List<Integer> productIds = List.of(1, 2, 3);
-        Page<Integer> page = new PageImpl<>(productIds);
-        when(this.productRepository.findProductIdsBySubcategory_Id(1, pageable)).thenReturn(page);
-        when(this.productService.get(anyInt())).thenReturn(productDto);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price"));
+        ProductFilter filter = ProductFilter.builder()
+                .subcategoryId(1)
+                .productTypeId(2)
+                .inStock(true)
+                .minPrice(BigDecimal.valueOf(50))
+                .maxPrice(BigDecimal.valueOf(150))
+                .build();
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(3, 1), pageable, false));
+        when(this.productService.getAllByIds(List.of(3, 1))).thenReturn(List.of(productDto, productDto));
 
         //Act
-        PageResponse<ProductDto> result = this.productPaginationService.getProducts(null, 1, null, pageable);
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(filter, pageable, TotalsMode.EXACT);
 
         //Assert
-        assertEquals(3, result.getTotalElements());
-        verify(this.productRepository).findProductIdsBySubcategory_Id(1, pageable);
-        verify(this.productService, times(3)).get(anyInt());
+        assertEquals(2, result.getContent().size());
+        verify(this.productRepository).findIds(any(), eq(pageable));
     }
 
     @Test
-    void getProducts_WhenProductTypeIdProvided_ShouldReturnProductIds() {
+    void getProducts_WhenTotalsExactAndNotLastPage_ShouldCount() {
         //Arrange
-        Pageable pageable = PageRequest.of(0, 10);
-        List<Integer> productIds = List.of(1, 2, 3);
-        Page<Integer> page = new PageImpl<>(productIds);
-        when(this.productRepository.findProductIdsByProductType_Id(1, pageable)).thenReturn(page);
-        when(this.productService.get(anyInt())).thenReturn(productDto);
+        Pageable pageable = PageRequest.of(0, 2);
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(1, 2), pageable, true));
+        when(this.productRepository.count(any(Specification.class))).thenReturn(5L);
+        when(this.productService.getAllByIds(List.of(1, 2))).thenReturn(List.of(productDto, productDto));
 
         //Act
-        PageResponse<ProductDto> result = this.productPaginationService.getProducts(null, null, 1, pageable);
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(
+                ProductFilter.builder().productTypeId(1).build(), pageable, TotalsMode.EXACT);
 
         //Assert
-        assertEquals(3, result.getTotalElements());
-        verify(this.productRepository).findProductIdsByProductType_Id(1, pageable);
-        verify(this.productService, times(3)).get(anyInt());
+        assertEquals(5L, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+        assertTrue(result.isTotalExact());
+        assertFalse(result.isLast());
     }
 
     @Test
-    void getProducts_WhenCategoryIdProvidedAndProductIdsDoNotExists_ShouldReturnEmptyList() {
+    void getProducts_WhenPageIsBeyondLastOne_ShouldCountInsteadOfUsingOffset() {
         //Arrange
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Integer> emptyPage = new PageImpl<>(List.of());
-        when(this.productRepository.findProductIdsByCategory_Id(1, pageable)).thenReturn(emptyPage);
+        Pageable pageable = PageRequest.of(5, 10);
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(this.productRepository.count(any(Specification.class))).thenReturn(3L);
 
         //Act
-        PageResponse<ProductDto> result = this.productPaginationService.getProducts(1, null, null, pageable);
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(
+                ProductFilter.builder().categoryId(1).build(), pageable, TotalsMode.EXACT);
 
         //Assert
-        assertEquals(0L, result.getTotalElements());
-        verify(this.productRepository).findProductIdsByCategory_Id(1, pageable);
-        verify(this.productService, never()).get(anyInt());
+        assertEquals(3L, result.getTotalElements());
+        assertTrue(result.getContent().isEmpty());
     }
 
     @Test
-    void getProducts_WhenNoArgumentProvided_ShouldThrowValidationException() {
+    void getProducts_WhenNoHierarchyFilterProvided_ShouldThrowValidationException() {
         //Arrange
         Pageable pageable = PageRequest.of(0, 10);
         when(this.messageSource.getMessage(eq("error.filter.empty"), any(), any(Locale.class)))
-                .thenReturn("Invalid combination");
+                .thenReturn("Empty filter");
 
         //Act & Assert
         assertThrows(ValidationException.class,
-                () -> this.productPaginationService.getProducts(null, null, null, pageable));
+                () -> this.productPaginationService.getProducts(
+                        ProductFilter.builder().inStock(true).build(), pageable, TotalsMode.EXACT));
+        verifyNoInteractions(this.productRepository);
+    }
+
+    @Test
+    void getProducts_WhenTotalsNone_ShouldNotCountAndReturnNullTotals() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 2);
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(1, 2), pageable, true));
+        when(this.productService.getAllByIds(List.of(1, 2))).thenReturn(List.of(productDto, productDto));
+
+        //Act
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(
+                ProductFilter.builder().categoryId(1).build(), pageable, TotalsMode.NONE);
+
+        //Assert
+        assertNull(result.getTotalElements());
+        assertNull(result.getTotalPages());
+        assertFalse(result.isTotalExact());
+        assertFalse(result.isLast());
+        verify(this.productRepository, never()).count(any(Specification.class));
+        verifyNoInteractions(this.productCountService);
+    }
+
+    @Test
+    void getProducts_WhenTotalsEstimated_ShouldUseCachedCount() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 2);
+        ProductFilter filter = ProductFilter.builder().subcategoryId(1).build();
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(1, 2), pageable, true));
+        when(this.productService.getAllByIds(List.of(1, 2))).thenReturn(List.of(productDto, productDto));
+        when(this.productCountService.estimateCount(filter)).thenReturn(7L);
+
+        //Act
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(filter, pageable, TotalsMode.ESTIMATED);
+
+        //Assert
+        assertEquals(7L, result.getTotalElements());
+        assertEquals(4, result.getTotalPages());
+        assertFalse(result.isTotalExact());
+        verify(this.productRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void getProducts_WhenTotalsEstimatedAndLastPage_ShouldReturnExactTotalWithoutCount() {
+        //Arrange
+        Pageable pageable = PageRequest.of(1, 2);
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(3), pageable, false));
+        when(this.productService.getAllByIds(List.of(3))).thenReturn(List.of(productDto));
+
+        //Act
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(
+                ProductFilter.builder().productTypeId(1).build(), pageable, TotalsMode.ESTIMATED);
+
+        //Assert
+        assertEquals(3L, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        assertTrue(result.isTotalExact());
+        verifyNoInteractions(this.productCountService);
+    }
+
+    @Test
+    void getProducts_WhenPageIsPastTheEnd_ShouldNotReportOffsetAsExactTotal() {
+        //Arrange
+        Pageable pageable = PageRequest.of(5, 2);
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        //Act
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(
+                ProductFilter.builder().categoryId(1).build(), pageable, TotalsMode.NONE);
+
+        //Assert
+        assertNull(result.getTotalElements());
+        assertNull(result.getTotalPages());
+        assertFalse(result.isTotalExact());
+    }
+
+    @Test
+    void getProducts_WhenTotalsEstimatedAndPageIsPastTheEnd_ShouldReturnEstimate() {
+        //Arrange
+        Pageable pageable = PageRequest.of(5, 2);
+        ProductFilter filter = ProductFilter.builder().categoryId(1).build();
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(this.productCountService.estimateCount(filter)).thenReturn(12L);
+
+        //Act
+        PageResponse<ProductDto> result = this.productPaginationService.getProducts(filter, pageable, TotalsMode.ESTIMATED);
+
+        //Assert
+        assertEquals(12L, result.getTotalElements());
+        assertEquals(6, result.getTotalPages());
+        assertFalse(result.isTotalExact());
+    }
+
+    @Test
+    void getProductsByCursor_WhenFirstPageRequested_ShouldReturnNextCursor() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id"));
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(4, 7), pageable, true));
+        when(this.productService.getAllByIds(List.of(4, 7))).thenReturn(List.of(productDto, productDto));
+
+        //Act
+        CursorPageResponse<ProductDto> result = this.productPaginationService.getProducts(
+                ProductFilter.builder().categoryId(1).build(), "", 2);
+
+        //Assert
+        assertEquals(2, result.getContent().size());
+        assertFalse(result.isLast());
+        assertEquals(new ProductCursor(7), ProductCursor.decode(result.getNext()));
+    }
+
+    @Test
+    void getProductsByCursor_WhenLastPageReached_ShouldNotReturnNextCursor() {
+        //Arrange
+        String after = new ProductCursor(7).encode();
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id"));
+        when(this.productRepository.findIds(any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(9), pageable, false));
+        when(this.productService.getAllByIds(List.of(9))).thenReturn(List.of(productDto));
+
+        //Act
+        CursorPageResponse<ProductDto> result = this.productPaginationService.getProducts(
+                ProductFilter.builder().subcategoryId(1).build(), after, 2);
+
+        //Assert
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.isLast());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    void getProductsByCursor_WhenCursorIsMalformed_ShouldThrowValidationException() {
+        //Arrange
+        when(this.messageSource.getMessage(eq("error.cursor.invalid"), any(), any(Locale.class)))
+                .thenReturn("Invalid cursor");
+
+        //Act & Assert
+        assertThrows(ValidationException.class,
+                () -> this.productPaginationService.getProducts(
+                        ProductFilter.builder().productTypeId(1).build(), "not-a-cursor", 20));
+        verifyNoInteractions(this.productRepository);
+    }
+
+    @Test
+    void search_WhenMoreResultsThanPageSize_ShouldReturnRankedPageWithoutTotals() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 2);
+        when(this.productRepository.searchIds("кирпич", 3, 0L)).thenReturn(List.of(5, 2, 9));
+        when(this.productService.getAllByIds(List.of(5, 2))).thenReturn(List.of(productDto, productDto));
+
+        //Act
+        PageResponse<ProductDto> result = this.productPaginationService.search("кирпич", pageable);
+
+        //Assert
+        assertEquals(2, result.getContent().size());
+        assertFalse(result.isLast());
+        assertNull(result.getTotalElements());
+        verify(this.productService).getAllByIds(List.of(5, 2));
+    }
+
+    @Test
+    void search_WhenLastPage_ShouldReturnExactTotal() {
+        //Arrange
+        Pageable pageable = PageRequest.of(1, 2);
+        when(this.productRepository.searchIds("кирпич", 3, 2L)).thenReturn(List.of(7));
+        when(this.productService.getAllByIds(List.of(7))).thenReturn(List.of(productDto));
+
+        //Act
+        PageResponse<ProductDto> result = this.productPaginationService.search("кирпич", pageable);
+
+        //Assert
+        assertTrue(result.isLast());
+        assertEquals(3L, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        assertTrue(result.isTotalExact());
     }
-}
\ No newline at end of file
+}
@@ -6,21 +6,35 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.multipart.MultipartFile;
 import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.common.cache.BatchCache;
+import ru.stroy1click.catalog.domain.common.cache.CacheClear;
+import ru.stroy1click.catalog.domain.common.dto.ImageUploadRequest;
+import ru.stroy1click.catalog.domain.common.dto.PresignedUrlDto;
+import ru.stroy1click.catalog.domain.common.dto.StoredObjectInfo;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.product.image.dto.ProductImageDto;
 import ru.stroy1click.catalog.domain.product.dto.ProductDto;
 import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
 import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.catalog.domain.category.entity.Category;
 import ru.stroy1click.catalog.domain.product.entity.Product;
+import ru.stroy1click.catalog.domain.product.event.ProductChangedEvent;
+import ru.stroy1click.catalog.domain.product.event.ProductsChangedEvent;
 import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
 import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
 import ru.stroy1click.catalog.domain.product.mapper.ProductMapper;
 import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
 import ru.stroy1click.catalog.domain.category.service.CategoryService;
 import ru.stroy1click.catalog.domain.product.image.service.ProductImageService;
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
+import ru.stroy1click.catalog.domain.product.service.ProductFacetService;
 import ru.stroy1click.catalog.domain.product.service.impl.ProductServiceImpl;
 import ru.stroy1click.catalog.domain.producttype.service.ProductTypeService;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
 import ru.stroy1click.catalog.domain.subcategory.service.SubcategoryService;
 import ru.stroy1click.common.dto.Unit;
@@ -32,7 +46,9 @@ import ru.stroy1click.outbox.service.OutboxEventService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -51,9 +67,15 @@ class ProductServiceTest {
     @Mock
     private StorageService storageService;
 
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
     @Mock
     private ProductImageService productImageService;
 
+    @Mock
+    private ImageMetadataService imageMetadataService;
+
     @Mock
     private CategoryService categoryService;
 
@@ -66,6 +88,18 @@ class ProductServiceTest {
     @Mock
     private OutboxEventService outboxEventService;
 
+    @Mock
+    private BatchCache batchCache;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private ProductFacetService productFacetService;
+
+    @Mock
+    private CacheClear cacheClear;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -142,27 +176,82 @@ class ProductServiceTest {
     @Test
     public void get_WhenProductExists_ShouldReturnDto() {
         //Arrange
-        when(this.productRepository.findById(1)).thenReturn(Optional.of(product));
-        when(this.productMapper.toDto(product)).thenReturn(productDto);
+        when(this.productRepository.findDtoById(1)).thenReturn(Optional.of(productDto));
 
         //Act
         ProductDto result = this.productService.get(1);
 
         //Assert
         assertThat(result).isEqualTo(productDto);
-        verify(this.productMapper).toDto(product);
+        verify(this.productRepository, never()).findById(1);
+        verifyNoInteractions(this.productMapper);
     }
 
     @Test
     public void get_WhenProductDoesNotExist_ShouldThrowNotFoundException() {
         //Arrange
-        when(this.productRepository.findById(1)).thenReturn(Optional.empty());
+        when(this.productRepository.findDtoById(1)).thenReturn(Optional.empty());
         //Assert
         assertThatThrownBy(() -> this.productService.get(1))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("error.product.not_found");
     }
 
+    @Test
+    public void getAllByIds_WhenAllProductsAreCached_ShouldNotQueryRepository() {
+        //Arrange
+        ProductDto secondProductDto = ProductDto.builder().id(2).title("Tablet").build();
+        when(this.batchCache.getAll("product", List.of(2, 1)))
+                .thenReturn(Map.of(1, productDto, 2, secondProductDto));
+
+        //Act
+        List<ProductDto> result = this.productService.getAllByIds(List.of(2, 1));
+
+        //Assert
+        assertThat(result).containsExactly(secondProductDto, productDto);
+        verify(this.productRepository, never()).findAllDtosByIdIn(anyList());
+        verify(this.batchCache, never()).putAll(anyString(), anyMap());
+    }
+
+    @Test
+    public void getAllByIds_WhenSomeProductsAreMissingInCache_ShouldLoadOnlyMissingAndKeepOrder() {
+        //Arrange
+        ProductDto secondProductDto = ProductDto.builder().id(2).title("Tablet").build();
+        when(this.batchCache.getAll("product", List.of(2, 1))).thenReturn(Map.of(1, productDto));
+        when(this.productRepository.findAllDtosByIdIn(List.of(2))).thenReturn(List.of(secondProductDto));
+
+        //Act
+        List<ProductDto> result = this.productService.getAllByIds(List.of(2, 1));
+
+        //Assert
+        assertThat(result).containsExactly(secondProductDto, productDto);
+        verify(this.productRepository).findAllDtosByIdIn(List.of(2));
+        verify(this.batchCache).putAll("product", Map.of(2, secondProductDto));
+    }
+
+    @Test
+    public void getAllByIds_WhenProductWasDeleted_ShouldSkipIt() {
+        //Arrange
+        when(this.batchCache.getAll("product", List.of(1, 5))).thenReturn(Map.of(1, productDto));
+        when(this.productRepository.findAllDtosByIdIn(List.of(5))).thenReturn(List.of());
+
+        //Act
+        List<ProductDto> result = this.productService.getAllByIds(List.of(1, 5));
+
+        //Assert
+        assertThat(result).containsExactly(productDto);
+    }
+
+    @Test
+    public void getAllByIds_WhenIdsAreEmpty_ShouldReturnEmptyList() {
+        //Act
+        List<ProductDto> result = this.productService.getAllByIds(List.of());
+
+        //Assert
+        assertThat(result).isEmpty();
+        verifyNoInteractions(this.batchCache, this.productRepository);
+    }
+
     @Test
     public void create_WhenDataIsValid_ShouldSaveAndReturnCreatedProductDtoAndSaveOutboxEvent() {
         //Arrange
@@ -181,6 +270,8 @@ class ProductServiceTest {
         assertEquals(productDto.getTitle(), createdProduct.getTitle() );
         verify(this.productRepository).save(this.product);
         verify(this.outboxEventService).save(eq(PRODUCT_CREATED_TOPIC), any(ProductCreatedEvent.class));
+        verify(this.applicationEventPublisher).publishEvent(any(ProductChangedEvent.class));
+        verify(this.productFacetService).onCreated(productDto);
     }
 
     @Test
@@ -276,10 +367,83 @@ class ProductServiceTest {
                 .hasMessage("error.product.not_found");
     }
 
+    @Test
+    public void createAll_WhenHierarchyExists_ShouldSaveAllAndWriteOutboxEventPerProduct() {
+        //Arrange
+        when(this.categoryService.getExistingIds(Set.of(1))).thenReturn(Set.of(1));
+        when(this.subcategoryService.getExistingIds(Set.of(2))).thenReturn(Set.of(2));
+        when(this.productTypeService.getExistingIds(Set.of(3))).thenReturn(Set.of(3));
+        when(this.productMapper.toEntity(productDto)).thenReturn(product);
+        when(this.productMapper.toDto(List.of(product, product))).thenReturn(List.of(productDto, productDto));
+
+        //Act
+        List<ProductDto> createdProducts = this.productService.createAll(List.of(productDto, productDto));
+
+        //Assert
+        assertEquals(2, createdProducts.size());
+        verify(this.productRepository).saveAll(List.of(product, product));
+        verify(this.productRepository).flush();
+        verify(this.outboxEventService, times(2)).save(eq(PRODUCT_CREATED_TOPIC), any(ProductCreatedEvent.class));
+        verify(this.productFacetService).onCreatedAll(createdProducts);
+        verify(this.categoryService, never()).get(anyInt());
+    }
+
+    @Test
+    public void createAll_WhenProductTypeDoesNotExist_ShouldThrowNotFoundException() {
+        //Arrange
+        when(this.categoryService.getExistingIds(Set.of(1))).thenReturn(Set.of(1));
+        when(this.subcategoryService.getExistingIds(Set.of(2))).thenReturn(Set.of(2));
+        when(this.productTypeService.getExistingIds(Set.of(3))).thenReturn(Set.of());
+
+        //Act & Assert
+        assertThatThrownBy(() -> this.productService.createAll(List.of(productDto)))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("error.product_type.not_found");
+        verify(this.productRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void updateAll_WhenProductsExist_ShouldUpdateAllAndClearTheirCache() {
+        //Arrange
+        ProductDto update = ProductDto.builder()
+                .id(1)
+                .title("New phone")
+                .description("iPhone 16")
+                .price(BigDecimal.valueOf(1099.0))
+                .unit(Unit.KG)
+                .inStock(false)
+                .build();
+        when(this.productRepository.findAllById(List.of(1))).thenReturn(List.of(product));
+
+        //Act
+        this.productService.updateAll(List.of(update));
+
+        //Assert
+        assertEquals("New phone", product.getTitle());
+        assertFalse(product.getInStock());
+        verify(this.outboxEventService).save(eq(PRODUCT_UPDATED_TOPIC), any(ProductUpdatedEvent.class));
+        verify(this.applicationEventPublisher).publishEvent(new ProductsChangedEvent(Map.of(1, "New phone")));
+        verify(this.cacheClear).clearProducts(List.of(1));
+    }
+
+    @Test
+    public void updateAll_WhenProductDoesNotExist_ShouldThrowNotFoundException() {
+        //Arrange
+        ProductDto update = ProductDto.builder().id(42).title("Missing").build();
+        when(this.productRepository.findAllById(List.of(42))).thenReturn(List.of());
+
+        //Act & Assert
+        assertThatThrownBy(() -> this.productService.updateAll(List.of(update)))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("error.product.not_found");
+        verifyNoInteractions(this.outboxEventService, this.cacheClear);
+    }
+
     @Test
     public void delete_WhenProductExists_ShouldRemoveProductAndClearCacheAndSaveOutboxEvent() {
         //Arrange
         when(this.productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(this.productMapper.toDto(product)).thenReturn(productDto);
 
         //Act
         this.productService.delete(1);
@@ -287,6 +451,8 @@ class ProductServiceTest {
         //Assert
         verify(this.productRepository).delete(product);
         verify(this.outboxEventService).save(eq(PRODUCT_DELETED_TOPIC), any(ProductDeletedEvent.class));
+        verify(this.applicationEventPublisher).publishEvent(new ProductChangedEvent(1, null));
+        verify(this.productFacetService).onDeleted(productDto);
     }
 
     @Test
@@ -331,13 +497,31 @@ class ProductServiceTest {
         MultipartFile image = mock(MultipartFile.class);
         when(this.productRepository.findById(1)).thenReturn(Optional.of(product));
         when(this.storageService.uploadImages(List.of(image))).thenReturn(List.of("img1.png"));
-        doNothing().when(this.productImageService).create(anyList());
+        when(this.productImageService.createIfAbsent(new ProductImageDto(null, 1, "img1.png"))).thenReturn(true);
 
         //Act
         this.productService.assignImages(1, List.of(image));
 
         //Assert
-        verify(this.productImageService).create(anyList());
+        verify(this.productImageService).createIfAbsent(new ProductImageDto(null, 1, "img1.png"));
+        verify(this.imageDerivativeService).submit("img1.png", image);
+    }
+
+    @Test
+    public void assignImages_WhenImageIsAlreadyLinked_ShouldNotLinkItTwice() {
+        //Arrange
+        MultipartFile first = mock(MultipartFile.class);
+        MultipartFile second = mock(MultipartFile.class);
+        when(this.productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(this.storageService.uploadImages(List.of(first, second))).thenReturn(List.of("sha256-a.png", "sha256-b.png"));
+        when(this.productImageService.getAllByProductId(1)).thenReturn(List.of(new ProductImageDto(5, 1, "sha256-a.png")));
+
+        //Act
+        this.productService.assignImages(1, List.of(first, second));
+
+        //Assert
+        verify(this.productImageService).createIfAbsent(new ProductImageDto(null, 1, "sha256-b.png"));
+        verify(this.productImageService, never()).createIfAbsent(new ProductImageDto(null, 1, "sha256-a.png"));
     }
 
     @Test
@@ -351,6 +535,65 @@ class ProductServiceTest {
                 .hasMessage("error.product.not_found");
     }
 
+    @Test
+    public void presignImageUpload_WhenProductExists_ShouldPresignKeyBoundToProduct() {
+        //Arrange
+        ImageUploadRequest request = new ImageUploadRequest("фото 1.png", "image/png", 100L);
+        when(this.productRepository.existsById(1)).thenReturn(true);
+        when(this.storageService.presignUpload(anyString(), eq("image/png"), eq(100L)))
+                .thenAnswer(invocation -> PresignedUrlDto.builder().key(invocation.getArgument(0)).build());
+
+        //Act
+        PresignedUrlDto result = this.productService.presignImageUpload(1, request);
+
+        //Assert
+        assertThat(result.getKey()).startsWith("product-1_").endsWith("____1.png");
+    }
+
+    @Test
+    public void confirmImage_WhenKeyIsIssuedForAnotherProduct_ShouldThrowNotFound() {
+        //Arrange
+        when(this.productRepository.findById(1)).thenReturn(Optional.of(product));
+
+        //Act & Assert
+        assertThatThrownBy(() -> this.productService.confirmImage(1, "product-2_abc_img.png"))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("error.product_image.not_found");
+        verify(this.productImageService, never()).createIfAbsent(any(ProductImageDto.class));
+    }
+
+    @Test
+    public void confirmImage_WhenObjectIsUploaded_ShouldAssignImageAndBuildVariants() {
+        //Arrange
+        String key = "product-1_abc_img.png";
+        when(this.productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(this.storageService.head(key)).thenReturn(Optional.of(new StoredObjectInfo(key, "image/png", 100L, "\"e\"")));
+        when(this.productImageService.createIfAbsent(new ProductImageDto(null, 1, key))).thenReturn(true);
+
+        //Act
+        this.productService.confirmImage(1, key);
+
+        //Assert
+        verify(this.imageMetadataService).create(ImageMetadataDto.builder()
+                .link(key).contentType("image/png").size(100L).eTag("\"e\"").build());
+        verify(this.imageDerivativeService).submit(key);
+    }
+
+    @Test
+    public void confirmImage_WhenKeyIsAlreadyLinked_ShouldNotBuildVariantsAgain() {
+        //Arrange
+        String key = "product-1_abc_img.png";
+        when(this.productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(this.storageService.head(key)).thenReturn(Optional.of(new StoredObjectInfo(key, "image/png", 100L, "\"e\"")));
+        when(this.productImageService.createIfAbsent(new ProductImageDto(null, 1, key))).thenReturn(false);
+
+        //Act
+        this.productService.confirmImage(1, key);
+
+        //Assert
+        verify(this.imageDerivativeService, never()).submit(anyString());
+    }
+
     @Test
     public void deleteImage_WhenProductExists_ShouldDeleteImageAndClearCache() {
         //Arrange
@@ -360,7 +603,8 @@ class ProductServiceTest {
         this.productService.deleteImage(1, "img1.png");
 
         //Assert
-        verify(this.productImageService).delete("img1.png");
+        verify(this.productImageService).delete(1, "img1.png");
+        verify(this.applicationEventPublisher).publishEvent(new ImageReleasedEvent("img1.png"));
     }
 
     @Test
@@ -0,0 +1,112 @@
+package ru.stroy1click.catalog.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
+import ru.stroy1click.catalog.domain.category.repository.CategoryRepository;
+import ru.stroy1click.catalog.domain.product.dto.ProductTitle;
+import ru.stroy1click.catalog.domain.product.dto.SuggestionDto;
+import ru.stroy1click.catalog.domain.product.dto.SuggestionType;
+import ru.stroy1click.catalog.domain.product.event.ProductChangedEvent;
+import ru.stroy1click.catalog.domain.product.event.ProductsChangedEvent;
+import ru.stroy1click.catalog.domain.product.repository.ProductRepository;
+import ru.stroy1click.catalog.domain.product.service.impl.ProductSuggestServiceImpl;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggestServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private ProductSuggestServiceImpl productSuggestService;
+
+    @BeforeEach
+    void setUp() {
+        when(this.productRepository.findAllTitles()).thenReturn(List.of(
+                new ProductTitle(1, "Кирпич облицовочный"),
+                new ProductTitle(2, "Цемент М500")
+        ));
+        when(this.categoryRepository.findAllDtos()).thenReturn(List.of(
+                new CategoryDto(10, "bricks.png", "Кирпич и блоки", null)
+        ));
+        this.productSuggestService.rebuild();
+    }
+
+    @Test
+    void suggest_WhenCategoryAndProductMatch_ShouldReturnCategoryFirst() {
+        //Act
+        List<SuggestionDto> result = this.productSuggestService.suggest("кирп", 10);
+
+        //Assert
+        assertEquals(List.of(
+                new SuggestionDto(SuggestionType.CATEGORY, 10, "Кирпич и блоки"),
+                new SuggestionDto(SuggestionType.PRODUCT, 1, "Кирпич облицовочный")
+        ), result);
+    }
+
+    @Test
+    void onProductChanged_WhenProductCreated_ShouldBeSuggestedWithoutRebuild() {
+        //Act
+        this.productSuggestService.onProductChanged(new ProductChangedEvent(3, "Цементная смесь"));
+        List<SuggestionDto> result = this.productSuggestService.suggest("цемент", 10);
+
+        //Assert
+        assertEquals(2, result.size());
+        verify(this.productRepository, times(1)).findAllTitles();
+    }
+
+    @Test
+    void onProductChanged_WhenProductDeleted_ShouldNotBeSuggested() {
+        //Act
+        this.productSuggestService.onProductChanged(new ProductChangedEvent(2, null));
+
+        //Assert
+        assertTrue(this.productSuggestService.suggest("цемент", 10).isEmpty());
+    }
+
+    @Test
+    void onProductsChanged_WhenBatchUpdated_ShouldReplaceTitles() {
+        //Act
+        this.productSuggestService.onProductsChanged(new ProductsChangedEvent(Map.of(
+                1, "Блок газобетонный",
+                3, "Цементная смесь"
+        )));
+
+        //Assert
+        assertTrue(this.productSuggestService.suggest("кирпич облиц", 10).isEmpty());
+        assertEquals(1, this.productSuggestService.suggest("газо", 10).size());
+        assertEquals(2, this.productSuggestService.suggest("цемент", 10).size());
+    }
+
+    @Test
+    void rebuild_WhenProductChangesDuringRebuild_ShouldKeepChange() {
+        //Arrange
+        when(this.productRepository.findAllTitles()).thenAnswer(invocation -> {
+            //база уже прочитана, изменение приходит до подмены индекса
+            List<ProductTitle> titles = List.of(new ProductTitle(1, "Кирпич облицовочный"));
+            this.productSuggestService.onProductChanged(new ProductChangedEvent(3, "Цементная смесь"));
+            return titles;
+        });
+
+        //Act
+        this.productSuggestService.rebuild();
+
+        //Assert
+        assertEquals(List.of(new SuggestionDto(SuggestionType.PRODUCT, 3, "Цементная смесь")),
+                this.productSuggestService.suggest("цемент", 10));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.multipart.MultipartFile;
 import ru.stroy1click.catalog.domain.common.cache.CacheClear;
 import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
@@ -15,6 +16,8 @@ import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
 import ru.stroy1click.catalog.domain.producttype.mapper.ProductTypeMapper;
 import ru.stroy1click.catalog.domain.producttype.repository.ProductTypeRepository;
 import ru.stroy1click.catalog.domain.producttype.service.impl.ProductTypeServiceImpl;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
 import ru.stroy1click.catalog.domain.subcategory.service.SubcategoryService;
 import ru.stroy1click.common.event.ProductTypeCreatedEvent;
@@ -45,6 +48,12 @@ class ProductTypeServiceTest {
     @Mock
     private StorageService storageService;
 
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @Mock
     private SubcategoryService subcategoryService;
 
@@ -160,7 +169,7 @@ class ProductTypeServiceTest {
     @Test
     public void update_WhenProductTypeExists_ShouldUpdateProductTypeAndSaveOutboxEvent() {
         //Arrange
-        ProductTypeDto updatedDto = new ProductTypeDto(1, 5, "image.png", "New Type");
+        ProductTypeDto updatedDto = new ProductTypeDto(1, 5, "image.png", "New Type", null);
         when(this.productTypeRepository.findById(1)).thenReturn(Optional.of(productType));
 
         //Act
@@ -257,7 +266,8 @@ class ProductTypeServiceTest {
 
         //Assert
         assertThat(productType.getImage()).isNull();
-        verify(this.storageService).deleteImage("smart.png");
+        verify(this.applicationEventPublisher).publishEvent(new ImageReleasedEvent("smart.png"));
+        verify(this.storageService, never()).deleteImage(anyString());
         verify(this.cacheClear).clearProductTypesOfSubcategory(5);
     }
 
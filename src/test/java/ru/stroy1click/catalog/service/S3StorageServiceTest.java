@@ -0,0 +1,349 @@
+package ru.stroy1click.catalog.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import ru.stroy1click.catalog.domain.common.dto.ImageVariant;
+import ru.stroy1click.catalog.domain.common.dto.StoredFile;
+import ru.stroy1click.catalog.domain.common.dto.StoredObjectInfo;
+import ru.stroy1click.catalog.domain.image.dto.ImageMetadataDto;
+import ru.stroy1click.catalog.domain.image.service.ImageMetadataService;
+import ru.stroy1click.catalog.infrastructure.prop.StorageProperties;
+import ru.stroy1click.catalog.infrastructure.storage.DiskImageCache;
+import ru.stroy1click.catalog.infrastructure.storage.ImageKeyLocks;
+import ru.stroy1click.catalog.infrastructure.storage.S3StorageService;
+import ru.stroy1click.common.exception.StorageException;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3StorageServiceTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private S3Presigner s3Presigner;
+
+    @Mock
+    private DiskImageCache diskImageCache;
+
+    @Mock
+    private ImageMetadataService imageMetadataService;
+
+    @Mock
+    private ImageKeyLocks imageKeyLocks;
+
+    private S3StorageService storageService;
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setBucketName("bucket");
+        storageProperties.setMaxParallelUploads(2);
+        storageProperties.setReuseGraceSeconds(3600);
+        lenient().when(this.imageKeyLocks.lock(anyString())).thenAnswer(invocation -> new ReentrantLock());
+        this.storageService = new S3StorageService(storageProperties, this.s3Client, this.s3Presigner, this.diskImageCache,
+                this.imageMetadataService, this.imageKeyLocks);
+        this.storageService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.storageService.shutdown();
+    }
+
+    @Test
+    public void uploadImages_WhenAllUploadsSucceed_ShouldReturnNamesInOrder() {
+        //Arrange
+        when(this.s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+        when(this.s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+
+        //Act
+        List<String> result = this.storageService.uploadImages(List.of(image("a.png"), image("b.png"), image("c.png")));
+
+        //Assert
+        assertEquals(List.of(key("a.png"), key("b.png"), key("c.png")), result);
+        verify(this.s3Client, times(3)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(this.s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    //объект мог уже переиспользовать другой запрос; без ссылок его удалит OrphanImageCollector
+    @Test
+    public void uploadImages_WhenOneUploadFails_ShouldKeepUploadedFilesAndThrow() {
+        //Arrange
+        when(this.s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+        when(this.s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            PutObjectRequest request = invocation.getArgument(0);
+            if (request.key().equals(key("b.png"))) {
+                throw S3Exception.builder()
+                        .message("failed")
+                        .awsErrorDetails(AwsErrorDetails.builder().errorCode("InternalError").build())
+                        .build();
+            }
+            return PutObjectResponse.builder().build();
+        });
+
+        //Act
+        assertThrows(StorageException.class,
+                () -> this.storageService.uploadImages(List.of(image("a.png"), image("b.png"), image("c.png"))));
+
+        //Assert
+        verify(this.s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    public void uploadImages_WhenContentIsAlreadyStored_ShouldReuseKeyAndNotDeleteItOnFailure() {
+        //Arrange
+        when(this.s3Client.headObject(any(HeadObjectRequest.class))).thenAnswer(invocation -> {
+            HeadObjectRequest request = invocation.getArgument(0);
+            if (request.key().equals(key("a.png"))) {
+                return HeadObjectResponse.builder().contentType("image/png").contentLength(5L).build();
+            }
+            throw NoSuchKeyException.builder().build();
+        });
+        when(this.s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenThrow(S3Exception.builder()
+                .message("failed")
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("InternalError").build())
+                .build());
+
+        //Act
+        assertThrows(StorageException.class,
+                () -> this.storageService.uploadImages(List.of(image("a.png"), image("b.png"))));
+
+        //Assert
+        verify(this.s3Client, times(1)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(this.imageMetadataService).markUsed(argThat(metadata -> metadata.getLink().equals(key("a.png"))));
+        verify(this.s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    public void uploadImage_WhenSameContentUploadedUnderDifferentNames_ShouldReturnSameKey() {
+        //Arrange
+        when(this.s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+        when(this.s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+
+        //Act
+        String first = this.storageService.uploadImage(new MockMultipartFile("image", "first.png", "image/png", new byte[]{1, 2, 3}));
+        String second = this.storageService.uploadImage(new MockMultipartFile("image", "second.PNG", null, new byte[]{1, 2, 3}));
+
+        //Assert
+        assertEquals("sha256-039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81.png", first);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void uploadImage_WhenObjectIsNew_ShouldRecordMetadata() {
+        //Arrange
+        when(this.s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+        when(this.s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().eTag("\"e\"").build());
+
+        //Act
+        String result = this.storageService.uploadImage(image("a.png"));
+
+        //Assert
+        ArgumentCaptor<ImageMetadataDto> captor = ArgumentCaptor.forClass(ImageMetadataDto.class);
+        verify(this.imageMetadataService).create(captor.capture());
+        assertEquals(result, captor.getValue().getLink());
+        assertEquals("image/png", captor.getValue().getContentType());
+        assertEquals(5L, captor.getValue().getSize());
+        assertEquals("\"e\"", captor.getValue().getETag());
+        assertEquals(result, "sha256-" + captor.getValue().getSha256() + ".png");
+    }
+
+    @Test
+    public void uploadImageVariant_WhenObjectIsWritten_ShouldInvalidateCacheAfterWrite() {
+        //Arrange
+        String key = ImageVariant.THUMBNAIL.key("a.png");
+        when(this.s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().eTag("\"e\"").build());
+
+        //Act
+        this.storageService.uploadImageVariant("a.png", ImageVariant.THUMBNAIL, new byte[]{1}, "image/webp");
+
+        //Assert
+        InOrder inOrder = inOrder(this.s3Client, this.diskImageCache);
+        inOrder.verify(this.s3Client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        inOrder.verify(this.diskImageCache).invalidate(key);
+    }
+
+    @Test
+    public void uploadImageVariant_WhenWriteFails_ShouldKeepCachedObject() {
+        //Arrange
+        when(this.s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder()
+                        .statusCode(500)
+                        .awsErrorDetails(AwsErrorDetails.builder().errorCode("InternalError").build())
+                        .build());
+
+        //Act & Assert
+        assertThrows(StorageException.class, () ->
+                this.storageService.uploadImageVariant("a.png", ImageVariant.THUMBNAIL, new byte[]{1}, "image/webp"));
+        verify(this.diskImageCache, never()).invalidate(anyString());
+    }
+
+    @Test
+    public void head_WhenMetadataIsKnown_ShouldNotCallS3() {
+        //Arrange
+        when(this.imageMetadataService.get("sha256-a.png")).thenReturn(Optional.of(ImageMetadataDto.builder()
+                .link("sha256-a.png").contentType("image/png").size(10L).eTag("\"e\"").build()));
+
+        //Act
+        Optional<StoredObjectInfo> result = this.storageService.head("sha256-a.png");
+
+        //Assert
+        assertEquals(Optional.of(new StoredObjectInfo("sha256-a.png", "image/png", 10L, "\"e\"")), result);
+        verifyNoInteractions(this.s3Client);
+    }
+
+    @Test
+    public void head_WhenMetadataIsUnknown_ShouldAskS3WithoutWritingMetadata() {
+        //Arrange
+        when(this.imageMetadataService.get("product-1_a.png")).thenReturn(Optional.empty());
+        when(this.s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentType("image/png").contentLength(10L).eTag("\"e\"").build());
+
+        //Act
+        Optional<StoredObjectInfo> result = this.storageService.head("product-1_a.png");
+
+        //Assert
+        assertEquals(Optional.of(new StoredObjectInfo("product-1_a.png", "image/png", 10L, "\"e\"")), result);
+        verify(this.imageMetadataService, never()).create(any());
+    }
+
+    @Test
+    public void downloadImage_WhenEtagMatchesMetadata_ShouldReturnNotModifiedWithoutS3() {
+        //Arrange
+        when(this.diskImageCache.get("sha256-a.png")).thenReturn(Optional.empty());
+        when(this.imageMetadataService.get("sha256-a.png")).thenReturn(Optional.of(ImageMetadataDto.builder()
+                .link("sha256-a.png").contentType("image/png").size(10L).eTag("\"e\"").build()));
+
+        //Act
+        StoredFile result = this.storageService.downloadImage("sha256-a.png", null, null, "W/\"e\"");
+
+        //Assert
+        assertEquals(StoredFile.Status.NOT_MODIFIED, result.status());
+        verifyNoInteractions(this.s3Client);
+    }
+
+    @Test
+    public void downloadImage_WhenS3ReturnsNotModified_ShouldReturnObjectEtagNotRequestHeader() {
+        //Arrange
+        when(this.diskImageCache.get("sha256-a.png")).thenReturn(Optional.empty());
+        when(this.imageMetadataService.get("sha256-a.png")).thenReturn(Optional.empty());
+        when(this.s3Client.getObject(any(GetObjectRequest.class))).thenThrow(S3Exception.builder()
+                .statusCode(304)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .sdkHttpResponse(SdkHttpResponse.builder().statusCode(304).putHeader("ETag", "\"e\"").build())
+                        .build())
+                .build());
+
+        //Act
+        StoredFile result = this.storageService.downloadImage("sha256-a.png", null, null, "\"x\", \"e\"");
+
+        //Assert
+        assertEquals(StoredFile.Status.NOT_MODIFIED, result.status());
+        assertEquals("\"e\"", result.eTag());
+    }
+
+    @Test
+    public void downloadImage_WhenS3RejectsRange_ShouldReturnObjectSizeInContentRange() {
+        //Arrange
+        when(this.diskImageCache.get("sha256-a.png")).thenReturn(Optional.empty());
+        when(this.s3Client.getObject(any(GetObjectRequest.class))).thenThrow(S3Exception.builder()
+                .statusCode(416)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("InvalidRange").build())
+                .build());
+        when(this.imageMetadataService.get("sha256-a.png")).thenReturn(Optional.of(ImageMetadataDto.builder()
+                .link("sha256-a.png").contentType("image/png").size(10L).eTag("\"e\"").build()));
+
+        //Act
+        StoredFile result = this.storageService.downloadImage("sha256-a.png", null, "bytes=20-30", null);
+
+        //Assert
+        assertEquals(StoredFile.Status.RANGE_NOT_SATISFIABLE, result.status());
+        assertEquals("bytes */10", result.contentRange());
+    }
+
+    @Test
+    public void deleteImageIfUnused_WhenObjectWasJustReused_ShouldKeepIt() {
+        //Arrange
+        when(this.imageMetadataService.isUsedSince(eq("sha256-a.png"), any(Instant.class))).thenReturn(true);
+
+        //Act
+        boolean result = this.storageService.deleteImageIfUnused("sha256-a.png", key -> false);
+
+        //Assert
+        assertFalse(result);
+        verify(this.s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    public void deleteImageIfUnused_WhenObjectIsUnreferencedAndIdle_ShouldDeleteItUnderKeyLock() {
+        //Arrange
+        ReentrantLock lock = new ReentrantLock();
+        when(this.imageKeyLocks.lock("sha256-a.png")).thenReturn(lock);
+        when(this.imageMetadataService.isUsedSince(eq("sha256-a.png"), any(Instant.class))).thenReturn(false);
+
+        //Act
+        boolean result = this.storageService.deleteImageIfUnused("sha256-a.png", key -> {
+            assertTrue(lock.isHeldByCurrentThread());
+            return false;
+        });
+
+        //Assert
+        assertTrue(result);
+        assertFalse(lock.isLocked());
+        verify(this.s3Client).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    //содержимое зависит от имени, чтобы у файлов были разные ключи
+    private MultipartFile image(String name) {
+        return new MockMultipartFile("images", name, "image/png", name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String key(String name) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            return "sha256-" + HexFormat.of().formatHex(hash) + ".png";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
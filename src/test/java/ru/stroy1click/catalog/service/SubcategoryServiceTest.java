@@ -6,18 +6,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.multipart.MultipartFile;
 import ru.stroy1click.catalog.domain.common.cache.CacheClear;
 import ru.stroy1click.catalog.domain.category.dto.CategoryDto;
 import ru.stroy1click.catalog.domain.producttype.dto.ProductTypeDto;
 import ru.stroy1click.catalog.domain.subcategory.dto.SubcategoryDto;
 import ru.stroy1click.catalog.domain.category.entity.Category;
-import ru.stroy1click.catalog.domain.producttype.entity.ProductType;
 import ru.stroy1click.catalog.domain.subcategory.entity.Subcategory;
-import ru.stroy1click.catalog.domain.producttype.mapper.ProductTypeMapper;
 import ru.stroy1click.catalog.domain.subcategory.mapper.SubcategoryMapper;
 import ru.stroy1click.catalog.domain.subcategory.repository.SubcategoryRepository;
 import ru.stroy1click.catalog.domain.category.service.CategoryService;
+import ru.stroy1click.catalog.domain.common.event.ImageReleasedEvent;
+import ru.stroy1click.catalog.domain.common.service.ImageDerivativeService;
 import ru.stroy1click.catalog.domain.common.service.StorageService;
 import ru.stroy1click.catalog.domain.subcategory.service.impl.SubcategoryServiceImpl;
 import ru.stroy1click.common.event.SubcategoryCreatedEvent;
@@ -43,15 +44,18 @@ class SubcategoryServiceTest {
     @Mock
     private SubcategoryMapper subcategoryMapper;
 
-    @Mock
-    private ProductTypeMapper productTypeMapper;
-
     @Mock
     private CacheClear cacheClear;
 
     @Mock
     private StorageService storageService;
 
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @Mock
     private CategoryService categoryService;
 
@@ -166,7 +170,7 @@ class SubcategoryServiceTest {
     @Test
     public void update_WhenSubcategoryExists_ShouldUpdateSubcategoryAndSaveOutboxEvent() {
         //Arrange
-        SubcategoryDto updatedDto = new SubcategoryDto(1, 10, "image.png", "New Phones");
+        SubcategoryDto updatedDto = new SubcategoryDto(1, 10, "image.png", "New Phones", null);
         when(this.subcategoryRepository.findById(1)).thenReturn(Optional.of(subcategory));
 
         //Act
@@ -257,14 +261,14 @@ class SubcategoryServiceTest {
     public void deleteImage_WhenSubcategoryExists_ShouldDeleteImageAndClearCache() {
         //Arrange
         when(this.subcategoryRepository.findById(1)).thenReturn(Optional.of(subcategory));
-        doNothing().when(this.storageService).deleteImage(anyString());
 
         //Act
         this.subcategoryService.deleteImage(1, "phone.png");
 
         //Assert
         assertThat(this.subcategory.getImage()).isNull();
-        verify(this.storageService).deleteImage("phone.png");
+        verify(this.applicationEventPublisher).publishEvent(new ImageReleasedEvent("phone.png"));
+        verify(this.storageService, never()).deleteImage(anyString());
         verify(this.cacheClear).clearSubcategoriesOfCategory(10);
     }
 
@@ -272,28 +276,24 @@ class SubcategoryServiceTest {
     @Test
     public void getProductTypes_WhenSubcategoryExists_ShouldReturnListOfDtos() {
         //Arrange
-        List<ProductType> productTypes = List.of(new ProductType(1,"title 1", "image 1",
-                subcategory, List.of()), new ProductType(2,"title 2", "image 2",
-                subcategory, List.of()));
-        List<ProductTypeDto> productTypeDtos = List.of(new ProductTypeDto(1, 1,"image 1", "title 1"),
-                new ProductTypeDto(2, 1,"image 2", "title 2"));
-        this.subcategory.setProductTypes(productTypes);
-        when(this.subcategoryRepository.findById(1)).thenReturn(Optional.of(subcategory));
-        when(this.productTypeMapper.toDto(productTypes)).thenReturn(productTypeDtos);
+        List<ProductTypeDto> productTypeDtos = List.of(new ProductTypeDto(1, 1,"image 1", "title 1", null),
+                new ProductTypeDto(2, 1,"image 2", "title 2", null));
+        when(this.subcategoryRepository.existsById(1)).thenReturn(true);
+        when(this.subcategoryRepository.findProductTypeDtosBySubcategoryId(1)).thenReturn(productTypeDtos);
 
         //Act
         List<ProductTypeDto> result = this.subcategoryService.getProductTypes(1);
 
         //Assert
-        verify(this.subcategoryRepository).findById(1);
-        verify(this.productTypeMapper).toDto(productTypes);
+        verify(this.subcategoryRepository).findProductTypeDtosBySubcategoryId(1);
+        verify(this.subcategoryRepository, never()).findById(1);
         assertEquals(2, result.size());
     }
 
     @Test
     public void getSubcategories_ShouldThrowNotFoundException_WhenCategoryNotFound() {
         //Arrange
-        when(this.subcategoryRepository.findById(999)).thenReturn(Optional.empty());
+        when(this.subcategoryRepository.existsById(999)).thenReturn(false);
 
         //Act & Assert
         assertThatThrownBy(() -> this.subcategoryService.getProductTypes(999))
@@ -0,0 +1,109 @@
+package ru.stroy1click.catalog.suggest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.stroy1click.catalog.domain.common.suggest.PrefixIndex;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    private PrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        this.index = PrefixIndex.of(Map.of(
+                1, "Кирпич облицовочный красный",
+                2, "Клей для кирпича",
+                3, "Шпатлёвка финишная",
+                4, "Кирпич"
+        ));
+    }
+
+    @Test
+    void search_WhenPrefixMatchesSeveralTitles_ShouldRankTitlesStartingWithQueryFirst() {
+        //Act
+        List<PrefixIndex.Match> result = this.index.search("кирп", 10);
+
+        //Assert
+        assertEquals(List.of(4, 1, 2), result.stream().map(PrefixIndex.Match::id).toList());
+    }
+
+    @Test
+    void search_WhenSeveralWordsProvided_ShouldRequireAllOfThem() {
+        //Act
+        List<PrefixIndex.Match> result = this.index.search("кирпич КРАС", 10);
+
+        //Assert
+        assertEquals(List.of(new PrefixIndex.Match(1, "Кирпич облицовочный красный")), result);
+    }
+
+    @Test
+    void search_WhenQueryUsesEInsteadOfYo_ShouldMatch() {
+        //Act
+        List<PrefixIndex.Match> result = this.index.search("шпатлев", 10);
+
+        //Assert
+        assertEquals(1, result.size());
+        assertEquals(3, result.getFirst().id());
+    }
+
+    @Test
+    void search_WhenLimitIsLowerThanMatches_ShouldTrimResult() {
+        //Act
+        List<PrefixIndex.Match> result = this.index.search("кирпич", 1);
+
+        //Assert
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void search_WhenManyTitlesFailOtherWords_ShouldStillFindMatch() {
+        //Arrange
+        Map<Integer, String> titles = new HashMap<>();
+        for (int id = 1; id <= 300; id++) {
+            titles.put(id, "Кирпич серый " + id);
+        }
+        titles.put(301, "Кирпич красный");
+        for (int id = 302; id <= 700; id++) {
+            titles.put(id, "Красный камень " + id);
+        }
+        PrefixIndex index = PrefixIndex.of(titles);
+
+        //Act
+        List<PrefixIndex.Match> result = index.search("кирпич красный", 10);
+
+        //Assert
+        assertEquals(List.of(new PrefixIndex.Match(301, "Кирпич красный")), result);
+    }
+
+    @Test
+    void put_WhenTitleChanged_ShouldReplaceOldWords() {
+        //Act
+        this.index.put(4, "Блок газобетонный");
+
+        //Assert
+        assertTrue(this.index.search("газо", 10).stream().anyMatch(match -> match.id() == 4));
+        assertTrue(this.index.search("кирпич", 10).stream().noneMatch(match -> match.id() == 4));
+    }
+
+    @Test
+    void remove_WhenEntryExists_ShouldNotBeFoundAnymore() {
+        //Act
+        this.index.remove(3);
+
+        //Assert
+        assertTrue(this.index.search("шпат", 10).isEmpty());
+        assertEquals(3, this.index.size());
+    }
+
+    @Test
+    void search_WhenQueryIsBlank_ShouldReturnEmptyList() {
+        //Act & Assert
+        assertTrue(this.index.search("  ", 10).isEmpty());
+    }
+}